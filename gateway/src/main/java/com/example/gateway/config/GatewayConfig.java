@@ -3,17 +3,11 @@ package com.example.gateway.config;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 import reactor.core.publisher.Mono;
 
 @Configuration
 public class GatewayConfig {
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
     @Bean
     public KeyResolver userKeyResolver() {
         return exchange -> {
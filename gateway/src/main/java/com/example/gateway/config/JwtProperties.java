@@ -0,0 +1,51 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "gateway.jwt")
+public class JwtProperties {
+
+    // key id (JWT "kid" header) -> HMAC secret shared with user-service JwtUtils
+    private Map<String, String> keys = new HashMap<>();
+    private String defaultKeyId = "v1";
+    private int cacheMaxSize = 100_000;
+    private Duration cacheMaxTtl = Duration.ofMinutes(5);
+
+    public Map<String, String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, String> keys) {
+        this.keys = keys;
+    }
+
+    public String getDefaultKeyId() {
+        return defaultKeyId;
+    }
+
+    public void setDefaultKeyId(String defaultKeyId) {
+        this.defaultKeyId = defaultKeyId;
+    }
+
+    public int getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(int cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    public Duration getCacheMaxTtl() {
+        return cacheMaxTtl;
+    }
+
+    public void setCacheMaxTtl(Duration cacheMaxTtl) {
+        this.cacheMaxTtl = cacheMaxTtl;
+    }
+}
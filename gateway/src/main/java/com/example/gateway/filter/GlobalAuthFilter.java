@@ -1,5 +1,7 @@
 package com.example.gateway.filter;
 
+import com.example.gateway.security.AuthenticatedUser;
+import com.example.gateway.security.JwtTokenVerifier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
@@ -9,17 +11,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class GlobalAuthFilter implements GlobalFilter, Ordered {
 
     @Autowired
-    private RestTemplate restTemplate;
+    private JwtTokenVerifier jwtTokenVerifier;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -39,24 +40,14 @@ public class GlobalAuthFilter implements GlobalFilter, Ordered {
 
         String token = authHeader.substring(7);
 
-        try {
-            // Extract user info from token
-            Map<String, Object> userInfo = getUserInfoFromToken(token);
-            if (userInfo != null && userInfo.containsKey("userId")) {
-                // Add user ID to request headers for downstream services
-                ServerHttpRequest modifiedRequest = request.mutate()
-                        .header("User-Id", userInfo.get("userId").toString())
-                        .header("User-Email", (String) userInfo.get("email"))
-                        .build();
-
-                return chain.filter(exchange.mutate().request(modifiedRequest).build());
-            } else {
-                return onError(exchange, "Unable to extract user info from token", HttpStatus.UNAUTHORIZED);
-            }
-
-        } catch (Exception e) {
-            return onError(exchange, "Token validation failed: " + e.getMessage(), HttpStatus.UNAUTHORIZED);
+        // Verify the token locally; no call to user-service on the request path
+        Optional<AuthenticatedUser> user = jwtTokenVerifier.verify(token);
+        if (user.isEmpty()) {
+            return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
         }
+
+        // Add user ID to request headers for downstream services
+        return chain.filter(exchange.mutate().request(withUserHeaders(request, user.get())).build());
     }
 
     private boolean isPublicEndpoint(String path) {
@@ -67,25 +58,11 @@ public class GlobalAuthFilter implements GlobalFilter, Ordered {
                path.equals("/");
     }
 
-    private Map<String, Object> getUserInfoFromToken(String token) {
-        try {
-            String userServiceUrl = "http://user-service:8081/api/auth/validate";
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + token);
-
-            org.springframework.http.HttpEntity<String> entity =
-                new org.springframework.http.HttpEntity<>(headers);
-
-            Map<String, Object> response = restTemplate.postForObject(
-                userServiceUrl, entity, Map.class);
-
-            if (response != null && Boolean.TRUE.equals(response.get("valid"))) {
-                return (Map<String, Object>) response.get("user");
-            }
-            return null;
-        } catch (Exception e) {
-            return null;
-        }
+    private ServerHttpRequest withUserHeaders(ServerHttpRequest request, AuthenticatedUser user) {
+        return request.mutate()
+                .header("User-Id", String.valueOf(user.getUserId()))
+                .header("User-Email", user.getEmail() != null ? user.getEmail() : "")
+                .build();
     }
 
     private Mono<Void> onError(ServerWebExchange exchange, String err, HttpStatus httpStatus) {
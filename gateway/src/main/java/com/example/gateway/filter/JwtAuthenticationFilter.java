@@ -1,5 +1,7 @@
 package com.example.gateway.filter;
 
+import com.example.gateway.security.AuthenticatedUser;
+import com.example.gateway.security.JwtTokenVerifier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -8,17 +10,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAuthenticationFilter.Config> {
 
     @Autowired
-    private RestTemplate restTemplate;
+    private JwtTokenVerifier jwtTokenVerifier;
 
     public JwtAuthenticationFilter() {
         super(Config.class);
@@ -43,30 +44,19 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
 
             String token = authHeader.substring(7);
 
-            try {
-                // Validate token with user service
-                boolean isValid = validateToken(token);
-                if (!isValid) {
-                    return onError(exchange, "Invalid token", HttpStatus.UNAUTHORIZED);
-                }
-
-                // Extract user info from token
-                Map<String, Object> userInfo = getUserInfoFromToken(token);
-                if (userInfo != null && userInfo.containsKey("userId")) {
-                    // Add user ID to request headers for downstream services
-                    ServerHttpRequest modifiedRequest = request.mutate()
-                            .header("User-Id", userInfo.get("userId").toString())
-                            .header("User-Email", (String) userInfo.get("email"))
-                            .build();
-
-                    return chain.filter(exchange.mutate().request(modifiedRequest).build());
-                } else {
-                    return onError(exchange, "Unable to extract user info from token", HttpStatus.UNAUTHORIZED);
-                }
-
-            } catch (Exception e) {
-                return onError(exchange, "Token validation failed: " + e.getMessage(), HttpStatus.UNAUTHORIZED);
+            // Verify the token locally; no call to user-service on the request path
+            Optional<AuthenticatedUser> user = jwtTokenVerifier.verify(token);
+            if (user.isEmpty()) {
+                return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
             }
+
+            // Add user ID to request headers for downstream services
+            ServerHttpRequest modifiedRequest = request.mutate()
+                    .header("User-Id", String.valueOf(user.get().getUserId()))
+                    .header("User-Email", user.get().getEmail() != null ? user.get().getEmail() : "")
+                    .build();
+
+            return chain.filter(exchange.mutate().request(modifiedRequest).build());
         };
     }
 
@@ -78,45 +68,6 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
                path.equals("/");
     }
 
-    private boolean validateToken(String token) {
-        try {
-            String userServiceUrl = "http://user-service:8081/api/auth/validate";
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + token);
-
-            org.springframework.http.HttpEntity<String> entity =
-                new org.springframework.http.HttpEntity<>(headers);
-
-            Map<String, Object> response = restTemplate.postForObject(
-                userServiceUrl, entity, Map.class);
-
-            return response != null && Boolean.TRUE.equals(response.get("valid"));
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private Map<String, Object> getUserInfoFromToken(String token) {
-        try {
-            String userServiceUrl = "http://user-service:8081/api/auth/validate";
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + token);
-
-            org.springframework.http.HttpEntity<String> entity =
-                new org.springframework.http.HttpEntity<>(headers);
-
-            Map<String, Object> response = restTemplate.postForObject(
-                userServiceUrl, entity, Map.class);
-
-            if (response != null && Boolean.TRUE.equals(response.get("valid"))) {
-                return (Map<String, Object>) response.get("user");
-            }
-            return null;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     private Mono<Void> onError(ServerWebExchange exchange, String err, HttpStatus httpStatus) {
         ServerHttpResponse response = exchange.getResponse();
         response.setStatusCode(httpStatus);
@@ -0,0 +1,81 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.stock.SoldOutProducts;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rejects stock reservations for sold-out products at the edge, before the request is routed to product-service.
+ */
+@Component
+public class SoldOutFilter implements GlobalFilter, Ordered {
+
+    private static final String RESERVE_STOCK_PATH = "/api/products/reserve-stock";
+
+    private final SoldOutProducts soldOutProducts;
+    private final ObjectMapper objectMapper;
+
+    public SoldOutFilter(SoldOutProducts soldOutProducts, ObjectMapper objectMapper) {
+        this.soldOutProducts = soldOutProducts;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST || !RESERVE_STOCK_PATH.equals(request.getURI().getPath())) {
+            return chain.filter(exchange);
+        }
+
+        return ServerWebExchangeUtils.cacheRequestBody(exchange, cachedRequest -> {
+            DataBuffer body = exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR);
+            if (soldOutProducts.contains(productId(body))) {
+                return onSoldOut(exchange);
+            }
+            return chain.filter(exchange.mutate().request(cachedRequest).build());
+        });
+    }
+
+    private Long productId(DataBuffer body) {
+        if (body == null || body.readableByteCount() == 0) {
+            return null;
+        }
+        try {
+            // read without moving the buffer's read position so the body can still be forwarded
+            String json = body.toString(body.readPosition(), body.readableByteCount(), StandardCharsets.UTF_8);
+            JsonNode productId = objectMapper.readTree(json).get("productId");
+            return productId != null && productId.canConvertToLong() ? productId.asLong() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private Mono<Void> onSoldOut(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.CONFLICT);
+        response.getHeaders().add("Content-Type", "application/json");
+
+        String body = "{\"success\":false,\"message\":\"Product is sold out\"}";
+        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    @Override
+    public int getOrder() {
+        return 0; // after GlobalAuthFilter
+    }
+}
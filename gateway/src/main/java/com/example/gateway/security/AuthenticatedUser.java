@@ -0,0 +1,24 @@
+package com.example.gateway.security;
+
+public class AuthenticatedUser {
+
+    private final Long userId;
+    private final String username;
+    private final String email;
+    private final String role;
+    private final long expiresAtMillis;
+
+    public AuthenticatedUser(Long userId, String username, String email, String role, long expiresAtMillis) {
+        this.userId = userId;
+        this.username = username;
+        this.email = email;
+        this.role = role;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getEmail() { return email; }
+    public String getRole() { return role; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+}
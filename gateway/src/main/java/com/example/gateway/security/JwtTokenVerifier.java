@@ -0,0 +1,101 @@
+package com.example.gateway.security;
+
+import com.example.gateway.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Verifies user-service JWTs locally with the shared HMAC key selected by the token's "kid" header,
+ * so authenticating a request never leaves the gateway's event loop.
+ */
+@Component
+public class JwtTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenVerifier.class);
+
+    private final Map<String, SecretKey> signingKeys = new HashMap<>();
+    private final String defaultKeyId;
+    private final VerifiedTokenCache cache;
+
+    public JwtTokenVerifier(JwtProperties properties) {
+        properties.getKeys().forEach((keyId, secret) ->
+                signingKeys.put(keyId, Keys.hmacShaKeyFor(secret.getBytes())));
+        this.defaultKeyId = properties.getDefaultKeyId();
+        this.cache = new VerifiedTokenCache(properties.getCacheMaxSize(), properties.getCacheMaxTtl().toMillis());
+
+        if (signingKeys.isEmpty()) {
+            logger.warn("No gateway.jwt.keys configured - every authenticated request will be rejected");
+        }
+    }
+
+    public Optional<AuthenticatedUser> verify(String token) {
+        String tokenHash = hash(token);
+        AuthenticatedUser cached = cache.get(tokenHash);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        try {
+            Claims claims = Jwts.parser()
+                    .keyLocator(new LocatorAdapter<Key>() {
+                        @Override
+                        protected Key locate(JwsHeader header) {
+                            String keyId = header.getKeyId() != null ? header.getKeyId() : defaultKeyId;
+                            SecretKey key = signingKeys.get(keyId);
+                            if (key == null) {
+                                throw new JwtException("Unknown signing key id: " + keyId);
+                            }
+                            return key;
+                        }
+                    })
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+
+            Number userId = claims.get("userId", Number.class);
+            if (userId == null || claims.getExpiration() == null) {
+                // Tokens issued before user-service added the userId claim cannot be resolved locally.
+                logger.debug("JWT for subject {} has no userId/exp claim", claims.getSubject());
+                return Optional.empty();
+            }
+
+            AuthenticatedUser user = new AuthenticatedUser(
+                    userId.longValue(),
+                    claims.getSubject(),
+                    claims.get("email", String.class),
+                    claims.get("role", String.class),
+                    claims.getExpiration().getTime());
+            cache.put(tokenHash, user);
+            return Optional.of(user);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("JWT verification failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
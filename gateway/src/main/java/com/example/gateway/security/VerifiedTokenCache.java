@@ -0,0 +1,71 @@
+package com.example.gateway.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of already verified tokens, keyed by the token's SHA-256 hash so raw tokens are never retained.
+ * Entries expire at the earlier of the token's own expiry and the configured max TTL.
+ */
+public class VerifiedTokenCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long maxTtlMillis;
+
+    public VerifiedTokenCache(int maxSize, long maxTtlMillis) {
+        this.maxSize = maxSize;
+        this.maxTtlMillis = maxTtlMillis;
+    }
+
+    public AuthenticatedUser get(String tokenHash) {
+        Entry entry = entries.get(tokenHash);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(tokenHash, entry);
+            return null;
+        }
+        return entry.user;
+    }
+
+    public void put(String tokenHash, AuthenticatedUser user) {
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(user.getExpiresAtMillis(), now + maxTtlMillis);
+        if (expiresAt <= now || maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(tokenHash, new Entry(user, expiresAt));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+
+        // Still full of live tokens: drop an arbitrary tenth instead of tracking recency on the hot path.
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final AuthenticatedUser user;
+        private final long expiresAtMillis;
+
+        private Entry(AuthenticatedUser user, long expiresAtMillis) {
+            this.user = user;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.gateway.stock;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local mirror of product-service's sold-out set. Changes arrive on the "stock:sold-out:events" channel
+ * ("+{productId}" / "-{productId}") and the whole set is re-read periodically to recover from lost messages.
+ */
+@Component
+public class SoldOutProducts {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoldOutProducts.class);
+
+    // must match SoldOutRegistry in product-service
+    private static final String SOLD_OUT_KEY = "stock:sold-out";
+    private static final String CHANNEL = "stock:sold-out:events";
+
+    private final Set<Long> soldOut = ConcurrentHashMap.newKeySet();
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration resyncInterval;
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    public SoldOutProducts(ReactiveStringRedisTemplate redisTemplate,
+                           @Value("${gateway.sold-out.resync-interval:5s}") Duration resyncInterval) {
+        this.redisTemplate = redisTemplate;
+        this.resyncInterval = resyncInterval;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        subscriptions.add(redisTemplate.listenToChannel(CHANNEL)
+                .doOnNext(message -> apply(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(resyncInterval))
+                .subscribe());
+
+        subscriptions.add(Flux.interval(Duration.ZERO, resyncInterval)
+                .concatMap(tick -> redisTemplate.opsForSet().members(SOLD_OUT_KEY)
+                        .collect(HashSet<String>::new, Set::add)
+                        .doOnNext(this::replaceWith)
+                        .onErrorResume(e -> {
+                            logger.warn("Failed to resync sold-out products: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe());
+    }
+
+    public boolean contains(Long productId) {
+        return productId != null && soldOut.contains(productId);
+    }
+
+    private void apply(String message) {
+        if (message == null || message.length() < 2) {
+            return;
+        }
+        try {
+            Long productId = Long.valueOf(message.substring(1));
+            if (message.charAt(0) == '+') {
+                soldOut.add(productId);
+            } else if (message.charAt(0) == '-') {
+                soldOut.remove(productId);
+            }
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring malformed sold-out event: {}", message);
+        }
+    }
+
+    private void replaceWith(Set<String> members) {
+        Set<Long> latest = new HashSet<>();
+        for (String member : members) {
+            try {
+                latest.add(Long.valueOf(member));
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring malformed sold-out member: {}", member);
+            }
+        }
+        soldOut.retainAll(latest);
+        soldOut.addAll(latest);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.dispose();
+    }
+}
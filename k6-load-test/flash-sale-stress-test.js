@@ -250,7 +250,24 @@ function flashSaleScenario(data) {
     if (reserveSuccess && reserveRes.status === 200) {
       stockReservationRate.add(1);
       
-      // 3. 주문 생성 시도
+      // 3. 대기열 번호표 발급 후 입장할 때까지 순번 확인
+      let queueUrl = `${BASE_URL}/api/orders/flash-sale/queue/${data.flashSaleProductId || 2}`;
+      let queueHeaders = {
+        'Authorization': `Bearer ${authToken}`,
+        'User-Id': userId.toString()
+      };
+      let ticketRes = http.post(queueUrl, null, { headers: queueHeaders });
+      let ticketStatus = ticketRes.status === 200 ? ticketRes.json('status') : 'SOLD_OUT';
+      for (let i = 0; i < 10 && ticketStatus === 'WAITING'; i++) {
+        sleep(Math.min(ticketRes.json('estimatedWaitSeconds') || 1, 1));
+        ticketRes = http.get(queueUrl, { headers: queueHeaders });
+        ticketStatus = ticketRes.status === 200 ? ticketRes.json('status') : 'SOLD_OUT';
+      }
+      check(ticketRes, {
+        'flash sale queue admitted': () => ticketStatus === 'ADMITTED',
+      });
+      
+      // 4. 주문 생성 시도
       let orderRes = http.post(`${BASE_URL}/api/orders`, JSON.stringify({
         orderItems: [{
           productId: data.flashSaleProductId || 2,
@@ -277,7 +294,7 @@ function flashSaleScenario(data) {
         orderCreationRate.add(1);
         let actualOrderId = orderRes.json('order.orderId');
         
-        // 4. 결제 처리 시도
+        // 5. 결제 처리 시도
         let paymentRes = http.post(`${BASE_URL}/api/payments/process`, JSON.stringify({
           orderId: actualOrderId,
           amount: 300000,
@@ -0,0 +1,85 @@
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter, Rate, Trend } from 'k6/metrics';
+
+// PG 시뮬레이터(payment.gateway.simulator.*)를 켠 payment-service 에 직접 결제 요청을 보내
+// resilience4j 설정(타임아웃, 재시도, 서킷브레이커)과 payment.gateway.max-concurrency 가 세일 트래픽에서 어떻게 동작하는지 본다.
+//
+// 예) 매분 10초간 PG 오류 50% 를 섞어 실행:
+//   ./gradlew bootRun --args='--payment.gateway.simulator.error-burst.every=60s'
+//   k6 run -e RATE=300 payment-gateway-test.js
+//
+// 결과의 payment_completed / payment_failed 비율과 payment_duration p99, 그리고
+// /actuator/circuitbreakers 의 상태 변화를 함께 보고 설정을 고른다.
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8084';
+const RATE = parseInt(__ENV.RATE || '200');
+
+export let paymentDuration = new Trend('payment_duration', true);
+export let paymentCompleted = new Rate('payment_completed');
+export let gatewayUnavailable = new Counter('payment_circuit_open');
+export let gatewayTimeouts = new Counter('payment_timeouts');
+export let paymentDeclined = new Counter('payment_declined');
+
+export let options = {
+  scenarios: {
+    // 세일 오픈처럼 짧은 시간에 목표 처리량까지 올린 뒤 유지한다
+    flash_sale_payments: {
+      executor: 'ramping-arrival-rate',
+      startRate: 10,
+      timeUnit: '1s',
+      stages: [
+        { duration: '30s', target: RATE },  // 30초 동안 목표 처리량까지 증가
+        { duration: '3m', target: RATE },   // 3분 유지 (오류 폭주 구간이 몇 번 지나가도록)
+        { duration: '30s', target: 0 },     // 감소
+      ],
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+  },
+  thresholds: {
+    payment_duration: ['p(99)<3000'],
+    payment_completed: ['rate>0.9'],
+    http_req_failed: ['rate<0.05'],
+  },
+};
+
+export default function () {
+  const orderId = `k6-${__VU}-${__ITER}-${Date.now()}`;
+  const res = http.post(`${BASE_URL}/api/payments/process`, JSON.stringify({
+    orderId: orderId,
+    amount: 50000,
+    paymentMethod: 'CREDIT_CARD',
+    flashSalePayment: true,
+  }), {
+    headers: {
+      'Content-Type': 'application/json',
+      'User-Id': String((__VU % 1000) + 1),
+    },
+    timeout: '60s',
+  });
+
+  paymentDuration.add(res.timings.duration);
+
+  check(res, {
+    'payment request handled': (r) => r.status === 200,
+  });
+  if (res.status !== 200) {
+    paymentCompleted.add(0);
+    return;
+  }
+
+  const payment = res.json('payment');
+  const completed = payment && payment.status === 'COMPLETED';
+  paymentCompleted.add(completed ? 1 : 0);
+  if (!completed && payment) {
+    const reason = payment.failureReason || '';
+    if (reason.includes('does not permit further calls')) {
+      gatewayUnavailable.add(1);
+    } else if (reason.includes('TimeLimiter') || reason.includes('timed out')) {
+      gatewayTimeouts.add(1);
+    } else if (reason.includes('declined')) {
+      paymentDeclined.add(1);
+    }
+  }
+}
@@ -13,6 +13,7 @@ if "%1"=="" (
     echo   api-specific  - API별 개별 테스트
     echo   simple        - 간단한 부하 테스트
     echo   stress        - 스트레스 테스트
+    echo   payment-gateway - PG 시뮬레이터 결제 부하 테스트
     echo.
     pause
     exit /b 1
@@ -36,6 +37,9 @@ if "%1"=="comprehensive" (
 ) else if "%1"=="stress" (
     echo 스트레스 테스트 실행 중...
     k6 run scenarios/stress-test.js
+) else if "%1"=="payment-gateway" (
+    echo PG 시뮬레이터 결제 부하 테스트 실행 중...
+    k6 run payment-gateway-test.js
 ) else (
     echo 알 수 없는 테스트명: %1
     echo 사용 가능한 테스트를 확인하세요.
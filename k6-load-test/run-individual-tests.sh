@@ -14,6 +14,7 @@ if [ -z "$1" ]; then
     echo "  api-specific  - API별 개별 테스트"
     echo "  simple        - 간단한 부하 테스트"
     echo "  stress        - 스트레스 테스트"
+    echo "  payment-gateway - PG 시뮬레이터 결제 부하 테스트"
     echo ""
     exit 1
 fi
@@ -43,6 +44,10 @@ case "$1" in
         echo "스트레스 테스트 실행 중..."
         k6 run scenarios/stress-test.js
         ;;
+    "payment-gateway")
+        echo "PG 시뮬레이터 결제 부하 테스트 실행 중..."
+        k6 run payment-gateway-test.js
+        ;;
     *)
         echo "알 수 없는 테스트명: $1"
         echo "사용 가능한 테스트를 확인하세요."
@@ -1,5 +1,6 @@
 package com.jun.notificationservice.controller;
 
+import com.jun.notificationservice.dto.CursorPage;
 import com.jun.notificationservice.dto.NotificationDto;
 import com.jun.notificationservice.dto.NotificationRequest;
 import com.jun.notificationservice.service.NotificationService;
@@ -8,7 +9,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -35,9 +35,25 @@ public class NotificationController {
     }
 
     @GetMapping("/user")
-    public ResponseEntity<List<NotificationDto>> getUserNotifications(@RequestHeader("User-Id") Long userId) {
-        List<NotificationDto> notifications = notificationService.getNotificationsByUserId(userId);
-        return ResponseEntity.ok(notifications);
+    public ResponseEntity<?> getUserNotifications(@RequestHeader("User-Id") Long userId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer size) {
+        CursorPage.Cursor position;
+        try {
+            position = CursorPage.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid cursor");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        CursorPage<NotificationDto> page = notificationService.getNotificationsByUserId(
+                userId, position, CursorPage.clampSize(size));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/{notificationId}")
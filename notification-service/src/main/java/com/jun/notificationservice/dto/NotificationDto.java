@@ -39,6 +39,27 @@ public class NotificationDto {
         this.readAt = notification.getReadAt();
     }
 
+    // JPQL 프로젝션용 생성자
+    public NotificationDto(String id, Long userId, String title, String message,
+                           Notification.NotificationType type, Notification.NotificationChannel channel,
+                           Boolean isRead, String orderId, String paymentId, Boolean emailSent, Boolean smsSent,
+                           Boolean pushSent, LocalDateTime createdAt, LocalDateTime readAt) {
+        this.id = id;
+        this.userId = userId;
+        this.title = title;
+        this.message = message;
+        this.type = type;
+        this.channel = channel;
+        this.isRead = isRead;
+        this.orderId = orderId;
+        this.paymentId = paymentId;
+        this.emailSent = emailSent;
+        this.smsSent = smsSent;
+        this.pushSent = pushSent;
+        this.createdAt = createdAt;
+        this.readAt = readAt;
+    }
+
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -1,12 +1,16 @@
 package com.jun.notificationservice.entity;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_created_id", columnList = "user_id, created_at, id")
+})
 @org.hibernate.annotations.Check(constraints = "type IN ('ORDER_CREATED', 'ORDER_PLACED', 'ORDER_CONFIRMED', 'ORDER_SHIPPED', 'ORDER_DELIVERED', 'ORDER_CANCELLED', 'PAYMENT_COMPLETED', 'PAYMENT_FAILED', 'PAYMENT_REFUNDED', 'STOCK_SHORTAGE', 'FLASH_SALE_STARTED', 'FLASH_SALE_REMINDER', 'FLASH_SALE_ENDED', 'SYSTEM_MAINTENANCE', 'ACCOUNT_SECURITY', 'PROMOTIONAL')")
-public class Notification {
+public class Notification implements Persistable<String> {
 
     @Id
     @Column(name = "id", unique = true, nullable = false)
@@ -51,11 +55,24 @@ public class Notification {
     @Column(name = "read_at")
     private LocalDateTime readAt;
 
+    // id 를 직접 할당하므로 save() 가 merge 전에 SELECT 하지 않도록 새 엔티티 여부를 직접 알려준다
+    @Transient
+    private boolean isNew = true;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
 
+    @PostPersist
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
     public Notification() {}
 
     // Getters and Setters
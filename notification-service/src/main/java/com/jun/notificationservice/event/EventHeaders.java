@@ -0,0 +1,23 @@
+package com.jun.notificationservice.event;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 모든 이벤트에 붙는 event-id 헤더. 컨슈머는 이 값으로 재전달된 이벤트를 걸러낸다.
+ */
+public final class EventHeaders {
+
+    public static final String EVENT_ID = "event-id";
+
+    private EventHeaders() {
+    }
+
+    /** 헤더가 없으면(이전 버전 발행자) null */
+    public static String eventId(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(EVENT_ID);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
@@ -1,112 +1,161 @@
 package com.jun.notificationservice.listener;
 
+import com.jun.notificationservice.config.KafkaConfig;
+import com.jun.notificationservice.event.EventHeaders;
 import com.jun.notificationservice.event.NotificationEvent;
 import com.jun.notificationservice.service.NotificationEventPublisher;
 import com.jun.notificationservice.service.NotificationService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
+/**
+ * 주문/결제 이벤트를 poll 배치 단위로 받아 알림을 한 번에 저장한다. 이미 알림을 만든 이벤트는 먼저 걸러낸다.
+ */
 @Component
 public class OrderAndPaymentEventListener {
 
+    private static final String GROUP = "notification-service-group";
+
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
     @Autowired
     private NotificationEventPublisher eventPublisher;
 
-    @KafkaListener(topics = "order-created", groupId = "notification-service-group")
-    public void handleOrderCreated(Map<String, Object> orderData) {
-        try {
-            String orderId = (String) orderData.get("orderId");
-            Long userId = ((Number) orderData.get("userId")).longValue();
-
-            NotificationEvent notification = new NotificationEvent(
-                UUID.randomUUID().toString(),
-                userId,
-                "ORDER_CREATED",
-                "주문이 생성되었습니다",
-                "주문번호 " + orderId + "가 성공적으로 생성되었습니다. 결제 처리 중입니다.",
-                orderId
-            );
-
-            notificationService.createNotification(notification);
-            eventPublisher.publishNotification(notification);
-        } catch (Exception e) {
-            System.err.println("Failed to handle order created notification: " + e.getMessage());
-        }
+    @KafkaListener(topics = "order-created", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handleOrderCreated(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        notify(records, this::orderCreatedNotification);
     }
 
-    @KafkaListener(topics = "payment-completed", groupId = "notification-service-group")
-    public void handlePaymentCompleted(Map<String, Object> paymentData) {
-        try {
-            String orderId = (String) paymentData.get("orderId");
-            Long userId = ((Number) paymentData.get("userId")).longValue();
-            String amount = paymentData.get("amount").toString();
-
-            NotificationEvent notification = new NotificationEvent(
-                UUID.randomUUID().toString(),
-                userId,
-                "PAYMENT_COMPLETED",
-                "결제가 완료되었습니다",
-                "주문번호 " + orderId + "의 결제(" + amount + "원)가 성공적으로 완료되었습니다.",
-                orderId
-            );
-
-            notificationService.createNotification(notification);
-            eventPublisher.publishNotification(notification);
-        } catch (Exception e) {
-            System.err.println("Failed to handle payment completed notification: " + e.getMessage());
-        }
+    @KafkaListener(topics = "payment-completed", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handlePaymentCompleted(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        notify(records, this::paymentCompletedNotification);
     }
 
-    @KafkaListener(topics = "payment-failed", groupId = "notification-service-group")
-    public void handlePaymentFailed(Map<String, Object> paymentData) {
-        try {
-            String orderId = (String) paymentData.get("orderId");
-            Long userId = ((Number) paymentData.get("userId")).longValue();
-            String failureReason = (String) paymentData.get("failureReason");
-
-            NotificationEvent notification = new NotificationEvent(
-                UUID.randomUUID().toString(),
-                userId,
-                "PAYMENT_FAILED",
-                "결제에 실패했습니다",
-                "주문번호 " + orderId + "의 결제가 실패했습니다. 사유: " + failureReason,
-                orderId
-            );
-
-            notificationService.createNotification(notification);
-            eventPublisher.publishNotification(notification);
-        } catch (Exception e) {
-            System.err.println("Failed to handle payment failed notification: " + e.getMessage());
-        }
+    @KafkaListener(topics = "payment-failed", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handlePaymentFailed(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        notify(records, this::paymentFailedNotification);
     }
 
-    @KafkaListener(topics = "stock-reservation-failed", groupId = "notification-service-group")
-    public void handleStockReservationFailed(Map<String, Object> stockData) {
+    @KafkaListener(topics = "stock-reservation-failed", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handleStockReservationFailed(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        notify(records, this::stockShortageNotification);
+    }
+
+    private void notify(List<ConsumerRecord<String, Map<String, Object>>> records,
+                        Function<Map<String, Object>, NotificationEvent> toNotification) {
+        List<NotificationEvent> notifications = new ArrayList<>(records.size());
+        List<String> eventIds = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Map<String, Object>> record : processedEventStore.unprocessed(GROUP, records)) {
+            try {
+                notifications.add(toNotification.apply(record.value()));
+                eventIds.add(EventHeaders.eventId(record));
+            } catch (Exception e) {
+                System.err.println("Failed to read " + record.topic() + " event at offset " + record.offset() + ": " + e.getMessage());
+            }
+        }
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        List<NotificationEvent> created;
         try {
-            String orderId = (String) stockData.get("orderId");
-            String reason = (String) stockData.get("reason");
-            Long productId = ((Number) stockData.get("productId")).longValue();
-
-            // userId를 얻기 위해 주문 정보를 조회해야 하지만, 여기서는 임시로 처리
-            NotificationEvent notification = new NotificationEvent(
-                UUID.randomUUID().toString(),
-                1L, // 임시 userId
-                "STOCK_SHORTAGE",
-                "재고가 부족합니다",
-                "주문번호 " + orderId + "의 상품(ID: " + productId + ")의 재고가 부족합니다. " + reason,
-                orderId
-            );
-
-            notificationService.createNotification(notification);
-            eventPublisher.publishNotification(notification);
+            notificationService.createNotifications(notifications);
+            created = notifications;
+            processedEventStore.markDone(GROUP, eventIds);
         } catch (Exception e) {
-            System.err.println("Failed to handle stock reservation failed notification: " + e.getMessage());
+            // 배치 저장이 실패하면 한 건씩 다시 저장해 문제가 된 알림만 빠지게 한다
+            System.err.println("Failed to save " + notifications.size() + " notifications at once, retrying one by one: " + e.getMessage());
+            created = new ArrayList<>(notifications.size());
+            List<String> done = new ArrayList<>(notifications.size());
+            for (int i = 0; i < notifications.size(); i++) {
+                NotificationEvent notification = notifications.get(i);
+                try {
+                    notificationService.createNotification(notification);
+                    created.add(notification);
+                    done.add(eventIds.get(i));
+                } catch (Exception ex) {
+                    System.err.println("Failed to save notification for order " + notification.getRelatedId() + ": " + ex.getMessage());
+                    // 저장하지 못한 알림은 재전달 시 다시 만들어지도록 처리 기록을 지운다
+                    processedEventStore.release(GROUP, eventIds.get(i));
+                }
+            }
+            processedEventStore.markDone(GROUP, done);
         }
+        created.forEach(eventPublisher::publishNotification);
+    }
+
+    private NotificationEvent orderCreatedNotification(Map<String, Object> orderData) {
+        String orderId = (String) orderData.get("orderId");
+        Long userId = ((Number) orderData.get("userId")).longValue();
+
+        return new NotificationEvent(
+            UUID.randomUUID().toString(),
+            userId,
+            "ORDER_CREATED",
+            "주문이 생성되었습니다",
+            "주문번호 " + orderId + "가 성공적으로 생성되었습니다. 결제 처리 중입니다.",
+            orderId
+        );
+    }
+
+    private NotificationEvent paymentCompletedNotification(Map<String, Object> paymentData) {
+        String orderId = (String) paymentData.get("orderId");
+        Long userId = ((Number) paymentData.get("userId")).longValue();
+        String amount = paymentData.get("amount").toString();
+
+        return new NotificationEvent(
+            UUID.randomUUID().toString(),
+            userId,
+            "PAYMENT_COMPLETED",
+            "결제가 완료되었습니다",
+            "주문번호 " + orderId + "의 결제(" + amount + "원)가 성공적으로 완료되었습니다.",
+            orderId
+        );
+    }
+
+    private NotificationEvent paymentFailedNotification(Map<String, Object> paymentData) {
+        String orderId = (String) paymentData.get("orderId");
+        Long userId = ((Number) paymentData.get("userId")).longValue();
+        String failureReason = (String) paymentData.get("failureReason");
+
+        return new NotificationEvent(
+            UUID.randomUUID().toString(),
+            userId,
+            "PAYMENT_FAILED",
+            "결제에 실패했습니다",
+            "주문번호 " + orderId + "의 결제가 실패했습니다. 사유: " + failureReason,
+            orderId
+        );
+    }
+
+    private NotificationEvent stockShortageNotification(Map<String, Object> stockData) {
+        String orderId = (String) stockData.get("orderId");
+        String reason = (String) stockData.get("reason");
+        Long productId = ((Number) stockData.get("productId")).longValue();
+
+        // userId를 얻기 위해 주문 정보를 조회해야 하지만, 여기서는 임시로 처리
+        return new NotificationEvent(
+            UUID.randomUUID().toString(),
+            1L, // 임시 userId
+            "STOCK_SHORTAGE",
+            "재고가 부족합니다",
+            "주문번호 " + orderId + "의 상품(ID: " + productId + ")의 재고가 부족합니다. " + reason,
+            orderId
+        );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package com.jun.notificationservice.listener;
+
+import com.jun.notificationservice.event.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 컨슈머 그룹별로 처리한 event-id 를 Redis 에 기록한다.
+ * 처리 전에는 짧은 TTL 의 PROCESSING 표시를 SET NX 로 걸고, 핸들러(트랜잭션)가 끝난 뒤에만 {@link #markDone} 으로
+ * 긴 TTL 의 DONE 으로 바꾼다. 처리 도중 인스턴스가 죽거나 리밸런스로 파티션을 잃으면 PROCESSING 표시는 곧 만료되고,
+ * 재전달된 레코드는 그 사이 표시가 풀리기를 기다렸다가 다시 처리한다. DONE 인 레코드만 중복으로 건너뛴다.
+ * 배치는 파이프라인 한 번(왕복 1회)으로 처리한다. 리밸런스로 파티션이 다른 인스턴스에 넘어가도 같은 기록을 보므로
+ * 로컬 저장소 대신 Redis 를 쓴다.
+ */
+@Component
+public class ProcessedEventStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessedEventStore.class);
+    private static final String KEY_PREFIX = "processed-event:";
+    private static final byte[] PROCESSING = {'P'};
+    private static final byte[] DONE = {'D'};
+    private static final long IN_FLIGHT_POLL_MILLIS = 100;
+
+    private final StringRedisTemplate redisTemplate;
+    private final Expiration ttl;
+    private final Expiration processingTtl;
+
+    public ProcessedEventStore(StringRedisTemplate redisTemplate,
+                               @Value("${kafka.dedup.ttl:6h}") Duration ttl,
+                               @Value("${kafka.dedup.processing-ttl:2m}") Duration processingTtl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Expiration.from(ttl);
+        this.processingTtl = Expiration.from(processingTtl);
+    }
+
+    /**
+     * 배치에서 처리한 적 없는 레코드만 남기고 PROCESSING 으로 표시한다. 같은 배치 안에 같은 id 가 두 번 들어와도 한 번만 남는다.
+     * event-id 헤더가 없는 레코드(이전 버전 발행자)는 걸러낼 수 없으므로 그대로 둔다.
+     * 호출자는 처리에 성공한 레코드를 {@link #markDone}, 실패한 레코드를 {@link #release} 해야 한다.
+     */
+    public <K, V> List<ConsumerRecord<K, V>> unprocessed(String consumer, List<ConsumerRecord<K, V>> records) {
+        List<String> eventIds = new ArrayList<>(records.size());
+        for (ConsumerRecord<K, V> record : records) {
+            String eventId = EventHeaders.eventId(record);
+            if (eventId != null) {
+                eventIds.add(eventId);
+            }
+        }
+        if (eventIds.isEmpty()) {
+            return records;
+        }
+
+        Set<String> claimed = claim(consumer, eventIds);
+        List<ConsumerRecord<K, V>> unprocessed = new ArrayList<>(records.size());
+        for (ConsumerRecord<K, V> record : records) {
+            String eventId = EventHeaders.eventId(record);
+            if (eventId == null || claimed.remove(eventId)) {
+                unprocessed.add(record);
+            }
+        }
+        if (unprocessed.size() < records.size()) {
+            logger.info("Skipped {} already processed {} records for {}",
+                    records.size() - unprocessed.size(), records.get(0).topic(), consumer);
+        }
+        return unprocessed;
+    }
+
+    /**
+     * 아직 처리된 적 없는 id 를 PROCESSING 으로 기록하고 그 id 들을 돌려준다. 돌려받지 못한 id 는 이미 DONE 인 중복이다.
+     * 다른 컨슈머가 PROCESSING 으로 잡고 있는 id 는 그 처리가 끝나거나(DONE) 표시가 만료될 때까지 기다린 뒤 판단한다.
+     * Redis 장애 시에는 중복 제거 없이 모두 처리하도록 전부 돌려준다(기존 동작과 같다).
+     */
+    public Set<String> claim(String consumer, Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Set.of();
+        }
+        List<String> pending = new ArrayList<>(new LinkedHashSet<>(eventIds));
+        Set<String> claimed = new HashSet<>(pending.size() * 2);
+        long deadline = System.currentTimeMillis() + processingTtl.getExpirationTimeInMilliseconds() + IN_FLIGHT_POLL_MILLIS;
+        try {
+            while (true) {
+                List<String> inFlight = tryClaim(consumer, pending, claimed);
+                if (inFlight.isEmpty()) {
+                    return claimed;
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    // 표시가 만료되지 않고 남아 있다면 처리 중인 쪽이 아주 느린 것이다. 유실보다 중복 처리를 택한다.
+                    logger.warn("{} events for {} are still marked in progress, handling them anyway", inFlight.size(), consumer);
+                    claimed.addAll(inFlight);
+                    return claimed;
+                }
+                Thread.sleep(IN_FLIGHT_POLL_MILLIS);
+                pending = inFlight;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight events", e);
+        } catch (Exception e) {
+            logger.warn("Processed-event store unavailable, handling {} events without dedup: {}",
+                    pending.size(), e.getMessage());
+            claimed.addAll(pending);
+            return claimed;
+        }
+    }
+
+    public boolean claim(String consumer, String eventId) {
+        return eventId == null || claim(consumer, List.of(eventId)).contains(eventId);
+    }
+
+    /** 처리(트랜잭션 커밋)가 끝난 이벤트를 DONE 으로 바꿔 재전달 시 건너뛰게 한다 */
+    public void markDone(String consumer, Collection<String> eventIds) {
+        List<String> ids = eventIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String id : ids) {
+                    connection.stringCommands().set(key(consumer, id), DONE, ttl, RedisStringCommands.SetOption.UPSERT);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // PROCESSING 표시는 곧 만료되므로 이후 재전달은 다시 처리된다(중복 가능, 유실 없음)
+            logger.warn("Failed to mark {} events done for {}: {}", ids.size(), consumer, e.getMessage());
+        }
+    }
+
+    public void markDone(String consumer, String eventId) {
+        if (eventId != null) {
+            markDone(consumer, List.of(eventId));
+        }
+    }
+
+    public void release(String consumer, ConsumerRecord<?, ?> record) {
+        release(consumer, EventHeaders.eventId(record));
+    }
+
+    /** 처리에 실패한 이벤트는 기록을 지워 재전달 시 다시 처리되게 한다 */
+    public void release(String consumer, String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(new String(key(consumer, eventId), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            logger.warn("Failed to release processed event {} for {}: {}", eventId, consumer, e.getMessage());
+        }
+    }
+
+    // SET NX 와 GET 을 한 파이프라인으로 보내 새로 잡은 id 는 claimed 에 넣고, 다른 쪽이 처리 중인 id 를 돌려준다
+    private List<String> tryClaim(String consumer, List<String> ids, Set<String> claimed) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String id : ids) {
+                byte[] key = key(consumer, id);
+                connection.stringCommands().set(key, PROCESSING, processingTtl, RedisStringCommands.SetOption.SET_IF_ABSENT);
+                connection.stringCommands().get(key);
+            }
+            return null;
+        });
+
+        List<String> inFlight = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i * 2))) {
+                claimed.add(ids.get(i));
+            } else if (isProcessing(results.get(i * 2 + 1))) {
+                inFlight.add(ids.get(i));
+            }
+        }
+        return inFlight;
+    }
+
+    private static boolean isProcessing(Object value) {
+        if (value instanceof byte[] bytes) {
+            return Arrays.equals(bytes, PROCESSING);
+        }
+        return value != null && new String(PROCESSING, StandardCharsets.UTF_8).equals(value.toString());
+    }
+
+    private static byte[] key(String consumer, String eventId) {
+        return (KEY_PREFIX + consumer + ":" + eventId).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,9 +1,14 @@
 package com.jun.notificationservice.repository;
 
+import com.jun.notificationservice.dto.NotificationDto;
 import com.jun.notificationservice.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -11,6 +16,20 @@ public interface NotificationRepository extends JpaRepository<Notification, Stri
     
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
     
+    // 목록 페이지는 DTO 로 바로 조회해 영속성 컨텍스트에 엔티티를 올리지 않는다
+    @Query("SELECT new com.jun.notificationservice.dto.NotificationDto(n.id, n.userId, n.title, n.message, n.type, n.channel, n.isRead, n.orderId, n.paymentId, n.emailSent, n.smsSent, n.pushSent, n.createdAt, n.readAt) " +
+           "FROM Notification n WHERE n.userId = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationDto> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT new com.jun.notificationservice.dto.NotificationDto(n.id, n.userId, n.title, n.message, n.type, n.channel, n.isRead, n.orderId, n.paymentId, n.emailSent, n.smsSent, n.pushSent, n.createdAt, n.readAt) " +
+           "FROM Notification n WHERE n.userId = :userId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationDto> findPageByUserIdBefore(@Param("userId") Long userId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") String id,
+                                                 Pageable pageable);
+    
     Notification findByIdAndUserId(String id, Long userId);
     
     List<Notification> findByUserIdAndIsReadFalse(Long userId);
@@ -1,11 +1,13 @@
 package com.jun.notificationservice.service;
 
+import com.jun.notificationservice.dto.CursorPage;
 import com.jun.notificationservice.dto.NotificationDto;
 import com.jun.notificationservice.dto.NotificationRequest;
 import com.jun.notificationservice.entity.Notification;
 import com.jun.notificationservice.event.NotificationEvent;
 import com.jun.notificationservice.repository.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -62,9 +64,19 @@ public class NotificationService {
         return new NotificationDto(saved);
     }
     
-    public List<NotificationDto> getNotificationsByUserId(Long userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return notifications.stream().map(NotificationDto::new).collect(Collectors.toList());
+    // size+1 개를 읽어 다음 페이지 존재 여부를 판단한다 (COUNT 쿼리 없음)
+    public CursorPage<NotificationDto> getNotificationsByUserId(Long userId, CursorPage.Cursor cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<NotificationDto> notifications = cursor == null
+                ? notificationRepository.findFirstPageByUserId(userId, limit)
+                : notificationRepository.findPageByUserIdBefore(userId, cursor.getCreatedAt(), cursor.getId(), limit);
+
+        if (notifications.size() <= size) {
+            return new CursorPage<>(notifications, null);
+        }
+        NotificationDto last = notifications.get(size - 1);
+        return new CursorPage<>(notifications.subList(0, size),
+                new CursorPage.Cursor(last.getCreatedAt(), last.getId()).encode());
     }
     
     public NotificationDto getNotification(String notificationId, Long userId) {
@@ -124,6 +136,23 @@ public class NotificationService {
     }
 
     public void createNotification(NotificationEvent event) {
+        Notification notification = notificationRepository.save(toEntity(event));
+
+        // 실시간 WebSocket 알림 전송
+        sendRealTimeNotification("/topic/user-notification/" + event.getUserId(), new NotificationDto(notification));
+    }
+
+    // Kafka 배치 리스너용. saveAll 한 번(트랜잭션 하나, JDBC 배치 INSERT)으로 저장한 뒤 실시간 알림을 보낸다
+    public void createNotifications(List<NotificationEvent> events) {
+        List<Notification> notifications = notificationRepository.saveAll(
+                events.stream().map(this::toEntity).collect(Collectors.toList()));
+
+        for (Notification notification : notifications) {
+            sendRealTimeNotification("/topic/user-notification/" + notification.getUserId(), new NotificationDto(notification));
+        }
+    }
+
+    private Notification toEntity(NotificationEvent event) {
         Notification notification = new Notification();
         notification.setId(event.getNotificationId());
         notification.setUserId(event.getUserId());
@@ -142,10 +171,6 @@ public class NotificationService {
 
         notification.setIsRead(false);
         notification.setCreatedAt(LocalDateTime.now());
-
-        notificationRepository.save(notification);
-
-        // 실시간 WebSocket 알림 전송
-        sendRealTimeNotification("/topic/user-notification/" + event.getUserId(), new NotificationDto(notification));
+        return notification;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.jun.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "flash-sale.admission")
+public class FlashSaleAdmissionProperties {
+
+    private boolean enabled = true;
+    private double admitRatePerSecond = 100;
+    private int burst = 200;
+    private Duration admissionWindow = Duration.ofMinutes(2);
+    private Duration budgetTtl = Duration.ofSeconds(5);
+    private Duration queueTtl = Duration.ofHours(1);
+    private Duration orderLimitTtl = Duration.ofHours(24);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getAdmitRatePerSecond() {
+        return admitRatePerSecond;
+    }
+
+    public void setAdmitRatePerSecond(double admitRatePerSecond) {
+        this.admitRatePerSecond = admitRatePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public Duration getAdmissionWindow() {
+        return admissionWindow;
+    }
+
+    public void setAdmissionWindow(Duration admissionWindow) {
+        this.admissionWindow = admissionWindow;
+    }
+
+    public Duration getBudgetTtl() {
+        return budgetTtl;
+    }
+
+    public void setBudgetTtl(Duration budgetTtl) {
+        this.budgetTtl = budgetTtl;
+    }
+
+    public Duration getQueueTtl() {
+        return queueTtl;
+    }
+
+    public void setQueueTtl(Duration queueTtl) {
+        this.queueTtl = queueTtl;
+    }
+
+    public Duration getOrderLimitTtl() {
+        return orderLimitTtl;
+    }
+
+    public void setOrderLimitTtl(Duration orderLimitTtl) {
+        this.orderLimitTtl = orderLimitTtl;
+    }
+}
@@ -0,0 +1,61 @@
+package com.jun.orderservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Saga 이벤트는 orderId 를 키로 발행되므로 같은 주문의 이벤트는 항상 같은 파티션에 들어간다.
+ * 배치 리스너는 파티션 수만큼 컨슈머 스레드를 늘려도 주문별 순서가 유지된다.
+ */
+@Configuration
+public class KafkaConfig {
+
+    public static final String BATCH_LISTENER_FACTORY = "batchKafkaListenerContainerFactory";
+
+    // spring.kafka.* 설정은 그대로 쓰고 배치 모드와 동시성만 바꾼다
+    @Bean(BATCH_LISTENER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KafkaTemplate<Object, Object> kafkaTemplate,
+            @Value("${kafka.batch-listener.concurrency:3}") int concurrency,
+            @Value("${kafka.batch-listener.retry-interval-ms:1000}") long retryIntervalMs,
+            @Value("${kafka.batch-listener.max-retries:3}") long maxRetries) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(batchErrorHandler(kafkaTemplate, retryIntervalMs, maxRetries));
+        return factory;
+    }
+
+    // 리스너가 BatchListenerFailedException 을 던지면 실패한 레코드 앞까지만 커밋하고 그 레코드부터 다시 받는다.
+    // 재시도를 다 쓰면 {topic}.DLT 로 보내고 다음 레코드로 넘어간다. DLT 파티션은 브로커가 고르게 해 파티션 수가 달라도 된다
+    private DefaultErrorHandler batchErrorHandler(KafkaTemplate<Object, Object> kafkaTemplate,
+                                                  long retryIntervalMs, long maxRetries) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> new TopicPartition(record.topic() + ".DLT", -1));
+        return new DefaultErrorHandler(recoverer, new FixedBackOff(retryIntervalMs, maxRetries));
+    }
+
+    @Bean
+    public NewTopic orderCreatedTopic(@Value("${kafka.topics.partitions:6}") int partitions) {
+        return TopicBuilder.name("order-created").partitions(partitions).build();
+    }
+
+    @Bean
+    public NewTopic orderCancelledTopic(@Value("${kafka.topics.partitions:6}") int partitions) {
+        return TopicBuilder.name("order-cancelled").partitions(partitions).build();
+    }
+}
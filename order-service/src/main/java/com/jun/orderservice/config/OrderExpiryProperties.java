@@ -0,0 +1,66 @@
+package com.jun.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "order.expiry")
+public class OrderExpiryProperties {
+
+    private boolean enabled = true;
+    private Duration pendingTtl = Duration.ofMinutes(10);
+    private long tickMs = 1000;
+    private int wheelSize = 64;
+    private int batchSize = 200;
+    private int recoveryPageSize = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getPendingTtl() {
+        return pendingTtl;
+    }
+
+    public void setPendingTtl(Duration pendingTtl) {
+        this.pendingTtl = pendingTtl;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    public void setTickMs(long tickMs) {
+        this.tickMs = tickMs;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    public void setWheelSize(int wheelSize) {
+        this.wheelSize = wheelSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getRecoveryPageSize() {
+        return recoveryPageSize;
+    }
+
+    public void setRecoveryPageSize(int recoveryPageSize) {
+        this.recoveryPageSize = recoveryPageSize;
+    }
+}
@@ -0,0 +1,52 @@
+package com.jun.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "saga.store")
+public class SagaStoreProperties {
+
+    private String type = "redis";
+    private Duration activeTtl = Duration.ofHours(24);
+    private Duration finishedTtl = Duration.ofMinutes(10);
+    private int maxSize = 100_000;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Duration getActiveTtl() {
+        return activeTtl;
+    }
+
+    public void setActiveTtl(Duration activeTtl) {
+        this.activeTtl = activeTtl;
+    }
+
+    public Duration getFinishedTtl() {
+        return finishedTtl;
+    }
+
+    public void setFinishedTtl(Duration finishedTtl) {
+        this.finishedTtl = finishedTtl;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration ttlFor(boolean finished) {
+        return finished ? finishedTtl : activeTtl;
+    }
+}
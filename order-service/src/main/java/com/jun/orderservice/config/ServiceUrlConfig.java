@@ -3,22 +3,17 @@ package com.jun.orderservice.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
 @Configuration
 @ConfigurationProperties(prefix = "services")
 public class ServiceUrlConfig {
 
-    private String gatewayUrl = "http://localhost:8080";
     private ProductService productService = new ProductService();
     private PaymentService paymentService = new PaymentService();
 
-    public String getGatewayUrl() {
-        return gatewayUrl;
-    }
-
-    public void setGatewayUrl(String gatewayUrl) {
-        this.gatewayUrl = gatewayUrl;
-    }
-
     public ProductService getProductService() {
         return productService;
     }
@@ -37,6 +32,8 @@ public class ServiceUrlConfig {
 
     public static class ProductService {
         private String baseUrl = "/api/products";
+        private Duration infoCacheTtl = Duration.ofSeconds(30);
+        private long infoCacheMaxSize = 10_000;
 
         public String getBaseUrl() {
             return baseUrl;
@@ -46,10 +43,32 @@ public class ServiceUrlConfig {
             this.baseUrl = baseUrl;
         }
 
+        public Duration getInfoCacheTtl() {
+            return infoCacheTtl;
+        }
+
+        public void setInfoCacheTtl(Duration infoCacheTtl) {
+            this.infoCacheTtl = infoCacheTtl;
+        }
+
+        public long getInfoCacheMaxSize() {
+            return infoCacheMaxSize;
+        }
+
+        public void setInfoCacheMaxSize(long infoCacheMaxSize) {
+            this.infoCacheMaxSize = infoCacheMaxSize;
+        }
+
         public String getProductUrl(Long productId) {
             return baseUrl + "/" + productId;
         }
 
+        public String getProductsUrl(Collection<Long> productIds) {
+            return baseUrl + "?ids=" + productIds.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(","));
+        }
+
         public String getStockReservationUrl() {
             return baseUrl + "/reserve-stock";
         }
@@ -70,8 +89,4 @@ public class ServiceUrlConfig {
             return baseUrl + "/process";
         }
     }
-
-    public String buildFullUrl(String relativePath) {
-        return gatewayUrl + relativePath;
-    }
 }
\ No newline at end of file
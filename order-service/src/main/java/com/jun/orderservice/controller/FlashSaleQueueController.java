@@ -0,0 +1,43 @@
+package com.jun.orderservice.controller;
+
+import com.jun.orderservice.service.admission.AdmissionStatus;
+import com.jun.orderservice.service.admission.AdmissionTicket;
+import com.jun.orderservice.service.admission.FlashSaleAdmissionQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/orders/flash-sale/queue")
+public class FlashSaleQueueController {
+
+    @Autowired
+    private FlashSaleAdmissionQueue admissionQueue;
+
+    // 대기열 번호표 발급 (이미 대기 중이면 현재 순번을 반환)
+    @PostMapping("/{productId}")
+    public ResponseEntity<AdmissionTicket> enqueue(@PathVariable Long productId,
+                                                   @RequestHeader("User-Id") Long userId) {
+        AdmissionTicket ticket = admissionQueue.enqueue(productId, userId);
+        return toResponse(ticket);
+    }
+
+    // 순번 / 예상 대기시간 조회
+    @GetMapping("/{productId}")
+    public ResponseEntity<AdmissionTicket> getTicket(@PathVariable Long productId,
+                                                     @RequestHeader("User-Id") Long userId) {
+        AdmissionTicket ticket = admissionQueue.getTicket(productId, userId);
+        return toResponse(ticket);
+    }
+
+    private ResponseEntity<AdmissionTicket> toResponse(AdmissionTicket ticket) {
+        if (ticket.getStatus() == AdmissionStatus.SOLD_OUT) {
+            return ResponseEntity.status(HttpStatus.GONE).body(ticket);
+        }
+        if (ticket.getStatus() == AdmissionStatus.LIMIT_REACHED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ticket);
+        }
+        return ResponseEntity.ok(ticket);
+    }
+}
@@ -1,8 +1,11 @@
 package com.jun.orderservice.controller;
 
+import com.jun.orderservice.dto.CursorPage;
 import com.jun.orderservice.dto.OrderDto;
 import com.jun.orderservice.dto.OrderRequest;
 import com.jun.orderservice.service.OrderService;
+import com.jun.orderservice.service.admission.AdmissionStatus;
+import com.jun.orderservice.service.admission.FlashSaleAdmissionQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,9 +22,37 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private FlashSaleAdmissionQueue admissionQueue;
+
     @PostMapping
     public ResponseEntity<?> createOrder(@RequestBody OrderRequest orderRequest,
                                        @RequestHeader("User-Id") Long userId) {
+        // 플래시 세일 주문은 대기열에서 입장한 사용자만 받는다 (DB 작업 전에 거절)
+        List<Long> flashSaleProductIds;
+        try {
+            flashSaleProductIds = orderService.getActiveFlashSaleProductIds(orderRequest);
+        } catch (RuntimeException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        AdmissionStatus admission = admissionQueue.enter(flashSaleProductIds, userId);
+        if (admission != AdmissionStatus.ADMITTED) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("status", admission.name());
+            if (admission == AdmissionStatus.SOLD_OUT) {
+                errorResponse.put("error", "Flash sale product is sold out");
+                return ResponseEntity.status(HttpStatus.GONE).body(errorResponse);
+            }
+            if (admission == AdmissionStatus.LIMIT_REACHED) {
+                errorResponse.put("error", "Flash sale order limit per user reached");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+            }
+            errorResponse.put("error", "Not admitted from the flash sale queue");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorResponse);
+        }
+
         try {
             OrderDto order = orderService.createOrder(orderRequest, userId);
             Map<String, Object> response = new HashMap<>();
@@ -29,16 +60,33 @@ public class OrderController {
             response.put("order", order);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (RuntimeException e) {
+            admissionQueue.restore(flashSaleProductIds, userId);
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
 
+    // 본문은 주문 목록이고, 다음 페이지가 있으면 X-Next-Cursor 헤더의 값을 cursor 로 넘겨 이어서 조회한다
     @GetMapping
-    public ResponseEntity<List<OrderDto>> getUserOrders(@RequestHeader("User-Id") Long userId) {
-        List<OrderDto> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getUserOrders(@RequestHeader("User-Id") Long userId,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size) {
+        CursorPage.Cursor position;
+        try {
+            position = CursorPage.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid cursor");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        CursorPage<OrderDto> page = orderService.getOrdersByUserId(userId, position, CursorPage.clampSize(size));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/{orderId}")
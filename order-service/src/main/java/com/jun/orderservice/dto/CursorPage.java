@@ -0,0 +1,85 @@
+package com.jun.orderservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 키셋(커서) 페이지. 목록 본문은 items 그대로 내려가고, 다음 페이지 커서는 {@value #NEXT_CURSOR_HEADER} 헤더로 전달된다.
+ * 커서는 마지막 행의 정렬 키를 URL-safe Base64 로 감싼 불투명 문자열이다.
+ */
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+
+    public static int clampSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+
+    /**
+     * (createdAt DESC, id DESC) 정렬의 위치. 다음 페이지는 이 위치보다 뒤(더 오래된) 행부터 시작한다.
+     */
+    public static class Cursor {
+        private final LocalDateTime createdAt;
+        private final String id;
+
+        public Cursor(LocalDateTime createdAt, String id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public String getId() { return id; }
+
+        public Long getIdAsLong() {
+            return Long.valueOf(id);
+        }
+
+        public String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @return 비어 있으면 null (첫 페이지)
+         * @throws IllegalArgumentException 형식이 잘못된 커서
+         */
+        public static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Malformed cursor");
+                }
+                String id = raw.substring(separator + 1);
+                // 숫자 id 를 여기서 검증해 잘못된 커서가 서비스까지 가서 500 이 되지 않게 한다
+                Long.parseLong(id);
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), id);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cursor", e);
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.jun.orderservice.entity;
 
+import com.jun.orderservice.id.UuidStringConverter;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -9,14 +12,21 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created_id", columnList = "user_id, created_at, id"),
+        // 만료 스케줄러의 복구/누락 스윕 (status = 'PENDING' AND expires_at 범위)
+        @Index(name = "idx_orders_status_expires_at", columnList = "status, expires_at")
+})
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDENTITY 는 INSERT 마다 키를 돌려받아야 해서 JDBC 배치가 꺼진다. pooled 시퀀스로 50개씩 미리 받아 쓴다.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_id", unique = true, nullable = false)
+    @Convert(converter = UuidStringConverter.class)
     private String orderId;
 
     @Column(name = "user_id", nullable = false)
@@ -46,7 +56,9 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // 목록에서 주문마다 항목을 따로 읽지 않도록 한 페이지(최대 100건)의 항목을 IN 쿼리 한 번으로 읽는다
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<OrderItem> orderItems = new ArrayList<>();
 
     protected Order() {}
@@ -59,6 +71,7 @@ public class Order {
         this.flashSaleOrder = builder.flashSaleOrder;
         this.status = builder.status;
         this.totalAmount = builder.totalAmount;
+        this.expiresAt = builder.expiresAt;
     }
 
     public static Builder builder() {
@@ -73,6 +86,7 @@ public class Order {
         private Boolean flashSaleOrder = false;
         private OrderStatus status = OrderStatus.PENDING;
         private BigDecimal totalAmount = BigDecimal.ZERO;
+        private LocalDateTime expiresAt;
 
         public Builder orderId(String orderId) {
             this.orderId = orderId;
@@ -109,6 +123,11 @@ public class Order {
             return this;
         }
 
+        public Builder expiresAt(LocalDateTime expiresAt) {
+            this.expiresAt = expiresAt;
+            return this;
+        }
+
         public Order build() {
             validateRequiredFields();
             return new Order(this);
@@ -127,7 +146,7 @@ public class Order {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
 
-        if (Boolean.TRUE.equals(flashSaleOrder)) {
+        if (expiresAt == null && Boolean.TRUE.equals(flashSaleOrder)) {
             expiresAt = LocalDateTime.now().plusMinutes(10);
         }
     }
@@ -165,6 +184,14 @@ public class Order {
         this.status = OrderStatus.CONFIRMED;
     }
 
+    // 결제되지 않은 채 예약 시간이 지난 주문. 예약 재고는 취소 이벤트로 해제된다.
+    public void expire() {
+        if (status != OrderStatus.PENDING) {
+            throw new IllegalStateException("Order cannot be expired in current status: " + status);
+        }
+        this.status = OrderStatus.EXPIRED;
+    }
+
     public boolean canBeCancelled() {
         return status == OrderStatus.PENDING || status == OrderStatus.CONFIRMED;
     }
@@ -182,7 +209,7 @@ public class Order {
     }
 
     private void validateStatusTransition(OrderStatus newStatus) {
-        if (status == OrderStatus.CANCELLED || status == OrderStatus.DELIVERED) {
+        if (status == OrderStatus.CANCELLED || status == OrderStatus.DELIVERED || status == OrderStatus.EXPIRED) {
             throw new IllegalStateException("Cannot change status from " + status + " to " + newStatus);
         }
     }
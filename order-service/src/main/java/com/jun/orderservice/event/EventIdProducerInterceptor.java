@@ -0,0 +1,38 @@
+package com.jun.orderservice.event;
+
+import com.jun.orderservice.id.TimeOrderedUuid;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * event-id 헤더가 없는 레코드에 새 id 를 붙인다. outbox 레코드는 저장 시점의 id 를 이미 갖고 있으므로
+ * 릴레이가 재전송해도 같은 id 가 유지되고, KafkaTemplate 으로 직접 보내는 이벤트만 여기서 id 를 받는다.
+ * spring.kafka.producer.properties.interceptor.classes 로 등록한다.
+ */
+public class EventIdProducerInterceptor implements ProducerInterceptor<Object, Object> {
+
+    @Override
+    public ProducerRecord<Object, Object> onSend(ProducerRecord<Object, Object> record) {
+        if (record.headers().lastHeader(EventHeaders.EVENT_ID) == null) {
+            record.headers().add(EventHeaders.EVENT_ID,
+                    TimeOrderedUuid.nextString().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
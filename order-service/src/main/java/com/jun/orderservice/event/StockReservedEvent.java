@@ -3,12 +3,14 @@ package com.jun.orderservice.event;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class StockReservedEvent {
     private final String orderId;
     private final Long productId;
     private final Integer quantity;
     private final String productName;
+    private final List<ReservedItem> items;
     private final LocalDateTime timestamp;
 
     @JsonCreator
@@ -17,11 +19,13 @@ public class StockReservedEvent {
             @JsonProperty("productId") Long productId,
             @JsonProperty("quantity") Integer quantity,
             @JsonProperty("productName") String productName,
+            @JsonProperty("items") List<ReservedItem> items,
             @JsonProperty("timestamp") LocalDateTime timestamp) {
         this.orderId = orderId;
         this.productId = productId;
         this.quantity = quantity;
         this.productName = productName;
+        this.items = items != null ? items : List.of();
         this.timestamp = timestamp != null ? timestamp : LocalDateTime.now();
     }
 
@@ -29,11 +33,32 @@ public class StockReservedEvent {
     public Long getProductId() { return productId; }
     public Integer getQuantity() { return quantity; }
     public String getProductName() { return productName; }
+    public List<ReservedItem> getItems() { return items; }
     public LocalDateTime getTimestamp() { return timestamp; }
 
     @Override
     public String toString() {
-        return String.format("StockReservedEvent{orderId='%s', productId=%d, quantity=%d, productName='%s', timestamp=%s}",
-                orderId, productId, quantity, productName, timestamp);
+        return String.format("StockReservedEvent{orderId='%s', productId=%d, quantity=%d, productName='%s', items=%d, timestamp=%s}",
+                orderId, productId, quantity, productName, items.size(), timestamp);
+    }
+
+    public static class ReservedItem {
+        private final Long productId;
+        private final Integer quantity;
+        private final String productName;
+
+        @JsonCreator
+        public ReservedItem(
+                @JsonProperty("productId") Long productId,
+                @JsonProperty("quantity") Integer quantity,
+                @JsonProperty("productName") String productName) {
+            this.productId = productId;
+            this.quantity = quantity;
+            this.productName = productName;
+        }
+
+        public Long getProductId() { return productId; }
+        public Integer getQuantity() { return quantity; }
+        public String getProductName() { return productName; }
     }
 }
\ No newline at end of file
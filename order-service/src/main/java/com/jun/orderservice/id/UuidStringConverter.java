@@ -0,0 +1,31 @@
+package com.jun.orderservice.id;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.UUID;
+
+/**
+ * 코드와 이벤트에서는 문자열로 다루는 식별자를 DB 에는 16바이트 uuid 컬럼으로 저장한다.
+ * UUID 형식이 아닌 조회 값은 null 로 바인딩되어 어떤 행과도 일치하지 않는다.
+ */
+@Converter
+public class UuidStringConverter implements AttributeConverter<String, UUID> {
+
+    @Override
+    public UUID convertToDatabaseColumn(String attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(attribute);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String convertToEntityAttribute(UUID dbData) {
+        return dbData != null ? dbData.toString() : null;
+    }
+}
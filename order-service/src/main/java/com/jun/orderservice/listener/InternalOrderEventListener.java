@@ -1,19 +1,32 @@
 package com.jun.orderservice.listener;
 
+import com.jun.orderservice.event.EventHeaders;
 import com.jun.orderservice.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import java.util.Map;
 
 @Component
 public class InternalOrderEventListener {
 
+    private static final String GROUP = "order-internal-group";
+
     @Autowired
     private OrderService orderService;
 
-    @KafkaListener(topics = "order-cancel-request", groupId = "order-internal-group")
-    public void handleOrderCancelRequest(Map<String, Object> cancelRequest) {
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    @KafkaListener(topics = "order-cancel-request", groupId = GROUP)
+    public void handleOrderCancelRequest(@Payload Map<String, Object> cancelRequest,
+                                         @Header(name = EventHeaders.EVENT_ID, required = false) String eventId) {
+        if (!processedEventStore.claim(GROUP, eventId)) {
+            System.out.println("Skipping duplicate order cancel request: " + eventId);
+            return;
+        }
         try {
             String orderId = (String) cancelRequest.get("orderId");
             Long userId = ((Number) cancelRequest.get("userId")).longValue();
@@ -27,8 +40,10 @@ public class InternalOrderEventListener {
             } else {
                 System.err.println("Failed to cancel order: " + orderId);
             }
+            processedEventStore.markDone(GROUP, eventId);
         } catch (Exception e) {
             System.err.println("Failed to handle order cancel request: " + e.getMessage());
+            processedEventStore.release(GROUP, eventId);
         }
     }
 }
\ No newline at end of file
@@ -1,60 +1,110 @@
 package com.jun.orderservice.listener;
 
+import com.jun.orderservice.config.KafkaConfig;
 import com.jun.orderservice.service.OrderService;
 import com.jun.orderservice.entity.Order;
+import com.jun.orderservice.event.EventHeaders;
 import com.jun.orderservice.event.PaymentCompletedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
+/**
+ * 결제 결과를 poll 배치 단위로 모아 주문 상태를 한 트랜잭션에서 갱신한다. 이미 처리한 이벤트는 먼저 걸러낸다.
+ */
 @Component
 public class PaymentEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentEventListener.class);
+    private static final String GROUP = "order-service-group";
 
     @Autowired
     private OrderService orderService;
 
-    @KafkaListener(topics = "payment-completed", groupId = "order-service-group")
-    public void handlePaymentCompleted(PaymentCompletedEvent paymentEvent) {
-        try {
-            logger.info("Processing payment completed event for order: {}", paymentEvent.getOrderId());
-
-            boolean updated = orderService.updateOrderStatus(
-                paymentEvent.getOrderId(),
-                Order.OrderStatus.CONFIRMED,
-                paymentEvent.getUserId()
-            );
-
-            if (updated) {
-                logger.info("Order confirmed successfully: {}", paymentEvent.getOrderId());
-            } else {
-                logger.error("Failed to confirm order: {}", paymentEvent.getOrderId());
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    @KafkaListener(topics = "payment-completed", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handlePaymentCompleted(List<ConsumerRecord<String, PaymentCompletedEvent>> records) {
+        Map<String, PaymentCompletedEvent> paymentsByOrderId = new LinkedHashMap<>();
+        Map<String, String> eventIdsByOrderId = new HashMap<>();
+        for (ConsumerRecord<String, PaymentCompletedEvent> record : processedEventStore.unprocessed(GROUP, records)) {
+            PaymentCompletedEvent paymentEvent = record.value();
+            if (paymentEvent == null || paymentEvent.getOrderId() == null) {
+                logger.error("Skipping unreadable payment completed event at offset {}", record.offset());
+                continue;
             }
-        } catch (Exception e) {
-            logger.error("Failed to handle payment completed event for order: {}",
-                paymentEvent != null ? paymentEvent.getOrderId() : "unknown", e);
+            paymentsByOrderId.put(paymentEvent.getOrderId(), paymentEvent);
+            eventIdsByOrderId.put(paymentEvent.getOrderId(), EventHeaders.eventId(record));
         }
+        // 결제 중에 만료된 주문은 확정 대신 환불을 요청한다
+        updateOrders(paymentsByOrderId, eventIdsByOrderId, Order.OrderStatus.CONFIRMED, orderService::confirmPaidOrders);
     }
 
-    @KafkaListener(topics = "payment-failed", groupId = "order-service-group")
-    public void handlePaymentFailed(Map<String, Object> paymentData) {
+    @KafkaListener(topics = "payment-failed", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handlePaymentFailed(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        Map<String, Long> userIdsByOrderId = new LinkedHashMap<>();
+        Map<String, String> eventIdsByOrderId = new HashMap<>();
+        for (ConsumerRecord<String, Map<String, Object>> record : processedEventStore.unprocessed(GROUP, records)) {
+            try {
+                Map<String, Object> paymentData = record.value();
+                String orderId = (String) paymentData.get("orderId");
+                Long userId = ((Number) paymentData.get("userId")).longValue();
+                logger.info("Cancelling order {} due to payment failure: {}", orderId, paymentData.get("failureReason"));
+                userIdsByOrderId.put(orderId, userId);
+                eventIdsByOrderId.put(orderId, EventHeaders.eventId(record));
+            } catch (Exception e) {
+                logger.error("Skipping unreadable payment failed event at offset {}: {}", record.offset(), e.getMessage());
+            }
+        }
+        updateOrders(userIdsByOrderId, eventIdsByOrderId, Order.OrderStatus.CANCELLED,
+                batch -> orderService.updateOrderStatuses(batch, Order.OrderStatus.CANCELLED));
+    }
+
+    // 트랜잭션이 커밋된 주문의 이벤트만 DONE 으로 기록하고, 예외로 갱신하지 못한 주문의 이벤트는 처리 기록을 지워
+    // 재전달 시 다시 시도되게 한다. 상태 전이가 허용되지 않아 건너뛴 주문은 다시 해도 같으므로 처리한 것으로 본다.
+    private <T> void updateOrders(Map<String, T> byOrderId, Map<String, String> eventIdsByOrderId,
+                                  Order.OrderStatus status, Function<Map<String, T>, Set<String>> update) {
+        if (byOrderId.isEmpty()) {
+            return;
+        }
         try {
-            String orderId = (String) paymentData.get("orderId");
-            Long userId = ((Number) paymentData.get("userId")).longValue();
-            String failureReason = (String) paymentData.get("failureReason");
-
-            boolean updated = orderService.updateOrderStatus(orderId, Order.OrderStatus.CANCELLED.name(), userId);
-            if (updated) {
-                System.out.println("Order cancelled due to payment failure: " + orderId + ", Reason: " + failureReason);
-            } else {
-                System.err.println("Failed to cancel order: " + orderId);
+            Set<String> updated = update.apply(byOrderId);
+            processedEventStore.markDone(GROUP, eventIdsByOrderId.values());
+            if (updated.size() < byOrderId.size()) {
+                byOrderId.keySet().stream()
+                        .filter(orderId -> !updated.contains(orderId))
+                        .forEach(orderId -> logger.error("Failed to update order {} to {}", orderId, status));
             }
         } catch (Exception e) {
-            System.err.println("Failed to handle payment failed event: " + e.getMessage());
+            // 배치 트랜잭션이 실패하면 주문별로 다시 시도해 문제가 된 주문만 실패로 남긴다
+            logger.warn("Batch update of {} orders to {} failed, retrying one by one: {}",
+                    byOrderId.size(), status, e.getMessage());
+            List<String> done = new ArrayList<>(byOrderId.size());
+            byOrderId.forEach((orderId, value) -> {
+                try {
+                    if (update.apply(Map.of(orderId, value)).isEmpty()) {
+                        logger.error("Failed to update order {} to {}", orderId, status);
+                    }
+                    done.add(eventIdsByOrderId.get(orderId));
+                } catch (Exception ex) {
+                    logger.error("Failed to update order {} to {}: {}", orderId, status, ex.getMessage());
+                    processedEventStore.release(GROUP, eventIdsByOrderId.get(orderId));
+                }
+            });
+            processedEventStore.markDone(GROUP, done);
         }
     }
-}
\ No newline at end of file
+}
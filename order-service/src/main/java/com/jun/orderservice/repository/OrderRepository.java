@@ -1,12 +1,15 @@
 package com.jun.orderservice.repository;
 
 import com.jun.orderservice.entity.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,16 +17,48 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Order findByOrderId(String orderId);
 
+    List<Order> findByOrderIdIn(Collection<String> orderIds);
+
+    // 상세 조회는 항목까지 한 번에 읽는다
+    @EntityGraph(attributePaths = "orderItems")
     Order findByOrderIdAndUserId(String orderId, Long userId);
 
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    // 키셋 페이지네이션 (idx_orders_user_created_id 인덱스를 그대로 탄다).
+    // LIMIT 이 메모리에서 적용되지 않도록 fetch join 대신 Order.orderItems 의 배치 로딩으로 항목을 읽는다.
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageByUserIdBefore(@Param("userId") Long userId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByUserIdAndFlashSaleOrderTrueOrderByCreatedAtDesc(Long userId);
 
     List<Order> findByStatus(Order.OrderStatus status);
 
-    @Query("SELECT o FROM Order o WHERE o.flashSaleOrder = true AND o.status = 'PENDING' AND o.expiresAt < :currentTime")
-    List<Order> findExpiredFlashSaleOrders(@Param("currentTime") LocalDateTime currentTime);
+    // 만료 스케줄러용. 다른 인스턴스가 같은 주문을 만료시키고 있으면 건너뛴다 (idx_orders_status_expires_at)
+    @Query(value = "SELECT * FROM orders WHERE id IN (:ids) AND status = 'PENDING' AND expires_at <= :now " +
+                   "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Order> lockExpiredPendingOrders(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT * FROM orders WHERE status = 'PENDING' AND expires_at <= :now " +
+                   "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Order> lockExpiredPendingOrders(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // 재시작 시 아직 만료되지 않은 주문을 (expires_at, id) 키셋으로 읽어 휠에 다시 올린다
+    @Query("SELECT o FROM Order o WHERE o.status = 'PENDING' " +
+           "AND (o.expiresAt > :expiresAt OR (o.expiresAt = :expiresAt AND o.id > :id)) " +
+           "ORDER BY o.expiresAt, o.id")
+    List<Order> findPendingExpiringAfter(@Param("expiresAt") LocalDateTime expiresAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
 
     @Query("SELECT COUNT(o) FROM Order o WHERE o.userId = :userId AND o.status = 'PENDING'")
     long countPendingOrdersByUserId(@Param("userId") Long userId);
@@ -1,35 +1,82 @@
 package com.jun.orderservice.saga;
 
+import com.jun.orderservice.config.KafkaConfig;
 import com.jun.orderservice.event.OrderCreatedEvent;
 import com.jun.orderservice.event.OrderCancelledEvent;
 import com.jun.orderservice.event.StockReservedEvent;
 import com.jun.orderservice.event.PaymentCompletedEvent;
+import com.jun.orderservice.listener.KeyOrderedBatchDispatcher;
+import com.jun.orderservice.saga.store.SagaStateStore;
 import com.jun.orderservice.service.OrderEventPublisher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class OrderSagaOrchestrator {
 
+    private static final String SAGA_START_GROUP = "order-saga-orchestrator-group-v2";
+    private static final String SAGA_GROUP = "order-saga-group";
+
     @Autowired
     private OrderEventPublisher eventPublisher;
 
     @Autowired
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private TransactionTemplate transactionTemplate;
 
-    private final Map<String, SagaState> sagaStates = new ConcurrentHashMap<>();
+    @Autowired
+    private SagaStateStore sagaStateStore;
 
-    @KafkaListener(topics = "order-created", groupId = "order-saga-orchestrator-group-v2")
-    public void startOrderSaga(OrderCreatedEvent orderEvent) {
+    @Autowired
+    private KeyOrderedBatchDispatcher batchDispatcher;
+
+    // 각 리스너는 poll 한 배치를 받아 주문별 순서를 지키며 병렬로 처리한다
+    @KafkaListener(topics = "order-created", groupId = SAGA_START_GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void startOrderSagas(List<ConsumerRecord<String, OrderCreatedEvent>> records) {
+        batchDispatcher.dispatch(SAGA_START_GROUP, records, this::startOrderSaga);
+    }
+
+    @KafkaListener(topics = "stock-reserved", groupId = SAGA_GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handleStockReservedBatch(List<ConsumerRecord<String, StockReservedEvent>> records) {
+        batchDispatcher.dispatch(SAGA_GROUP, records, this::handleStockReserved);
+    }
+
+    @KafkaListener(topics = "payment-completed", groupId = SAGA_GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handlePaymentCompletedBatch(List<ConsumerRecord<String, PaymentCompletedEvent>> records) {
+        batchDispatcher.dispatch(SAGA_GROUP, records, this::handlePaymentCompleted);
+    }
+
+    @KafkaListener(topics = "stock-reservation-failed", groupId = SAGA_GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handleStockReservationFailedBatch(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        batchDispatcher.dispatch(SAGA_GROUP, records, this::handleStockReservationFailed);
+    }
+
+    @KafkaListener(topics = "payment-failed", groupId = SAGA_GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handlePaymentFailedBatch(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        batchDispatcher.dispatch(SAGA_GROUP, records, this::handlePaymentFailed);
+    }
+
+    private void startOrderSaga(OrderCreatedEvent orderEvent) {
         try {
             String orderId = orderEvent.getOrderId();
+            if (sagaStateStore.find(orderId).isPresent()) {
+                // 재전송된 이벤트로 진행 중인 saga 를 초기화하지 않는다
+                return;
+            }
             SagaState sagaState = new SagaState(orderId);
-            sagaState.setStep(SagaStep.ORDER_CREATED);
-            sagaStates.put(orderId, sagaState);
+            sagaState.setUserId(orderEvent.getUserId());
+            sagaState.advanceTo(SagaStep.ORDER_CREATED);
+            sagaStateStore.save(sagaState);
 
             System.out.println("Order Saga started for order: " + orderId);
         } catch (Exception e) {
@@ -37,58 +84,48 @@ public class OrderSagaOrchestrator {
         }
     }
 
-    @KafkaListener(topics = "stock-reserved", groupId = "order-saga-group")
-    public void handleStockReserved(StockReservedEvent stockReservedEvent) {
+    private void handleStockReserved(StockReservedEvent stockReservedEvent) {
         String orderId = stockReservedEvent.getOrderId();
-        SagaState sagaState = sagaStates.get(orderId);
+        SagaState sagaState = sagaStateStore.find(orderId).orElse(null);
 
         if (sagaState != null) {
-            sagaState.setStep(SagaStep.STOCK_RESERVED);
-            sagaState.addCompensationAction(() -> {
-                // 재고 해제를 위한 보상 액션
-                releaseStock(orderId);
-            });
+            sagaState.advanceTo(SagaStep.STOCK_RESERVED);
+            sagaStateStore.save(sagaState);
             System.out.println("Stock reserved for order: " + orderId +
                 ", productId: " + stockReservedEvent.getProductId() +
                 ", quantity: " + stockReservedEvent.getQuantity());
         }
     }
 
-    @KafkaListener(topics = "payment-completed", groupId = "order-saga-group")
-    public void handlePaymentCompleted(PaymentCompletedEvent paymentEvent) {
+    private void handlePaymentCompleted(PaymentCompletedEvent paymentEvent) {
         String orderId = paymentEvent.getOrderId();
-        SagaState sagaState = sagaStates.get(orderId);
+        SagaState sagaState = sagaStateStore.find(orderId).orElse(null);
 
         if (sagaState != null) {
-            sagaState.setStep(SagaStep.PAYMENT_COMPLETED);
-            sagaState.addCompensationAction(() -> {
-                // 결제 취소를 위한 보상 액션
-                refundPayment(orderId);
-            });
+            sagaState.advanceTo(SagaStep.PAYMENT_COMPLETED);
 
             // Saga 성공 완료
             sagaState.setCompleted(true);
+            sagaStateStore.save(sagaState);
             System.out.println("Order Saga completed successfully for order: " + orderId);
         }
     }
 
-    @KafkaListener(topics = "stock-reservation-failed", groupId = "order-saga-group")
-    public void handleStockReservationFailed(Map<String, Object> stockData) {
+    private void handleStockReservationFailed(Map<String, Object> stockData) {
         String orderId = (String) stockData.get("orderId");
-        SagaState sagaState = sagaStates.get(orderId);
+        SagaState sagaState = sagaStateStore.find(orderId).orElse(null);
 
-        if (sagaState != null) {
+        if (sagaState != null && !sagaState.isFinished()) {
             System.out.println("Stock reservation failed for order: " + orderId + ". Starting compensation...");
             executeCompensation(sagaState);
         }
     }
 
-    @KafkaListener(topics = "payment-failed", groupId = "order-saga-group")
-    public void handlePaymentFailed(Map<String, Object> paymentData) {
+    private void handlePaymentFailed(Map<String, Object> paymentData) {
         String orderId = (String) paymentData.get("orderId");
-        SagaState sagaState = sagaStates.get(orderId);
+        SagaState sagaState = sagaStateStore.find(orderId).orElse(null);
 
-        if (sagaState != null) {
+        if (sagaState != null && !sagaState.isCompensated()) {
             System.out.println("Payment failed for order: " + orderId + ". Starting compensation...");
             executeCompensation(sagaState);
         }
@@ -97,35 +134,41 @@ public class OrderSagaOrchestrator {
     private void executeCompensation(SagaState sagaState) {
         System.out.println("Executing compensation for order: " + sagaState.getOrderId());
 
-        // 역순으로 보상 액션 실행
-        for (int i = sagaState.getCompensationActions().size() - 1; i >= 0; i--) {
+        // 도달한 단계로부터 보상 액션을 결정하고 역순으로 실행
+        String compensatedOrderId = sagaState.getOrderId();
+        SagaStep reached = sagaState.getStep();
+        List<Runnable> compensationActions = new ArrayList<>();
+        if (reached == SagaStep.PAYMENT_COMPLETED) {
+            compensationActions.add(() -> refundPayment(compensatedOrderId));
+        }
+        if (reached == SagaStep.STOCK_RESERVED || reached == SagaStep.PAYMENT_COMPLETED) {
+            compensationActions.add(() -> releaseStock(compensatedOrderId));
+        }
+        for (Runnable action : compensationActions) {
             try {
-                sagaState.getCompensationActions().get(i).run();
+                action.run();
             } catch (Exception e) {
                 System.err.println("Compensation action failed: " + e.getMessage());
             }
         }
 
         // 주문 취소를 위한 이벤트 발행 (직접 OrderService 호출 대신)
+        // 취소 요청과 취소 이벤트를 한 트랜잭션으로 outbox 에 기록한다. 브로커 장애 시에도 릴레이가 재전송하고,
+        // 기록에 실패하면 보상 완료로 표시하지 않고 예외를 던져 이벤트가 재처리되게 한다
+        String orderId = sagaState.getOrderId();
+        Long userId = sagaState.getUserId() != null ? sagaState.getUserId() : 1L;
         try {
-            String orderId = sagaState.getOrderId();
-
-            // 주문 취소 요청을 위한 내부 이벤트 발행
-            Map<String, Object> cancelRequest = Map.of(
-                "orderId", orderId,
-                "reason", "Saga compensation",
-                "userId", 1L // 임시값 - 실제 구현에서는 saga state에서 관리
-            );
-
-            kafkaTemplate.send("order-cancel-request", orderId, cancelRequest);
-
-            // 주문 취소 이벤트 발행
-            eventPublisher.publishOrderCancelled(createOrderCancelledEvent(orderId));
-        } catch (Exception e) {
+            transactionTemplate.executeWithoutResult(status -> {
+                eventPublisher.publishOrderCancelRequest(orderId, userId, "Saga compensation");
+                eventPublisher.publishOrderCancelled(createOrderCancelledEvent(orderId, sagaState.getUserId()));
+            });
+        } catch (RuntimeException e) {
             System.err.println("Failed to cancel order during compensation: " + e.getMessage());
+            throw e;
         }
 
         sagaState.setCompensated(true);
+        sagaStateStore.save(sagaState);
         System.out.println("Compensation completed for order: " + sagaState.getOrderId());
     }
 
@@ -144,42 +187,14 @@ public class OrderSagaOrchestrator {
         return 1L; // 임시값
     }
 
-    private OrderCancelledEvent createOrderCancelledEvent(String orderId) {
+    private OrderCancelledEvent createOrderCancelledEvent(String orderId, Long userId) {
         // 실제 구현에서는 주문 정보를 조회해서 이벤트 생성
         return new OrderCancelledEvent(
             orderId,
-            1L, // 임시 userId
+            userId != null ? userId : 1L,
             "Saga compensation",
             java.util.Collections.emptyList(),
             java.math.BigDecimal.ZERO
         );
     }
-
-    public enum SagaStep {
-        ORDER_CREATED,
-        STOCK_RESERVED,
-        PAYMENT_COMPLETED
-    }
-
-    public static class SagaState {
-        private final String orderId;
-        private SagaStep step;
-        private boolean completed = false;
-        private boolean compensated = false;
-        private final java.util.List<Runnable> compensationActions = new java.util.ArrayList<>();
-
-        public SagaState(String orderId) {
-            this.orderId = orderId;
-        }
-
-        public String getOrderId() { return orderId; }
-        public SagaStep getStep() { return step; }
-        public void setStep(SagaStep step) { this.step = step; }
-        public boolean isCompleted() { return completed; }
-        public void setCompleted(boolean completed) { this.completed = completed; }
-        public boolean isCompensated() { return compensated; }
-        public void setCompensated(boolean compensated) { this.compensated = compensated; }
-        public java.util.List<Runnable> getCompensationActions() { return compensationActions; }
-        public void addCompensationAction(Runnable action) { compensationActions.add(action); }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.jun.orderservice.saga;
+
+public class SagaState {
+    private final String orderId;
+    private Long userId;
+    private SagaStep step;
+    private boolean completed = false;
+    private boolean compensated = false;
+    private long updatedAt = System.currentTimeMillis();
+
+    public SagaState(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public SagaState(String orderId, Long userId, SagaStep step, boolean completed, boolean compensated, long updatedAt) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.step = step;
+        this.completed = completed;
+        this.compensated = compensated;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * 단계는 앞으로만 진행한다. 이벤트가 순서 없이 도착해도 이미 지난 단계로 되돌아가지 않는다.
+     */
+    public void advanceTo(SagaStep next) {
+        if (next.isAfter(step)) {
+            this.step = next;
+        }
+        touch();
+    }
+
+    /**
+     * 같은 saga 를 따로 읽어 저장한 두 상태를 필드별로 합친다. 단계와 완료/보상 여부는 앞선 쪽을, userId 는 이미 정해진 값을 따른다.
+     */
+    public SagaState mergedWith(SagaState newer) {
+        return new SagaState(
+                orderId,
+                userId != null ? userId : newer.userId,
+                newer.step != null && newer.step.isAfter(step) ? newer.step : step,
+                completed || newer.completed,
+                compensated || newer.compensated,
+                Math.max(updatedAt, newer.updatedAt));
+    }
+
+    public SagaState copy() {
+        return new SagaState(orderId, userId, step, completed, compensated, updatedAt);
+    }
+
+    public boolean isFinished() {
+        return completed || compensated;
+    }
+
+    public String getOrderId() { return orderId; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public SagaStep getStep() { return step; }
+    public boolean isCompleted() { return completed; }
+    public void setCompleted(boolean completed) { this.completed = completed; touch(); }
+    public boolean isCompensated() { return compensated; }
+    public void setCompensated(boolean compensated) { this.compensated = compensated; touch(); }
+    public long getUpdatedAt() { return updatedAt; }
+
+    private void touch() {
+        this.updatedAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,11 @@
+package com.jun.orderservice.saga;
+
+public enum SagaStep {
+    ORDER_CREATED,
+    STOCK_RESERVED,
+    PAYMENT_COMPLETED;
+
+    public boolean isAfter(SagaStep other) {
+        return other == null || ordinal() > other.ordinal();
+    }
+}
@@ -0,0 +1,112 @@
+package com.jun.orderservice.saga.store;
+
+import com.jun.orderservice.config.SagaStoreProperties;
+import com.jun.orderservice.saga.SagaState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 단일 인스턴스/로컬 개발용 저장소. 재시작 시 상태가 사라지지만 크기와 TTL 로 메모리 사용량은 제한된다.
+ * Redis 저장소와 같이 조회는 사본을 돌려주고 저장은 기존 상태와 병합하므로, 동시에 저장해도 한쪽의 진행이 지워지지 않는다.
+ * 가득 차면 최대 크기의 90% 까지 한 번에 비워 정리 비용이 저장마다 들지 않게 한다.
+ */
+@Component
+@ConditionalOnProperty(name = "saga.store.type", havingValue = "memory")
+public class InMemorySagaStateStore implements SagaStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemorySagaStateStore.class);
+    private static final double EVICT_TO_RATIO = 0.9;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictLock = new ReentrantLock();
+    private final SagaStoreProperties properties;
+
+    public InMemorySagaStateStore(SagaStoreProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Optional<SagaState> find(String orderId) {
+        Entry entry = entries.get(orderId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(orderId, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.state.copy());
+    }
+
+    @Override
+    public void save(SagaState state) {
+        long now = System.currentTimeMillis();
+        if (!entries.containsKey(state.getOrderId()) && entries.size() >= properties.getMaxSize()) {
+            evict(now);
+        }
+        entries.compute(state.getOrderId(), (orderId, existing) -> {
+            SagaState merged = existing != null && existing.expiresAt > now
+                    ? existing.state.mergedWith(state)
+                    : state.copy();
+            return new Entry(merged, now + properties.ttlFor(merged.isFinished()).toMillis());
+        });
+    }
+
+    private void evict(long now) {
+        // 한 스레드만 정리한다. 다른 스레드는 잠깐 최대 크기를 넘겨 저장한다
+        if (!evictLock.tryLock()) {
+            return;
+        }
+        try {
+            if (entries.size() < properties.getMaxSize()) {
+                return;
+            }
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+
+            int target = (int) (properties.getMaxSize() * EVICT_TO_RATIO);
+            int overflow = entries.size() - target;
+            if (overflow <= 0) {
+                return;
+            }
+            // 끝난 saga 부터, 그다음 가장 먼저 만료될 saga 순으로 제거한다
+            List<Map.Entry<String, Entry>> victims = entries.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<String, Entry>, Boolean>comparing(e -> !e.getValue().state.isFinished())
+                            .thenComparingLong(e -> e.getValue().expiresAt))
+                    .limit(overflow)
+                    .toList();
+            long live = 0;
+            for (Map.Entry<String, Entry> victim : victims) {
+                if (entries.remove(victim.getKey(), victim.getValue()) && !victim.getValue().state.isFinished()) {
+                    live++;
+                }
+            }
+            if (live > 0) {
+                // 진행 중인 saga 는 이후 이벤트를 받아도 보상할 수 없다. max-size 를 늘리거나 redis 저장소를 써야 한다
+                logger.error("Saga state store is full, dropped {} in-progress sagas (max-size {})", live, properties.getMaxSize());
+            } else {
+                logger.warn("Saga state store is full, evicted {} finished sagas", victims.size());
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        private final SagaState state;
+        private final long expiresAt;
+
+        private Entry(SagaState state, long expiresAt) {
+            this.state = state;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.jun.orderservice.saga.store;
+
+import com.jun.orderservice.config.SagaStoreProperties;
+import com.jun.orderservice.saga.SagaState;
+import com.jun.orderservice.saga.SagaStep;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * saga:{orderId} 해시에 상태를 저장한다. 키가 orderId 단위이므로 Redis Cluster 에서는 슬롯별로 자연스럽게 분산되고,
+ * 모든 order-service 인스턴스가 같은 상태를 본다.
+ * 저장은 읽은 값을 통째로 덮어쓰지 않고 스크립트 안에서 필드별로 병합한다. 단계와 완료/보상 상태는 앞으로만 진행하므로
+ * 서로 다른 리스너가 같은 saga 를 동시에 읽고 저장해도 한쪽의 진행이 지워지지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "saga.store.type", havingValue = "redis", matchIfMissing = true)
+public class RedisSagaStateStore implements SagaStateStore {
+
+    private static final String KEY_PREFIX = "saga:";
+
+    // 필드별로 앞으로만 병합하고 PEXPIRE 까지 한 번의 왕복으로 처리한다
+    private static final RedisScript<Long> SAVE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/saga-save.lua"), Long.class);
+    private static final List<String> STEP_NAMES =
+            Arrays.stream(SagaStep.values()).map(SagaStep::name).toList();
+
+    private final StringRedisTemplate redisTemplate;
+    private final SagaStoreProperties properties;
+
+    public RedisSagaStateStore(StringRedisTemplate redisTemplate, SagaStoreProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public Optional<SagaState> find(String orderId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(KEY_PREFIX + orderId);
+        if (fields.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String step = (String) fields.get("step");
+        String userId = (String) fields.get("userId");
+        String status = (String) fields.get("status");
+        String updatedAt = (String) fields.get("updatedAt");
+        return Optional.of(new SagaState(
+                orderId,
+                userId == null || userId.isEmpty() ? null : Long.valueOf(userId),
+                step == null || step.isEmpty() ? null : SagaStep.valueOf(step),
+                "COMPLETED".equals(status),
+                "COMPENSATED".equals(status),
+                updatedAt != null ? Long.parseLong(updatedAt) : 0L));
+    }
+
+    @Override
+    public void save(SagaState state) {
+        List<String> args = new ArrayList<>(6 + STEP_NAMES.size());
+        args.add(state.getStep() != null ? state.getStep().name() : "");
+        args.add(state.getUserId() != null ? String.valueOf(state.getUserId()) : "");
+        args.add(status(state));
+        args.add(String.valueOf(state.getUpdatedAt()));
+        args.add(String.valueOf(properties.ttlFor(false).toMillis()));
+        args.add(String.valueOf(properties.ttlFor(true).toMillis()));
+        args.addAll(STEP_NAMES);
+        redisTemplate.execute(SAVE_SCRIPT, List.of(KEY_PREFIX + state.getOrderId()), args.toArray());
+    }
+
+    private String status(SagaState state) {
+        if (state.isCompensated()) {
+            return "COMPENSATED";
+        }
+        return state.isCompleted() ? "COMPLETED" : "ACTIVE";
+    }
+}
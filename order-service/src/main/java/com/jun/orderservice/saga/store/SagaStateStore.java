@@ -0,0 +1,16 @@
+package com.jun.orderservice.saga.store;
+
+import com.jun.orderservice.saga.SagaState;
+
+import java.util.Optional;
+
+/**
+ * Saga 상태 저장소. 구현체는 saga.store.type 으로 선택한다 (redis | memory).
+ * 완료/보상된 saga 는 finished-ttl 이 지나면 제거되어 저장소 크기가 진행 중인 주문 수에 비례하도록 유지된다.
+ */
+public interface SagaStateStore {
+
+    Optional<SagaState> find(String orderId);
+
+    void save(SagaState state);
+}
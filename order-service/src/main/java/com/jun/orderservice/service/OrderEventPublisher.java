@@ -2,22 +2,26 @@ package com.jun.orderservice.service;
 
 import com.jun.orderservice.event.OrderCreatedEvent;
 import com.jun.orderservice.event.OrderCancelledEvent;
+import com.jun.orderservice.service.outbox.OutboxAppender;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 @Service
 public class OrderEventPublisher {
 
     private static final String ORDER_CREATED_TOPIC = "order-created";
     private static final String ORDER_CANCELLED_TOPIC = "order-cancelled";
+    private static final String COMPENSATE_PAYMENT_TOPIC = "compensate-payment";
+    private static final String ORDER_CANCEL_REQUEST_TOPIC = "order-cancel-request";
 
     @Autowired
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private OutboxAppender outboxAppender;
 
     public void publishOrderCreated(OrderCreatedEvent event) {
         try {
-            kafkaTemplate.send(ORDER_CREATED_TOPIC, event.getOrderId(), event);
+            outboxAppender.append(ORDER_CREATED_TOPIC, event.getOrderId(), event);
         } catch (Exception e) {
             System.err.println("Failed to publish OrderCreatedEvent: " + e.getMessage());
             throw new RuntimeException("Event publishing failed", e);
@@ -26,10 +30,37 @@ public class OrderEventPublisher {
 
     public void publishOrderCancelled(OrderCancelledEvent event) {
         try {
-            kafkaTemplate.send(ORDER_CANCELLED_TOPIC, event.getOrderId(), event);
+            outboxAppender.append(ORDER_CANCELLED_TOPIC, event.getOrderId(), event);
         } catch (Exception e) {
             System.err.println("Failed to publish OrderCancelledEvent: " + e.getMessage());
             throw new RuntimeException("Event publishing failed", e);
         }
     }
-}
\ No newline at end of file
+
+    // saga 보상 시 주문 상태 변경을 내부 리스너에 요청한다
+    public void publishOrderCancelRequest(String orderId, Long userId, String reason) {
+        try {
+            outboxAppender.append(ORDER_CANCEL_REQUEST_TOPIC, orderId, Map.of(
+                    "orderId", orderId,
+                    "reason", reason,
+                    "userId", userId));
+        } catch (Exception e) {
+            System.err.println("Failed to publish order cancel request: " + e.getMessage());
+            throw new RuntimeException("Event publishing failed", e);
+        }
+    }
+
+    // 이미 만료/취소된 주문에 결제가 완료된 경우 결제 서비스에 환불을 요청한다
+    public void publishPaymentCompensation(String orderId, String paymentId, Long userId, String reason) {
+        try {
+            outboxAppender.append(COMPENSATE_PAYMENT_TOPIC, orderId, Map.of(
+                    "orderId", orderId,
+                    "paymentId", paymentId,
+                    "userId", userId,
+                    "reason", reason));
+        } catch (Exception e) {
+            System.err.println("Failed to publish payment compensation: " + e.getMessage());
+            throw new RuntimeException("Event publishing failed", e);
+        }
+    }
+}
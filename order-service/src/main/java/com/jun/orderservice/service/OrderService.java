@@ -1,12 +1,16 @@
 package com.jun.orderservice.service;
 
 import com.jun.orderservice.config.ServiceUrlConfig;
+import com.jun.orderservice.dto.CursorPage;
 import com.jun.orderservice.dto.OrderDto;
 import com.jun.orderservice.dto.OrderRequest;
 import com.jun.orderservice.entity.Order;
 import com.jun.orderservice.entity.OrderItem;
 import com.jun.orderservice.event.OrderCreatedEvent;
+import com.jun.orderservice.event.PaymentCompletedEvent;
+import com.jun.orderservice.id.TimeOrderedUuid;
 import com.jun.orderservice.repository.OrderRepository;
+import com.jun.orderservice.service.expiry.OrderExpiryScheduler;
 import com.jun.orderservice.service.external.ProductServiceClient;
 import com.jun.orderservice.service.validator.OrderValidator;
 import io.micrometer.observation.annotation.Observed;
@@ -16,12 +20,18 @@ import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -38,6 +48,7 @@ public class OrderService {
     private final OrderEventPublisher eventPublisher;
     private final ServiceUrlConfig serviceUrlConfig;
     private final OrderValidator orderValidator;
+    private final OrderExpiryScheduler orderExpiryScheduler;
     private final Tracer tracer;
 
     public OrderService(OrderRepository orderRepository,
@@ -46,6 +57,7 @@ public class OrderService {
                        OrderEventPublisher eventPublisher,
                        ServiceUrlConfig serviceUrlConfig,
                        OrderValidator orderValidator,
+                       OrderExpiryScheduler orderExpiryScheduler,
                        Tracer tracer) {
         this.orderRepository = orderRepository;
         this.redissonClient = redissonClient;
@@ -53,6 +65,7 @@ public class OrderService {
         this.eventPublisher = eventPublisher;
         this.serviceUrlConfig = serviceUrlConfig;
         this.orderValidator = orderValidator;
+        this.orderExpiryScheduler = orderExpiryScheduler;
         this.tracer = tracer;
     }
 
@@ -104,6 +117,7 @@ public class OrderService {
             final Order savedOrder;
             try (Tracer.SpanInScope saveScope = tracer.withSpan(saveSpan)) {
                 savedOrder = orderRepository.save(order);
+                orderExpiryScheduler.scheduleAfterCommit(savedOrder);
             } finally {
                 saveSpan.end();
             }
@@ -136,20 +150,27 @@ public class OrderService {
 
     private Order buildOrder(OrderRequest orderRequest, Long userId) {
         return Order.builder()
-                .orderId(UUID.randomUUID().toString())
+                .orderId(TimeOrderedUuid.nextString())
                 .userId(userId)
                 .shippingAddress(orderRequest.getShippingAddress())
                 .paymentMethod(orderRequest.getPaymentMethod())
                 .flashSaleOrder(orderRequest.getFlashSaleOrder())
                 .status(Order.OrderStatus.PENDING)
+                .expiresAt(orderExpiryScheduler.nextExpiresAt())
                 .build();
     }
 
     private List<OrderCreatedEvent.OrderItemInfo> processOrderItems(Order order, OrderRequest orderRequest) {
         BigDecimal totalAmount = BigDecimal.ZERO;
 
+        // 장바구니 크기와 무관하게 상품 조회는 한 번의 호출로 처리한다
+        final Map<Long, ProductInfo> products = productServiceClient.getProducts(
+                orderRequest.getOrderItems().stream()
+                        .map(OrderRequest.OrderItemRequest::getProductId)
+                        .toList());
+
         for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getOrderItems()) {
-            final var productInfo = productServiceClient.getProduct(itemRequest.getProductId());
+            final ProductInfo productInfo = products.get(itemRequest.getProductId());
             final OrderItem orderItem = createOrderItem(order, itemRequest, productInfo);
 
             totalAmount = totalAmount.add(orderItem.getTotalPrice());
@@ -199,12 +220,22 @@ public class OrderService {
         logger.debug("Published order created event for order: {}", order.getOrderId());
     }
 
-    public List<OrderDto> getOrdersByUserId(Long userId) {
-        logger.debug("Retrieving orders for user: {}", userId);
-        final List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return orders.stream()
-                .map(OrderDto::new)
-                .collect(Collectors.toList());
+    /**
+     * 사용자의 주문을 최신순으로 size 개씩 키셋 페이지로 조회한다. 다음 페이지 여부는 size + 1 개를 읽어 판단한다.
+     */
+    public CursorPage<OrderDto> getOrdersByUserId(Long userId, CursorPage.Cursor cursor, int size) {
+        logger.debug("Retrieving orders for user: {} (cursor: {}, size: {})", userId, cursor != null, size);
+        final PageRequest limit = PageRequest.of(0, size + 1);
+        final List<Order> orders = cursor == null
+                ? orderRepository.findFirstPageByUserId(userId, limit)
+                : orderRepository.findPageByUserIdBefore(userId, cursor.getCreatedAt(), cursor.getIdAsLong(), limit);
+
+        final boolean hasNext = orders.size() > size;
+        final List<Order> page = hasNext ? orders.subList(0, size) : orders;
+        final String nextCursor = hasNext
+                ? new CursorPage.Cursor(page.get(size - 1).getCreatedAt(), String.valueOf(page.get(size - 1).getId())).encode()
+                : null;
+        return new CursorPage<>(page.stream().map(OrderDto::new).collect(Collectors.toList()), nextCursor);
     }
 
     public OrderDto getOrderByOrderId(String orderId, Long userId) {
@@ -241,6 +272,71 @@ public class OrderService {
         return true;
     }
 
+    /**
+     * Kafka 배치 리스너용. 같은 상태로 바꿀 주문들을 한 번에 읽어 한 트랜잭션에서 갱신한다.
+     * 주문이 없거나 사용자가 다르거나 상태 전이가 허용되지 않는 주문은 건너뛴다.
+     *
+     * @return 갱신된 주문 id
+     */
+    @Transactional
+    public Set<String> updateOrderStatuses(Map<String, Long> userIdsByOrderId, Order.OrderStatus status) {
+        final Set<String> updated = new HashSet<>();
+        final List<Order> orders = orderRepository.findByOrderIdIn(userIdsByOrderId.keySet());
+        for (Order order : orders) {
+            if (!order.getUserId().equals(userIdsByOrderId.get(order.getOrderId()))) {
+                logger.warn("Order {} does not belong to user {}", order.getOrderId(), userIdsByOrderId.get(order.getOrderId()));
+                continue;
+            }
+            try {
+                order.updateStatus(status);
+                updated.add(order.getOrderId());
+            } catch (IllegalStateException e) {
+                logger.warn("Skipping status update of order {}: {}", order.getOrderId(), e.getMessage());
+            }
+        }
+        orderRepository.saveAll(orders);
+
+        logger.info("Updated {} of {} orders to {}", updated.size(), userIdsByOrderId.size(), status);
+        return updated;
+    }
+
+    /**
+     * 결제 완료 이벤트 배치를 반영한다. 결제가 진행되는 사이 만료(또는 취소)되어 재고가 이미 해제된 주문은 확정하지 않고,
+     * 같은 트랜잭션에서 outbox 로 환불(compensate-payment)을 요청한다.
+     *
+     * @return 확정되었거나 환불을 요청한 주문 id
+     */
+    @Transactional
+    public Set<String> confirmPaidOrders(Map<String, PaymentCompletedEvent> paymentsByOrderId) {
+        final Set<String> handled = new HashSet<>();
+        final List<Order> orders = orderRepository.findByOrderIdIn(paymentsByOrderId.keySet());
+        for (Order order : orders) {
+            final PaymentCompletedEvent payment = paymentsByOrderId.get(order.getOrderId());
+            if (!order.getUserId().equals(payment.getUserId())) {
+                logger.warn("Order {} does not belong to user {}", order.getOrderId(), payment.getUserId());
+                continue;
+            }
+            if (order.getStatus() == Order.OrderStatus.EXPIRED || order.getStatus() == Order.OrderStatus.CANCELLED) {
+                logger.warn("Payment {} completed for {} order {}, requesting refund",
+                        payment.getPaymentId(), order.getStatus(), order.getOrderId());
+                eventPublisher.publishPaymentCompensation(order.getOrderId(), payment.getPaymentId(), order.getUserId(),
+                        "Order " + order.getStatus().name().toLowerCase() + " before payment completed");
+                handled.add(order.getOrderId());
+                continue;
+            }
+            try {
+                order.updateStatus(Order.OrderStatus.CONFIRMED);
+                handled.add(order.getOrderId());
+            } catch (IllegalStateException e) {
+                logger.warn("Skipping confirmation of order {}: {}", order.getOrderId(), e.getMessage());
+            }
+        }
+        orderRepository.saveAll(orders);
+
+        logger.info("Confirmed or refunded {} of {} paid orders", handled.size(), paymentsByOrderId.size());
+        return handled;
+    }
+
     @Transactional
     public boolean cancelOrder(String orderId, Long userId) {
         logger.info("Cancelling order: {} for user: {}", orderId, userId);
@@ -260,13 +356,16 @@ public class OrderService {
         return true;
     }
 
+    // 예약은 같은 상품의 라인 수량을 합산해 기록하므로 해제도 상품별 합계로 요청한다
     private void releaseReservedStock(Order order) {
-        order.getOrderItems().forEach(item -> {
+        Map<Long, Integer> quantities = order.getOrderItems().stream()
+                .collect(Collectors.toMap(OrderItem::getProductId, OrderItem::getQuantity, Integer::sum, LinkedHashMap::new));
+        quantities.forEach((productId, quantity) -> {
             try {
-                productServiceClient.releaseReservedStock(order.getOrderId(), item.getProductId(), item.getQuantity());
+                productServiceClient.releaseReservedStock(order.getOrderId(), productId, quantity);
             } catch (Exception e) {
                 logger.error("Failed to release stock for product {} in order {}: {}",
-                           item.getProductId(), order.getOrderId(), e.getMessage());
+                           productId, order.getOrderId(), e.getMessage());
             }
         });
     }
@@ -288,6 +387,26 @@ public class OrderService {
         return true;
     }
 
+    /**
+     * 주문 상품 중 지금 플래시 세일 중인 상품. 요청의 flashSaleOrder / flashSaleItem 플래그는 클라이언트가 정하므로
+     * 대기열 입장 여부는 상품 서비스의 세일 기간으로만 판단한다.
+     */
+    public List<Long> getActiveFlashSaleProductIds(OrderRequest orderRequest) {
+        if (orderRequest.getOrderItems() == null || orderRequest.getOrderItems().isEmpty()) {
+            return List.of();
+        }
+        final Map<Long, ProductInfo> products = productServiceClient.getProducts(
+                orderRequest.getOrderItems().stream()
+                        .map(OrderRequest.OrderItemRequest::getProductId)
+                        .filter(Objects::nonNull)
+                        .toList());
+        return products.entrySet().stream()
+                .filter(entry -> entry.getValue().isFlashSaleActive())
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+
     public List<OrderDto> getFlashSaleOrdersByUserId(Long userId) {
         logger.debug("Retrieving flash sale orders for user: {}", userId);
         final List<Order> orders = orderRepository.findByUserIdAndFlashSaleOrderTrueOrderByCreatedAtDesc(userId);
@@ -309,13 +428,15 @@ public class OrderService {
             }
 
             final Order order = Order.builder()
-                    .orderId(UUID.randomUUID().toString())
+                    .orderId(TimeOrderedUuid.nextString())
                     .userId(userId)
                     .flashSaleOrder(true)
                     .status(Order.OrderStatus.PENDING)
+                    .expiresAt(orderExpiryScheduler.nextExpiresAt())
                     .build();
 
             final Order savedOrder = orderRepository.save(order);
+            orderExpiryScheduler.scheduleAfterCommit(savedOrder);
             logger.info("Successfully created flash sale order: {}", savedOrder.getOrderId());
             return savedOrder;
 
@@ -349,13 +470,31 @@ public class OrderService {
     public static class ProductInfo {
         private final String name;
         private final BigDecimal price;
+        // 플래시 세일 기간. 플래시 세일 상품이 아니면 null
+        private final LocalDateTime flashSaleStartTime;
+        private final LocalDateTime flashSaleEndTime;
 
         public ProductInfo(String name, BigDecimal price) {
+            this(name, price, null, null);
+        }
+
+        public ProductInfo(String name, BigDecimal price, LocalDateTime flashSaleStartTime, LocalDateTime flashSaleEndTime) {
             this.name = name;
             this.price = price;
+            this.flashSaleStartTime = flashSaleStartTime;
+            this.flashSaleEndTime = flashSaleEndTime;
         }
 
         public String getName() { return name; }
         public BigDecimal getPrice() { return price; }
+
+        // 캐시된 값이어도 세일 시작/종료 시점에 바로 바뀌도록 조회 시각이 아니라 지금 시각으로 판단한다 (Product.isFlashSaleActive 와 같은 기준)
+        public boolean isFlashSaleActive() {
+            if (flashSaleStartTime == null || flashSaleEndTime == null) {
+                return false;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            return now.isAfter(flashSaleStartTime) && now.isBefore(flashSaleEndTime);
+        }
     }
 }
\ No newline at end of file
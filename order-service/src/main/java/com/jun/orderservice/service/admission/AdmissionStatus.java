@@ -0,0 +1,9 @@
+package com.jun.orderservice.service.admission;
+
+public enum AdmissionStatus {
+    WAITING,
+    ADMITTED,
+    SOLD_OUT,
+    NOT_QUEUED,
+    LIMIT_REACHED
+}
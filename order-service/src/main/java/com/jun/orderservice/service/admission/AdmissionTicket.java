@@ -0,0 +1,28 @@
+package com.jun.orderservice.service.admission;
+
+public class AdmissionTicket {
+
+    private final Long productId;
+    private final Long userId;
+    private final AdmissionStatus status;
+    private final Long position;
+    private final Long estimatedWaitSeconds;
+
+    public AdmissionTicket(Long productId, Long userId, AdmissionStatus status, Long position, Long estimatedWaitSeconds) {
+        this.productId = productId;
+        this.userId = userId;
+        this.status = status;
+        this.position = position;
+        this.estimatedWaitSeconds = estimatedWaitSeconds;
+    }
+
+    public static AdmissionTicket of(Long productId, Long userId, AdmissionStatus status) {
+        return new AdmissionTicket(productId, userId, status, null, null);
+    }
+
+    public Long getProductId() { return productId; }
+    public Long getUserId() { return userId; }
+    public AdmissionStatus getStatus() { return status; }
+    public Long getPosition() { return position; }
+    public Long getEstimatedWaitSeconds() { return estimatedWaitSeconds; }
+}
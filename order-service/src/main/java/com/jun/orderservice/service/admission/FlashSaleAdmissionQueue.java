@@ -0,0 +1,267 @@
+package com.jun.orderservice.service.admission;
+
+import com.jun.orderservice.config.FlashSaleAdmissionProperties;
+import com.jun.orderservice.service.external.ProductServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 플래시 세일 주문 앞단의 입장 대기열. 사용자는 상품별 대기열(Redis sorted set)에서 번호표를 받고,
+ * 스케줄러가 토큰 버킷 속도로, 남은 재고(budget)를 넘지 않게 입장시킨다. 입장한 사용자만 admission-window 안에
+ * 주문할 수 있으며, 재고가 소진되면 DB 나 다른 서비스 호출 없이 즉시 거절된다.
+ * 사용자당 주문 수(flash-sale.max-order-per-user)도 입장권을 소모하는 스크립트 안에서 함께 센다.
+ */
+@Component
+public class FlashSaleAdmissionQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleAdmissionQueue.class);
+
+    private static final String QUEUE_KEY_PREFIX = "admission:queue:";
+    private static final String ADMITTED_KEY_PREFIX = "admission:admitted:";
+    private static final String BUDGET_KEY_PREFIX = "admission:budget:";
+    private static final String BUCKET_KEY_PREFIX = "admission:bucket:";
+    private static final String ORDERS_KEY_PREFIX = "admission:orders:";
+    private static final String ACTIVE_KEY = "admission:active";
+    // product-service 의 실시간 재고 카운터. 예약이 즉시 반영되므로 비동기로 갱신되는 DB 재고보다 정확하다
+    private static final String STOCK_KEY_PREFIX = "stock:";
+
+    private static final RedisScript<Long> ENQUEUE_SCRIPT = script("scripts/admission-enqueue.lua");
+    private static final RedisScript<Long> RESTORE_SCRIPT = script("scripts/admission-restore.lua");
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ENTER_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/admission-enter.lua"), List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> STATUS_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/admission-status.lua"), List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ADMIT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/admission-admit.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductServiceClient productServiceClient;
+    private final FlashSaleAdmissionProperties properties;
+    private final int maxOrderPerUser;
+
+    public FlashSaleAdmissionQueue(StringRedisTemplate redisTemplate,
+                                   ProductServiceClient productServiceClient,
+                                   FlashSaleAdmissionProperties properties,
+                                   @Value("${flash-sale.max-order-per-user:1}") int maxOrderPerUser) {
+        this.redisTemplate = redisTemplate;
+        this.productServiceClient = productServiceClient;
+        this.properties = properties;
+        this.maxOrderPerUser = maxOrderPerUser;
+    }
+
+    public AdmissionTicket enqueue(Long productId, Long userId) {
+        Long result = runEnqueue(productId, userId);
+        if (result == -1L) {
+            loadBudget(productId);
+            result = runEnqueue(productId, userId);
+        }
+
+        if (result == -2L) {
+            return AdmissionTicket.of(productId, userId, AdmissionStatus.SOLD_OUT);
+        }
+        if (result == -3L) {
+            return AdmissionTicket.of(productId, userId, AdmissionStatus.ADMITTED);
+        }
+        if (result == -4L) {
+            return AdmissionTicket.of(productId, userId, AdmissionStatus.LIMIT_REACHED);
+        }
+        if (result < 0) {
+            throw new IllegalStateException("Flash sale queue is not available for product " + productId);
+        }
+        return waiting(productId, userId, result);
+    }
+
+    public AdmissionTicket getTicket(Long productId, Long userId) {
+        List<?> raw = redisTemplate.execute(STATUS_SCRIPT,
+                List.of(queueKey(productId), admittedKey(productId), budgetKey(productId)),
+                String.valueOf(userId),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(properties.getAdmissionWindow().toMillis()));
+        if (raw == null || raw.size() < 2) {
+            return AdmissionTicket.of(productId, userId, AdmissionStatus.NOT_QUEUED);
+        }
+
+        long state = ((Number) raw.get(0)).longValue();
+        if (state == 1L) {
+            return AdmissionTicket.of(productId, userId, AdmissionStatus.ADMITTED);
+        }
+        if (state == -2L) {
+            return AdmissionTicket.of(productId, userId, AdmissionStatus.SOLD_OUT);
+        }
+        if (state == 0L) {
+            return waiting(productId, userId, ((Number) raw.get(1)).longValue());
+        }
+        return AdmissionTicket.of(productId, userId, AdmissionStatus.NOT_QUEUED);
+    }
+
+    /**
+     * 주문 생성 직전에 호출한다. 모든 상품에 대해 유효한 입장권이 있고 사용자당 주문 한도 안이면
+     * 하나의 스크립트로 입장권을 모두 소모하고 ADMITTED 를 반환한다. 하나라도 안 되면 아무것도 소모하지 않는다.
+     */
+    public AdmissionStatus enter(List<Long> productIds, Long userId) {
+        if (!properties.isEnabled() || productIds.isEmpty()) {
+            return AdmissionStatus.ADMITTED;
+        }
+
+        List<?> raw = redisTemplate.execute(ENTER_SCRIPT, admissionKeys(productIds),
+                String.valueOf(userId),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(properties.getAdmissionWindow().toMillis()),
+                String.valueOf(maxOrderPerUser),
+                String.valueOf(properties.getOrderLimitTtl().toMillis()));
+        if (raw == null || raw.size() < 2) {
+            return AdmissionStatus.NOT_QUEUED;
+        }
+
+        long result = ((Number) raw.get(0)).longValue();
+        if (result == 0L) {
+            return AdmissionStatus.ADMITTED;
+        }
+        if (result == -2L) {
+            return AdmissionStatus.LIMIT_REACHED;
+        }
+        Long rejectedProductId = productIds.get(((Number) raw.get(1)).intValue() - 1);
+        return getTicket(rejectedProductId, userId).getStatus() == AdmissionStatus.SOLD_OUT
+                ? AdmissionStatus.SOLD_OUT
+                : AdmissionStatus.NOT_QUEUED;
+    }
+
+    /**
+     * 주문 생성이 실패하면 소모한 입장권과 주문 한도를 돌려줘 같은 사용자가 재시도할 수 있게 한다.
+     */
+    public void restore(List<Long> productIds, Long userId) {
+        if (properties.isEnabled() && !productIds.isEmpty()) {
+            redisTemplate.execute(RESTORE_SCRIPT, admissionKeys(productIds),
+                    String.valueOf(userId), String.valueOf(System.currentTimeMillis()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${flash-sale.admission.admit-interval-ms:100}")
+    public void admit() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Set<String> activeProducts = redisTemplate.opsForSet().members(ACTIVE_KEY);
+        if (activeProducts == null) {
+            return;
+        }
+
+        for (String productId : activeProducts) {
+            try {
+                admit(Long.valueOf(productId));
+            } catch (Exception e) {
+                logger.error("Failed to admit flash sale queue for product {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    private void admit(Long productId) {
+        List<?> raw = redisTemplate.execute(ADMIT_SCRIPT,
+                List.of(queueKey(productId), admittedKey(productId), budgetKey(productId),
+                        bucketKey(productId), ACTIVE_KEY),
+                String.valueOf(productId),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(properties.getAdmitRatePerSecond()),
+                String.valueOf(properties.getBurst()),
+                String.valueOf(properties.getAdmissionWindow().toMillis()));
+        if (raw == null || raw.size() < 2) {
+            return;
+        }
+
+        long admitted = ((Number) raw.get(0)).longValue();
+        long remaining = ((Number) raw.get(1)).longValue();
+        if (remaining < 0) {
+            loadBudget(productId);
+        } else if (admitted > 0) {
+            logger.debug("Admitted {} users for flash sale product {} (remaining budget {})",
+                    admitted, productId, remaining);
+        }
+    }
+
+    // 남은 재고에서 아직 주문하지 않은 입장 인원을 뺀 값을 budget-ttl 동안 캐시한다.
+    // 주문은 했지만 아직 예약되지 않은 재고까지 남은 재고로 세지 않도록, 비동기로 갱신되는 DB 재고 대신
+    // 예약 즉시 줄어드는 product-service 의 Redis 카운터를 읽는다. 카운터가 아직 로드되지 않았으면 DB 재고를 쓴다.
+    private void loadBudget(Long productId) {
+        long availableStock = availableStock(productId);
+        long liveSince = System.currentTimeMillis() - properties.getAdmissionWindow().toMillis();
+        Long outstanding = redisTemplate.opsForZSet().count(admittedKey(productId), liveSince + 1, Double.POSITIVE_INFINITY);
+        long budget = Math.max(0, availableStock - (outstanding != null ? outstanding : 0));
+
+        redisTemplate.opsForValue().set(budgetKey(productId), String.valueOf(budget),
+                properties.getBudgetTtl().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private long availableStock(Long productId) {
+        Object counter = redisTemplate.opsForHash().get(STOCK_KEY_PREFIX + productId, "available");
+        if (counter != null) {
+            return Long.parseLong(counter.toString());
+        }
+        return productServiceClient.getAvailableStock(productId);
+    }
+
+    private AdmissionTicket waiting(Long productId, Long userId, long position) {
+        long etaSeconds = (long) Math.ceil((position + 1) / properties.getAdmitRatePerSecond());
+        return new AdmissionTicket(productId, userId, AdmissionStatus.WAITING, position + 1, etaSeconds);
+    }
+
+    private Long runEnqueue(Long productId, Long userId) {
+        Long result = redisTemplate.execute(ENQUEUE_SCRIPT,
+                List.of(queueKey(productId), admittedKey(productId), budgetKey(productId), ACTIVE_KEY,
+                        ordersKey(productId)),
+                String.valueOf(userId),
+                String.valueOf(productId),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(properties.getAdmissionWindow().toMillis()),
+                String.valueOf(properties.getQueueTtl().toMillis()),
+                String.valueOf(maxOrderPerUser));
+        return result != null ? result : -1L;
+    }
+
+    // 상품마다 admitted, orders 키를 차례로 넘긴다
+    private List<String> admissionKeys(List<Long> productIds) {
+        List<String> keys = new ArrayList<>(productIds.size() * 2);
+        for (Long productId : productIds) {
+            keys.add(admittedKey(productId));
+            keys.add(ordersKey(productId));
+        }
+        return keys;
+    }
+
+    private String queueKey(Long productId) {
+        return QUEUE_KEY_PREFIX + productId;
+    }
+
+    private String admittedKey(Long productId) {
+        return ADMITTED_KEY_PREFIX + productId;
+    }
+
+    private String ordersKey(Long productId) {
+        return ORDERS_KEY_PREFIX + productId;
+    }
+
+    private String budgetKey(Long productId) {
+        return BUDGET_KEY_PREFIX + productId;
+    }
+
+    private String bucketKey(Long productId) {
+        return BUCKET_KEY_PREFIX + productId;
+    }
+
+    private static RedisScript<Long> script(String path) {
+        return RedisScript.of(new ClassPathResource(path), Long.class);
+    }
+}
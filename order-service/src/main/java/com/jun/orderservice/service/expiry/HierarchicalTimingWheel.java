@@ -0,0 +1,133 @@
+package com.jun.orderservice.service.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 계층형 타이밍 휠. 레벨 i 의 슬롯 하나는 tick × wheelSize^i 구간을 맡고, 마감까지 남은 시간에 맞는 가장 낮은 레벨에 항목을 넣는다.
+ * 상위 레벨 슬롯은 그 구간이 시작될 때 아래 레벨로 내려보내므로(cascade) 등록/만료 모두 항목 수와 무관하게 O(1) 이다.
+ * 필요한 만큼 레벨을 늘리므로 먼 마감도 받을 수 있다. 취소는 지원하지 않으며, 꺼낸 쪽에서 여전히 유효한지 확인한다.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    private final List<T> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMillis must be positive and wheelSize at least 2");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTick = startMillis / tickMillis;
+        levels.add(new Level<>(1, wheelSize));
+    }
+
+    /**
+     * 마감 시각이 속한 tick 이 지나면 {@link #advance(long)} 가 항목을 돌려준다. 이미 지난 마감은 다음 advance 에서 바로 나온다.
+     */
+    public synchronized void schedule(T item, long deadlineMillis) {
+        // 마감 이전에 꺼내지 않도록 tick 경계로 올림한다
+        place(new Entry<>(item, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis)));
+        size++;
+    }
+
+    /**
+     * 휠을 nowMillis 까지 돌리고 그 사이 마감된 항목을 돌려준다. 같은 tick 안에서는 순서를 보장하지 않는다.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> due = new ArrayList<>(overdue);
+        overdue.clear();
+
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            if (size == due.size()) {
+                // 남은 항목이 없으면 빈 슬롯을 하나씩 돌 필요가 없다
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            for (int i = levels.size() - 1; i > 0; i--) {
+                Level<T> level = levels.get(i);
+                if (currentTick % level.span == 0) {
+                    for (Entry<T> entry : level.drain(currentTick)) {
+                        place(entry);
+                    }
+                }
+            }
+            for (Entry<T> entry : levels.get(0).drain(currentTick)) {
+                due.add(entry.item);
+            }
+            due.addAll(overdue);
+            overdue.clear();
+        }
+
+        size -= due.size();
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry) {
+        long delay = entry.deadlineTick - currentTick;
+        if (delay <= 0) {
+            overdue.add(entry.item);
+            return;
+        }
+        int index = 0;
+        while (delay >= levels.get(index).span * wheelSize) {
+            index++;
+            if (index == levels.size()) {
+                levels.add(new Level<>(levels.get(index - 1).span * wheelSize, wheelSize));
+            }
+        }
+        levels.get(index).add(entry);
+    }
+
+    private static final class Level<T> {
+        private final long span;
+        private final List<List<Entry<T>>> slots;
+
+        Level(long span, int wheelSize) {
+            this.span = span;
+            this.slots = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                slots.add(new ArrayList<>());
+            }
+        }
+
+        void add(Entry<T> entry) {
+            slots.get(slotOf(entry.deadlineTick)).add(entry);
+        }
+
+        List<Entry<T>> drain(long tick) {
+            int slot = slotOf(tick);
+            List<Entry<T>> entries = slots.get(slot);
+            if (entries.isEmpty()) {
+                return entries;
+            }
+            slots.set(slot, new ArrayList<>());
+            return entries;
+        }
+
+        private int slotOf(long tick) {
+            return (int) Math.floorMod(tick / span, (long) slots.size());
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long deadlineTick;
+
+        Entry(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
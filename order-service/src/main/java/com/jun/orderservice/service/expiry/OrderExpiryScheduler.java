@@ -0,0 +1,174 @@
+package com.jun.orderservice.service.expiry;
+
+import com.jun.orderservice.config.OrderExpiryProperties;
+import com.jun.orderservice.entity.Order;
+import com.jun.orderservice.event.OrderCancelledEvent;
+import com.jun.orderservice.repository.OrderRepository;
+import com.jun.orderservice.service.OrderEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 결제되지 않은 PENDING 주문을 expires_at 에 EXPIRED 로 바꾸고 order-cancelled 이벤트를 발행해 예약 재고를 돌려준다.
+ * 마감은 메모리의 {@link HierarchicalTimingWheel} 로 추적하고, 마감된 주문은 batch-size 단위로 잠가(SKIP LOCKED)
+ * 한 트랜잭션에서 만료시킨다. 휠은 인스턴스 메모리에만 있으므로 기동 시 (status, expires_at) 인덱스로 남은 주문을 다시 올리고,
+ * 다른 인스턴스가 등록한 뒤 내려갔거나 잠금 때문에 건너뛴 주문은 주기적인 스윕이 처리한다.
+ */
+@Component
+public class OrderExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExpiryScheduler.class);
+
+    private static final String EXPIRED_REASON = "ORDER_EXPIRED";
+
+    private final OrderRepository orderRepository;
+    private final OrderEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderExpiryProperties properties;
+    private final HierarchicalTimingWheel<Long> wheel;
+
+    public OrderExpiryScheduler(OrderRepository orderRepository,
+                                OrderEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                OrderExpiryProperties properties) {
+        this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.wheel = new HierarchicalTimingWheel<>(
+                properties.getTickMs(), properties.getWheelSize(), System.currentTimeMillis());
+    }
+
+    public LocalDateTime nextExpiresAt() {
+        return LocalDateTime.now().plus(properties.getPendingTtl());
+    }
+
+    /**
+     * 저장된 주문의 만료를 등록한다. 롤백된 주문이 휠에 남지 않도록 트랜잭션 안이면 커밋 이후에 등록한다.
+     */
+    public void scheduleAfterCommit(Order order) {
+        if (!properties.isEnabled() || order.getId() == null || order.getExpiresAt() == null) {
+            return;
+        }
+        final Long id = order.getId();
+        final long deadline = toEpochMillis(order.getExpiresAt());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wheel.schedule(id, deadline);
+                }
+            });
+        } else {
+            wheel.schedule(id, deadline);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            sweep();
+
+            final PageRequest page = PageRequest.of(0, properties.getRecoveryPageSize());
+            LocalDateTime afterExpiresAt = LocalDateTime.now();
+            Long afterId = 0L;
+            int recovered = 0;
+            List<Order> orders;
+            do {
+                orders = orderRepository.findPendingExpiringAfter(afterExpiresAt, afterId, page);
+                for (Order order : orders) {
+                    wheel.schedule(order.getId(), toEpochMillis(order.getExpiresAt()));
+                }
+                if (!orders.isEmpty()) {
+                    Order last = orders.get(orders.size() - 1);
+                    afterExpiresAt = last.getExpiresAt();
+                    afterId = last.getId();
+                }
+                recovered += orders.size();
+            } while (orders.size() == properties.getRecoveryPageSize());
+
+            logger.info("Recovered {} pending order expiration(s)", recovered);
+        } catch (Exception e) {
+            // 휠에 올리지 못한 주문도 만료 시각이 지나면 스윕이 처리한다
+            logger.error("Failed to recover pending order expirations: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.expiry.tick-ms:1000}")
+    public void tick() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        final List<Long> due = wheel.advance(System.currentTimeMillis());
+        final int batchSize = properties.getBatchSize();
+        for (int from = 0; from < due.size(); from += batchSize) {
+            final List<Long> ids = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                expire(now -> orderRepository.lockExpiredPendingOrders(ids, now));
+            } catch (Exception e) {
+                logger.error("Failed to expire {} pending order(s), leaving them to the sweep: {}", ids.size(), e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.expiry.sweep-interval-ms:60000}",
+               initialDelayString = "${order.expiry.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        final int batchSize = properties.getBatchSize();
+        int expired;
+        do {
+            expired = expire(now -> orderRepository.lockExpiredPendingOrders(now, batchSize));
+        } while (expired == batchSize);
+    }
+
+    private int expire(Function<LocalDateTime, List<Order>> lockBatch) {
+        Integer expired = transactionTemplate.execute(status -> {
+            List<Order> orders = lockBatch.apply(LocalDateTime.now());
+            for (Order order : orders) {
+                order.expire();
+                eventPublisher.publishOrderCancelled(toCancelledEvent(order));
+            }
+            return orders.size();
+        });
+        if (expired != null && expired > 0) {
+            logger.info("Expired {} unpaid order(s)", expired);
+        }
+        return expired != null ? expired : 0;
+    }
+
+    private OrderCancelledEvent toCancelledEvent(Order order) {
+        return new OrderCancelledEvent(
+                order.getOrderId(),
+                order.getUserId(),
+                EXPIRED_REASON,
+                order.getOrderItems().stream()
+                        .map(item -> new OrderCancelledEvent.OrderItemInfo(item.getProductId(), item.getQuantity()))
+                        .collect(Collectors.toList()),
+                order.getTotalAmount());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
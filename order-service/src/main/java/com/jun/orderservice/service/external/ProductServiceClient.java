@@ -1,30 +1,86 @@
 package com.jun.orderservice.service.external;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jun.orderservice.config.ServiceUrlConfig;
 import com.jun.orderservice.service.OrderService.ProductInfo;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Component
 public class ProductServiceClient {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceClient.class);
 
+    // product-service 로 직접 호출하는 로드밸런싱 클라이언트 (WebConfig)
     private final RestTemplate restTemplate;
     private final ServiceUrlConfig serviceUrlConfig;
     private final Tracer tracer;
+    // 주문 라인 구성에 필요한 이름/가격만 짧게 캐시한다. 재고는 캐시하지 않는다.
+    private final Cache<Long, ProductInfo> productInfoCache;
+    private final ExecutorService lookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public ProductServiceClient(RestTemplate restTemplate, ServiceUrlConfig serviceUrlConfig, Tracer tracer) {
         this.restTemplate = restTemplate;
         this.serviceUrlConfig = serviceUrlConfig;
         this.tracer = tracer;
+        this.productInfoCache = Caffeine.newBuilder()
+                .maximumSize(serviceUrlConfig.getProductService().getInfoCacheMaxSize())
+                .expireAfterWrite(serviceUrlConfig.getProductService().getInfoCacheTtl())
+                .build();
+    }
+
+    /**
+     * 여러 상품을 한 번에 조회한다. 캐시에 없는 상품만 배치 엔드포인트로 가져오고,
+     * 배치 호출이 실패하면 virtual thread 에서 단건 조회를 동시에 수행한다.
+     */
+    public Map<Long, ProductInfo> getProducts(Collection<Long> productIds) {
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        Map<Long, ProductInfo> products = new HashMap<>(productInfoCache.getAllPresent(ids));
+
+        List<Long> misses = ids.stream()
+                .filter(id -> !products.containsKey(id))
+                .toList();
+        if (misses.isEmpty()) {
+            return products;
+        }
+
+        Map<Long, ProductInfo> fetched;
+        try {
+            fetched = fetchProducts(misses);
+        } catch (Exception e) {
+            logger.warn("Batch product lookup failed, falling back to concurrent lookups: {}", e.getMessage());
+            fetched = fetchProductsConcurrently(misses);
+        }
+
+        for (Long productId : misses) {
+            if (!fetched.containsKey(productId)) {
+                throw new RuntimeException("Product not found: " + productId);
+            }
+        }
+        productInfoCache.putAll(fetched);
+        products.putAll(fetched);
+        return products;
     }
 
     public ProductInfo getProduct(Long productId) {
@@ -35,9 +91,7 @@ public class ProductServiceClient {
                 .start();
 
         try (Tracer.SpanInScope ws = tracer.withSpan(productFetchSpan)) {
-            final String url = serviceUrlConfig.buildFullUrl(
-                    serviceUrlConfig.getProductService().getProductUrl(productId)
-            );
+            final String url = serviceUrlConfig.getProductService().getProductUrl(productId);
 
             productFetchSpan.tag("http.url", url);
             logger.debug("Fetching product info from: {}", url);
@@ -49,14 +103,13 @@ public class ProductServiceClient {
                 throw new RuntimeException("Product not found: " + productId);
             }
 
-            final String name = (String) response.get("name");
-            final BigDecimal price = new BigDecimal(response.get("price").toString());
+            final ProductInfo productInfo = toProductInfo(response);
 
-            productFetchSpan.tag("product.name", name);
-            productFetchSpan.tag("product.price", price.toString());
+            productFetchSpan.tag("product.name", productInfo.getName());
+            productFetchSpan.tag("product.price", productInfo.getPrice().toString());
             productFetchSpan.tag("http.status", "200");
 
-            return new ProductInfo(name, price);
+            return productInfo;
 
         } catch (Exception e) {
             productFetchSpan.tag("error", e.getMessage());
@@ -68,9 +121,95 @@ public class ProductServiceClient {
         }
     }
 
+    public int getAvailableStock(Long productId) {
+        final String url = serviceUrlConfig.getProductService().getProductUrl(productId);
+        final Map<?, ?> response = restTemplate.getForObject(url, Map.class);
+        if (response == null || response.get("availableStock") == null) {
+            throw new RuntimeException("Product not found: " + productId);
+        }
+        return ((Number) response.get("availableStock")).intValue();
+    }
+
+    private Map<Long, ProductInfo> fetchProducts(List<Long> productIds) {
+        Span productsFetchSpan = tracer.nextSpan()
+                .name("product-service.get-products")
+                .tag("product.count", String.valueOf(productIds.size()))
+                .tag("service.name", "product-service")
+                .start();
+
+        try (Tracer.SpanInScope ws = tracer.withSpan(productsFetchSpan)) {
+            final String url = serviceUrlConfig.getProductService().getProductsUrl(productIds);
+
+            productsFetchSpan.tag("http.url", url);
+            logger.debug("Fetching {} products from: {}", productIds.size(), url);
+
+            final Map<?, ?>[] response = restTemplate.getForObject(url, Map[].class);
+
+            final Map<Long, ProductInfo> products = new LinkedHashMap<>();
+            if (response != null) {
+                for (Map<?, ?> product : response) {
+                    products.put(((Number) product.get("id")).longValue(), toProductInfo(product));
+                }
+            }
+
+            productsFetchSpan.tag("http.status", "200");
+            return products;
+
+        } catch (Exception e) {
+            productsFetchSpan.tag("error", e.getMessage());
+            throw e;
+        } finally {
+            productsFetchSpan.end();
+        }
+    }
+
+    private Map<Long, ProductInfo> fetchProductsConcurrently(List<Long> productIds) {
+        final Map<Long, Future<ProductInfo>> futures = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            futures.put(productId, lookupExecutor.submit(() -> getProduct(productId)));
+        }
+
+        final Map<Long, ProductInfo> products = new LinkedHashMap<>();
+        final List<String> failures = new ArrayList<>();
+        for (Map.Entry<Long, Future<ProductInfo>> entry : futures.entrySet()) {
+            try {
+                products.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                failures.add(e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while fetching products", e);
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new RuntimeException("Failed to validate products: " + String.join(", ", failures));
+        }
+        return products;
+    }
+
+    private ProductInfo toProductInfo(Map<?, ?> product) {
+        final String name = (String) product.get("name");
+        final BigDecimal price = new BigDecimal(product.get("price").toString());
+        if (!Boolean.TRUE.equals(product.get("flashSale"))) {
+            return new ProductInfo(name, price);
+        }
+        return new ProductInfo(name, price,
+                toDateTime(product.get("flashSaleStartTime")), toDateTime(product.get("flashSaleEndTime")));
+    }
+
+    private static LocalDateTime toDateTime(Object value) {
+        return value != null ? LocalDateTime.parse(value.toString()) : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdown();
+    }
+
     public void releaseReservedStock(String orderId, Long productId, Integer quantity) {
         try {
-            final String url = serviceUrlConfig.buildFullUrl("/api/products/release-reserved-stock") +
+            final String url = serviceUrlConfig.getProductService().getBaseUrl() + "/release-reserved-stock" +
                     "?orderId=" + orderId +
                     "&productId=" + productId +
                     "&quantity=" + quantity;
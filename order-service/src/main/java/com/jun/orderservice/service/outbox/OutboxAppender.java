@@ -0,0 +1,37 @@
+package com.jun.orderservice.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jun.orderservice.codec.PayloadCodec;
+import com.jun.orderservice.entity.OutboxEvent;
+import com.jun.orderservice.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 이벤트를 Kafka 로 바로 보내지 않고 outbox_events 에 기록한다. 호출자의 트랜잭션에 참여하므로
+ * 롤백되면 이벤트도 함께 사라지고, 실제 전송은 {@link OutboxRelay} 가 배치로 수행한다.
+ */
+@Component
+public class OutboxAppender {
+
+    // 기본(json)은 Kafka JsonSerializer 와 같은 설정의 ObjectMapper 로 기존 컨슈머가 읽던 형식을 그대로 유지한다
+    private final ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxEventRepository;
+
+    public OutboxAppender(OutboxEventRepository outboxEventRepository,
+                          @Value("${outbox.codec:json}") String codec) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = PayloadCodec.of(codec).newObjectMapper();
+    }
+
+    public void append(String topic, String key, Object event) {
+        final byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize event for topic " + topic, e);
+        }
+        outboxEventRepository.save(new OutboxEvent(topic, key, event.getClass().getName(), payload));
+    }
+}
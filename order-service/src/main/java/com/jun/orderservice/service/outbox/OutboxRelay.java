@@ -0,0 +1,124 @@
+package com.jun.orderservice.service.outbox;
+
+import com.jun.orderservice.entity.OutboxEvent;
+import com.jun.orderservice.event.EventHeaders;
+import com.jun.orderservice.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * outbox_events 를 batch-size 단위로 잠그고(SKIP LOCKED) 모든 레코드를 비동기로 한꺼번에 전송한 뒤,
+ * 전송이 모두 확인되면 같은 트랜잭션에서 삭제한다. 전송이 하나라도 실패하면 배치 전체가 다음 주기에 재전송된다(at-least-once).
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       PlatformTransactionManager transactionManager,
+                       ProducerFactory<?, ?> kafkaProducerFactory,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // payload 는 OutboxAppender 가 이미 직렬화했으므로 기존 producer 설정을 그대로 쓰되 값은 바이트 그대로 보낸다
+        this.producerFactory = new DefaultKafkaProducerFactory<>(
+                kafkaProducerFactory.getConfigurationProperties(), new StringSerializer(), new ByteArraySerializer());
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.linger-ms:50}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        try {
+            Integer relayed = transactionTemplate.execute(status -> {
+                List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize);
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+
+                List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(batch.size());
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (OutboxEvent event : batch) {
+                    futures.add(kafkaTemplate.send(toRecord(event)));
+                    ids.add(event.getId());
+                }
+                kafkaTemplate.flush();
+                awaitAll(futures);
+
+                outboxEventRepository.deleteByIdIn(ids);
+                return batch.size();
+            });
+            return relayed != null ? relayed : 0;
+        } catch (Exception e) {
+            logger.error("Failed to relay outbox batch, will retry: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record =
+                new ProducerRecord<>(event.getTopic(), event.getMessageKey(), event.getPayload());
+        // JsonSerializer 가 붙이던 타입 헤더를 그대로 붙여 컨슈머의 spring.json.type.mapping 이 계속 동작하게 한다
+        record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                event.getPayloadType().getBytes(StandardCharsets.UTF_8));
+        // event_id 가 없는 이전 행은 EventIdProducerInterceptor 가 새 id 를 붙인다
+        if (event.getEventId() != null) {
+            record.headers().add(EventHeaders.EVENT_ID, event.getEventId().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    private void awaitAll(List<CompletableFuture<SendResult<String, byte[]>>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for outbox sends", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Outbox send failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        producerFactory.destroy();
+    }
+}
@@ -0,0 +1,46 @@
+-- Moves users from the queue to the admitted set at a token-bucket rate, never beyond the budget.
+-- KEYS[1] queue, KEYS[2] admitted, KEYS[3] budget, KEYS[4] bucket hash, KEYS[5] active set
+-- ARGV[1] productId, ARGV[2] now (ms), ARGV[3] rate per second, ARGV[4] burst, ARGV[5] admission window (ms)
+-- Returns {admitted, remainingBudget}; remainingBudget is -1 when the budget must be reloaded.
+local now = tonumber(ARGV[2])
+local rate = tonumber(ARGV[3])
+local burst = tonumber(ARGV[4])
+local window = tonumber(ARGV[5])
+
+-- Admissions that were never used give their slot back.
+local expired = redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', now - window)
+
+local budget = redis.call('GET', KEYS[3])
+if not budget then
+    return {0, -1}
+end
+budget = tonumber(budget)
+if expired > 0 then
+    budget = redis.call('INCRBY', KEYS[3], expired)
+end
+
+local queued = redis.call('ZCARD', KEYS[1])
+if queued == 0 then
+    redis.call('SREM', KEYS[5], ARGV[1])
+    return {0, budget}
+end
+
+local bucket = redis.call('HMGET', KEYS[4], 'tokens', 'ts')
+local tokens = tonumber(bucket[1]) or burst
+local ts = tonumber(bucket[2]) or now
+tokens = math.min(burst, tokens + math.max(0, now - ts) * rate / 1000)
+
+local n = math.min(math.floor(tokens), budget, queued)
+if n > 0 then
+    local popped = redis.call('ZPOPMIN', KEYS[1], n)
+    for i = 1, #popped, 2 do
+        redis.call('ZADD', KEYS[2], now, popped[i])
+    end
+    budget = redis.call('DECRBY', KEYS[3], n)
+    tokens = tokens - n
+end
+
+redis.call('HSET', KEYS[4], 'tokens', tostring(tokens), 'ts', ARGV[2])
+redis.call('PEXPIRE', KEYS[4], window)
+redis.call('PEXPIRE', KEYS[2], window)
+return {n, budget}
@@ -0,0 +1,34 @@
+-- Hands out a flash-sale queue ticket.
+-- KEYS[1] admission:queue:{productId}     waiting users, scored by enqueue time
+-- KEYS[2] admission:admitted:{productId}  admitted users, scored by admission time
+-- KEYS[3] admission:budget:{productId}    remaining admissions (stock minus live admissions)
+-- KEYS[4] admission:active                products with a non-empty queue
+-- KEYS[5] admission:orders:{productId}    orders placed per user
+-- ARGV[1] userId, ARGV[2] productId, ARGV[3] now (ms), ARGV[4] admission window (ms), ARGV[5] queue ttl (ms),
+-- ARGV[6] max orders per user
+-- Returns the 0-based queue position, -1 budget not loaded, -2 sold out, -3 already admitted, -4 order limit reached.
+local now = tonumber(ARGV[3])
+local liveSince = now - tonumber(ARGV[4])
+
+-- users who already ordered the limit would only hold a slot until their admission expires
+if tonumber(redis.call('HGET', KEYS[5], ARGV[1]) or '0') >= tonumber(ARGV[6]) then
+    return -4
+end
+
+local admittedAt = redis.call('ZSCORE', KEYS[2], ARGV[1])
+if admittedAt and tonumber(admittedAt) > liveSince then
+    return -3
+end
+
+local budget = redis.call('GET', KEYS[3])
+if not budget then
+    return -1
+end
+if tonumber(budget) <= 0 and redis.call('ZCOUNT', KEYS[2], '(' .. liveSince, '+inf') == 0 then
+    return -2
+end
+
+redis.call('ZADD', KEYS[1], 'NX', now, ARGV[1])
+redis.call('PEXPIRE', KEYS[1], ARGV[5])
+redis.call('SADD', KEYS[4], ARGV[2])
+return redis.call('ZRANK', KEYS[1], ARGV[1])
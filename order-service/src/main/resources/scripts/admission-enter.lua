@@ -0,0 +1,25 @@
+-- Uses up the user's live admissions for every flash-sale product in the order, within the per-user order limit.
+-- KEYS[2i-1] admission:admitted:{productId}, KEYS[2i] admission:orders:{productId} (userId -> orders placed)
+-- ARGV[1] userId, ARGV[2] now (ms), ARGV[3] admission window (ms), ARGV[4] max orders per user, ARGV[5] orders ttl (ms)
+-- Returns {0, 0} when entered, {-1, i} when product i has no live admission, {-2, i} when the user reached the limit for it.
+-- Nothing is consumed unless every product passes, so a rejected order keeps its admissions.
+local liveSince = tonumber(ARGV[2]) - tonumber(ARGV[3])
+local maxOrders = tonumber(ARGV[4])
+local products = #KEYS / 2
+
+for i = 1, products do
+    if tonumber(redis.call('HGET', KEYS[2 * i], ARGV[1]) or '0') >= maxOrders then
+        return {-2, i}
+    end
+    local admittedAt = redis.call('ZSCORE', KEYS[2 * i - 1], ARGV[1])
+    if not admittedAt or tonumber(admittedAt) <= liveSince then
+        return {-1, i}
+    end
+end
+
+for i = 1, products do
+    redis.call('ZREM', KEYS[2 * i - 1], ARGV[1])
+    redis.call('HINCRBY', KEYS[2 * i], ARGV[1], 1)
+    redis.call('PEXPIRE', KEYS[2 * i], ARGV[5])
+end
+return {0, 0}
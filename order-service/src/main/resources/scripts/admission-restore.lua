@@ -0,0 +1,10 @@
+-- Gives back the admissions (and order-limit slots) taken by admission-enter.lua when the order could not be created.
+-- KEYS[2i-1] admission:admitted:{productId}, KEYS[2i] admission:orders:{productId}
+-- ARGV[1] userId, ARGV[2] now (ms)
+for i = 1, #KEYS / 2 do
+    redis.call('ZADD', KEYS[2 * i - 1], ARGV[2], ARGV[1])
+    if redis.call('HINCRBY', KEYS[2 * i], ARGV[1], -1) <= 0 then
+        redis.call('HDEL', KEYS[2 * i], ARGV[1])
+    end
+end
+return 1
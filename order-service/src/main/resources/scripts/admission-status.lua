@@ -0,0 +1,21 @@
+-- Reads a user's ticket state in one round trip.
+-- KEYS[1] queue, KEYS[2] admitted, KEYS[3] budget
+-- ARGV[1] userId, ARGV[2] now (ms), ARGV[3] admission window (ms)
+-- Returns {state, position}: state 1 admitted, 0 waiting, -1 not queued, -2 sold out.
+local liveSince = tonumber(ARGV[2]) - tonumber(ARGV[3])
+
+local admittedAt = redis.call('ZSCORE', KEYS[2], ARGV[1])
+if admittedAt and tonumber(admittedAt) > liveSince then
+    return {1, 0}
+end
+
+local budget = redis.call('GET', KEYS[3])
+if budget and tonumber(budget) <= 0 and redis.call('ZCOUNT', KEYS[2], '(' .. liveSince, '+inf') == 0 then
+    return {-2, 0}
+end
+
+local rank = redis.call('ZRANK', KEYS[1], ARGV[1])
+if not rank then
+    return {-1, 0}
+end
+return {0, rank}
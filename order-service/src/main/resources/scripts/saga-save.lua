@@ -0,0 +1,32 @@
+-- Merges a saga state into saga:{orderId} field by field, so concurrent writers cannot undo each other's progress.
+-- KEYS[1] saga:{orderId}
+-- ARGV[1] step ('' when none), ARGV[2] userId ('' when unknown), ARGV[3] status (ACTIVE | COMPLETED | COMPENSATED),
+-- ARGV[4] updatedAt, ARGV[5] active ttl (ms), ARGV[6] finished ttl (ms), ARGV[7..] step names in saga order
+-- The step and status only move forward, userId is set once and updatedAt keeps the latest value.
+local stepRank = {}
+for i = 7, #ARGV do
+    stepRank[ARGV[i]] = i
+end
+local statusRank = { ACTIVE = 0, COMPLETED = 1, COMPENSATED = 2 }
+
+local step = redis.call('HGET', KEYS[1], 'step')
+if ARGV[1] ~= '' and (stepRank[ARGV[1]] or 0) > (stepRank[step] or 0) then
+    redis.call('HSET', KEYS[1], 'step', ARGV[1])
+end
+
+if ARGV[2] ~= '' then
+    redis.call('HSETNX', KEYS[1], 'userId', ARGV[2])
+end
+
+local status = redis.call('HGET', KEYS[1], 'status')
+if not status or statusRank[ARGV[3]] > (statusRank[status] or 0) then
+    status = ARGV[3]
+    redis.call('HSET', KEYS[1], 'status', status)
+end
+
+if tonumber(ARGV[4]) > tonumber(redis.call('HGET', KEYS[1], 'updatedAt') or '0') then
+    redis.call('HSET', KEYS[1], 'updatedAt', ARGV[4])
+end
+
+redis.call('PEXPIRE', KEYS[1], status == 'ACTIVE' and ARGV[5] or ARGV[6])
+return 1
@@ -0,0 +1,32 @@
+package com.jun.orderservice.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageTest {
+
+    @Test
+    void roundTripsAnEncodedCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30);
+        String encoded = new CursorPage.Cursor(createdAt, "42").encode();
+
+        CursorPage.Cursor decoded = CursorPage.Cursor.decode(encoded);
+
+        assertThat(decoded.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(decoded.getIdAsLong()).isEqualTo(42L);
+    }
+
+    @Test
+    void rejectsNonNumericIdWhileDecoding() {
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-05-01T12:30|abc".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> CursorPage.Cursor.decode(forged)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,95 @@
+package com.jun.orderservice.listener;
+
+import com.jun.orderservice.event.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KeyOrderedBatchDispatcherTest {
+
+    private final ProcessedEventStore processedEventStore = mock(ProcessedEventStore.class);
+    private final KeyOrderedBatchDispatcher dispatcher = new KeyOrderedBatchDispatcher(processedEventStore);
+
+    @BeforeEach
+    void setUp() {
+        when(processedEventStore.unprocessed(any(), anyList())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void failureStopsTheKeyAndIsRethrownAfterOtherKeysFinish() {
+        ConsumerRecord<String, String> a1 = record(0, "order-a", "a1");
+        ConsumerRecord<String, String> b1 = record(1, "order-b", "b1");
+        ConsumerRecord<String, String> a2 = record(2, "order-a", "a2");
+        ConsumerRecord<String, String> b2 = record(3, "order-b", "b2");
+        Queue<String> handled = new ConcurrentLinkedQueue<>();
+
+        BatchListenerFailedException thrown = catchThrowableOfType(() ->
+                dispatcher.dispatch("group", List.of(a1, b1, a2, b2), value -> {
+                    if (value.equals("a1")) {
+                        throw new IllegalStateException("boom");
+                    }
+                    handled.add(value);
+                }), BatchListenerFailedException.class);
+
+        // 실패한 키의 뒤 레코드는 건너뛰고, 다른 키는 끝까지 처리한다
+        assertThat(handled).containsExactly("b1", "b2");
+        assertThat(thrown.getRecord()).isSameAs(a1);
+        assertThat(thrown.getCause()).hasMessage("boom");
+        verify(processedEventStore).release("group", a1);
+        verify(processedEventStore).release("group", a2);
+        verify(processedEventStore, never()).release(eq("group"), eq(b1));
+        verify(processedEventStore).markDone(eq("group"), argThatContainsExactly("b1", "b2"));
+    }
+
+    @Test
+    void rethrowsTheEarliestFailureInBatchOrder() {
+        ConsumerRecord<String, String> a1 = record(0, "order-a", "a1");
+        ConsumerRecord<String, String> b1 = record(1, "order-b", "b1");
+        ConsumerRecord<String, String> a2 = record(2, "order-a", "a2");
+
+        BatchListenerFailedException thrown = catchThrowableOfType(() ->
+                dispatcher.dispatch("group", List.of(a1, b1, a2), value -> {
+                    if (!value.equals("a1")) {
+                        throw new IllegalStateException(value);
+                    }
+                }), BatchListenerFailedException.class);
+
+        // a1 은 커밋하고 b1 부터 다시 받는다
+        assertThat(thrown.getRecord()).isSameAs(b1);
+    }
+
+    private static Collection<String> argThatContainsExactly(String... eventIds) {
+        return argThat(done -> done.size() == eventIds.length
+                && done.containsAll(List.of(eventIds)));
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String key, String eventId) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("payment-completed", 0, offset, key, eventId);
+        record.headers().add(EventHeaders.EVENT_ID, eventId.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -0,0 +1,168 @@
+package com.jun.orderservice.listener;
+
+import com.jun.orderservice.event.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProcessedEventStoreTest {
+
+    private static final Duration PROCESSING_TTL = Duration.ofMillis(300);
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final ProcessedEventStore store = new ProcessedEventStore(redisTemplate, Duration.ofHours(1), PROCESSING_TTL);
+
+    // 키 -> {값, 만료 시각(ms)}. SET NX / SET / GET / DEL 만 흉내 낸다
+    private final Map<String, Object[]> redis = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            List<Object> results = new ArrayList<>();
+            RedisConnection connection = mock(RedisConnection.class);
+            RedisStringCommands commands = mock(RedisStringCommands.class);
+            when(connection.stringCommands()).thenReturn(commands);
+            when(commands.set(any(), any(), any(), any())).thenAnswer(call -> {
+                results.add(set(call.getArgument(0), call.getArgument(1), call.getArgument(2), call.getArgument(3)));
+                return null;
+            });
+            when(commands.get(any())).thenAnswer(call -> {
+                results.add(get(new String((byte[]) call.getArgument(0), StandardCharsets.UTF_8)));
+                return null;
+            });
+            callback.doInRedis(connection);
+            return results;
+        });
+        when(redisTemplate.delete(anyString())).thenAnswer(call -> redis.remove((String) call.getArgument(0)) != null);
+    }
+
+    @Test
+    void skipsAlreadyProcessedAndInBatchDuplicates() {
+        ConsumerRecord<String, String> processed = record(0, "b");
+        store.unprocessed("group", List.of(processed));
+        store.markDone("group", "b");
+
+        ConsumerRecord<String, String> first = record(1, "a");
+        ConsumerRecord<String, String> redeliveredProcessed = record(2, "b");
+        ConsumerRecord<String, String> inBatchDuplicate = record(3, "a");
+        ConsumerRecord<String, String> legacy = record(4, null);
+
+        List<ConsumerRecord<String, String>> unprocessed =
+                store.unprocessed("group", List.of(first, redeliveredProcessed, inBatchDuplicate, legacy));
+
+        assertThat(unprocessed).containsExactly(first, legacy);
+    }
+
+    @Test
+    void redeliveredRecordIsHandledAgainWhenTheFirstHandlerNeverCompleted() {
+        ConsumerRecord<String, String> record = record(0, "a");
+        // 첫 컨슈머가 PROCESSING 으로 잡은 뒤 죽어서 markDone 도 release 도 하지 못했다
+        assertThat(store.unprocessed("group", List.of(record))).containsExactly(record);
+
+        long start = System.currentTimeMillis();
+        List<ConsumerRecord<String, String>> redelivered = store.unprocessed("group", List.of(record(0, "a")));
+
+        // 건너뛰지 않고 PROCESSING 표시가 만료되기를 기다렸다가 다시 넘겨준다
+        assertThat(redelivered).hasSize(1);
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(PROCESSING_TTL.toMillis() - 50);
+    }
+
+    @Test
+    void releasedRecordIsHandledAgainImmediately() {
+        store.unprocessed("group", List.of(record(0, "a")));
+        store.release("group", "a");
+
+        assertThat(store.unprocessed("group", List.of(record(0, "a")))).hasSize(1);
+    }
+
+    @Test
+    void failedRecordIsHandledAgainWhenTheContainerRetriesIt() {
+        KeyOrderedBatchDispatcher dispatcher = new KeyOrderedBatchDispatcher(store);
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> handled = new ArrayList<>();
+        Consumer<String> handler = value -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("downstream unavailable");
+            }
+            handled.add(value);
+        };
+
+        try {
+            assertThatThrownBy(() -> dispatcher.dispatch("group", List.of(record(0, "a")), handler))
+                    .isInstanceOf(BatchListenerFailedException.class);
+
+            // 에러 핸들러가 같은 오프셋으로 되감아 다시 전달한다. PROCESSING 만료를 기다리지 않고 바로 처리된다
+            long start = System.currentTimeMillis();
+            dispatcher.dispatch("group", List.of(record(0, "a")), handler);
+            assertThat(System.currentTimeMillis() - start).isLessThan(PROCESSING_TTL.toMillis());
+            assertThat(handled).containsExactly("value");
+
+            // 성공한 뒤에 또 오면 DONE 으로 걸러진다
+            dispatcher.dispatch("group", List.of(record(0, "a")), handler);
+            assertThat(attempts).hasValue(2);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void handlesEverythingWhenStoreIsUnavailable() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        List<ConsumerRecord<String, String>> records = List.of(record(0, "a"), record(1, "b"));
+
+        assertThat(store.unprocessed("group", records)).containsExactlyElementsOf(records);
+    }
+
+    private Boolean set(byte[] key, byte[] value, Expiration expiration, RedisStringCommands.SetOption option) {
+        String k = new String(key, StandardCharsets.UTF_8);
+        if (option == RedisStringCommands.SetOption.SET_IF_ABSENT && get(k) != null) {
+            return false;
+        }
+        redis.put(k, new Object[]{new String(value, StandardCharsets.UTF_8),
+                System.currentTimeMillis() + expiration.getExpirationTimeInMilliseconds()});
+        return true;
+    }
+
+    private String get(String key) {
+        Object[] entry = redis.get(key);
+        if (entry == null || (long) entry[1] <= System.currentTimeMillis()) {
+            redis.remove(key);
+            return null;
+        }
+        return (String) entry[0];
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String eventId) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("payment-completed", 0, offset, "order-1", "value");
+        if (eventId != null) {
+            record.headers().add(EventHeaders.EVENT_ID, eventId.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
@@ -0,0 +1,98 @@
+package com.jun.orderservice.repository;
+
+import com.jun.orderservice.entity.Order;
+import com.jun.orderservice.entity.OrderItem;
+import com.jun.orderservice.id.TimeOrderedUuid;
+import com.jun.orderservice.support.QueryCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+
+/**
+ * 20개 항목을 가진 주문 한 건을 저장하는 비용(SQL 문 수, 소요 시간)을 JDBC 배치 없이/있을 때로 비교한다.
+ * H2 인메모리라 네트워크 왕복 비용은 빠져 있으므로 시간보다 문장 수를 기준으로 본다.
+ * 기본 빌드에서는 건너뛰며 RUN_BENCHMARKS=true 로 실행한다.
+ * <pre>RUN_BENCHMARKS=true ./gradlew test --tests '*OrderInsertBenchmark' -i</pre>
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class OrderInsertBenchmark {
+
+    private static final int ITEMS_PER_ORDER = 20;
+    private static final int WARMUP_ORDERS = 500;
+    private static final int MEASURED_ORDERS = 2_000;
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaSliceConfig {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void compareInsertCostPerOrder() {
+        QueryCounter queryCounter = new QueryCounter(entityManagerFactory);
+
+        run("unbatched (batch_size=1)", 1, queryCounter);
+        run("batched (batch_size=50)", 50, queryCounter);
+    }
+
+    private void run(String label, int batchSize, QueryCounter queryCounter) {
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+
+        for (int i = 0; i < WARMUP_ORDERS; i++) {
+            saveOrder();
+        }
+
+        queryCounter.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ORDERS; i++) {
+            saveOrder();
+        }
+        long micros = (System.nanoTime() - start) / 1_000 / MEASURED_ORDERS;
+
+        System.out.printf("%-26s %6.1f statements/order  %6d us/order%n",
+                label, (double) queryCounter.count() / MEASURED_ORDERS, micros);
+    }
+
+    // 주문 하나가 트랜잭션 하나에 해당하도록 매번 flush 하고 영속성 컨텍스트를 비운다
+    private void saveOrder() {
+        Order order = Order.builder()
+                .orderId(TimeOrderedUuid.nextString())
+                .userId(1L)
+                .shippingAddress("Seoul")
+                .paymentMethod("CARD")
+                .build();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            order.addOrderItem(OrderItem.builder()
+                    .order(order)
+                    .productId((long) i + 1)
+                    .productName("product-" + (i + 1))
+                    .quantity(1)
+                    .unitPrice(BigDecimal.TEN)
+                    .build());
+        }
+        entityManager.persist(order);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,123 @@
+package com.jun.orderservice.repository;
+
+import com.jun.orderservice.dto.OrderDto;
+import com.jun.orderservice.entity.Order;
+import com.jun.orderservice.entity.OrderItem;
+import com.jun.orderservice.id.TimeOrderedUuid;
+import com.jun.orderservice.support.QueryCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주문 목록/상세 조회가 주문 수와 무관하게 고정된 수의 쿼리로 끝나는지 확인한다 (OrderItem N+1 회귀 방지).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderRepositoryQueryCountTest {
+
+    private static final Long USER_ID = 1L;
+    private static final int ORDER_COUNT = 100;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    // 메인 애플리케이션의 @EnableFeignClients 없이 JPA 계층만 올린다
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaSliceConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QueryCounter queryCounter;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            entityManager.persist(order(i % 10 == 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        queryCounter = new QueryCounter(entityManagerFactory);
+        queryCounter.reset();
+    }
+
+    @Test
+    void orderPageLoadsItemsInOneBatch() {
+        List<OrderDto> orders = orderRepository.findFirstPageByUserId(USER_ID, PageRequest.of(0, ORDER_COUNT + 1))
+                .stream()
+                .map(OrderDto::new)
+                .collect(Collectors.toList());
+
+        assertThat(orders).hasSize(ORDER_COUNT);
+        assertThat(orders).allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER));
+        assertThat(queryCounter.count()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void flashSaleOrdersAreFetchedWithItems() {
+        List<OrderDto> orders = orderRepository.findByUserIdAndFlashSaleOrderTrueOrderByCreatedAtDesc(USER_ID)
+                .stream()
+                .map(OrderDto::new)
+                .collect(Collectors.toList());
+
+        assertThat(orders).hasSize(ORDER_COUNT / 10);
+        assertThat(orders).allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER));
+        assertThat(queryCounter.count()).isEqualTo(1);
+    }
+
+    @Test
+    void orderDetailIsFetchedWithItems() {
+        String orderId = orderRepository.findFirstPageByUserId(USER_ID, PageRequest.of(0, 1)).get(0).getOrderId();
+        entityManager.clear();
+        queryCounter.reset();
+
+        OrderDto order = new OrderDto(orderRepository.findByOrderIdAndUserId(orderId, USER_ID));
+
+        assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER);
+        assertThat(queryCounter.count()).isEqualTo(1);
+    }
+
+    private Order order(boolean flashSale) {
+        Order order = Order.builder()
+                .orderId(TimeOrderedUuid.nextString())
+                .userId(USER_ID)
+                .shippingAddress("Seoul")
+                .paymentMethod("CARD")
+                .flashSaleOrder(flashSale)
+                .build();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            order.addOrderItem(OrderItem.builder()
+                    .order(order)
+                    .productId((long) i + 1)
+                    .productName("product-" + (i + 1))
+                    .quantity(1)
+                    .unitPrice(BigDecimal.TEN)
+                    .build());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,91 @@
+package com.jun.orderservice.saga;
+
+import com.jun.orderservice.config.SagaStoreProperties;
+import com.jun.orderservice.event.EventHeaders;
+import com.jun.orderservice.listener.KeyOrderedBatchDispatcher;
+import com.jun.orderservice.listener.ProcessedEventStore;
+import com.jun.orderservice.saga.store.InMemorySagaStateStore;
+import com.jun.orderservice.service.OrderEventPublisher;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class OrderSagaCompensationRetryTest {
+
+    private final OrderEventPublisher eventPublisher = mock(OrderEventPublisher.class);
+    private final ProcessedEventStore processedEventStore = mock(ProcessedEventStore.class);
+    private final KeyOrderedBatchDispatcher dispatcher = new KeyOrderedBatchDispatcher(processedEventStore);
+    private final InMemorySagaStateStore sagaStateStore = new InMemorySagaStateStore(new SagaStoreProperties());
+    private final OrderSagaOrchestrator orchestrator = new OrderSagaOrchestrator();
+
+    @BeforeEach
+    void setUp() {
+        setField(orchestrator, "eventPublisher", eventPublisher);
+        setField(orchestrator, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        setField(orchestrator, "sagaStateStore", sagaStateStore);
+        setField(orchestrator, "batchDispatcher", dispatcher);
+        when(processedEventStore.unprocessed(any(), anyList())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void failedCompensationIsRetriedOnRedelivery() {
+        SagaState saga = new SagaState("order-1");
+        saga.setUserId(7L);
+        saga.advanceTo(SagaStep.STOCK_RESERVED);
+        sagaStateStore.save(saga);
+        // outbox 기록이 한 번 실패한 뒤 성공한다
+        doThrow(new IllegalStateException("outbox unavailable"))
+                .doNothing()
+                .when(eventPublisher).publishOrderCancelRequest(anyString(), anyLong(), anyString());
+        doNothing().when(eventPublisher).publishOrderCancelled(any());
+        List<ConsumerRecord<String, Map<String, Object>>> batch = List.of(paymentFailed("order-1"));
+
+        // 컨테이너가 실패한 레코드부터 다시 받도록 예외가 리스너 밖으로 나온다
+        assertThatThrownBy(() -> orchestrator.handlePaymentFailedBatch(batch))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .extracting(e -> ((BatchListenerFailedException) e).getRecord())
+                .isSameAs(batch.get(0));
+        assertThat(sagaStateStore.find("order-1").orElseThrow().isCompensated()).isFalse();
+        verify(processedEventStore).release("order-saga-group", batch.get(0));
+
+        // 재전달된 레코드로 보상을 다시 실행한다
+        orchestrator.handlePaymentFailedBatch(batch);
+
+        verify(eventPublisher, times(2)).publishOrderCancelRequest("order-1", 7L, "Saga compensation");
+        assertThat(sagaStateStore.find("order-1").orElseThrow().isCompensated()).isTrue();
+    }
+
+    private static ConsumerRecord<String, Map<String, Object>> paymentFailed(String orderId) {
+        ConsumerRecord<String, Map<String, Object>> record =
+                new ConsumerRecord<>("payment-failed", 0, 0, orderId, Map.of("orderId", orderId));
+        record.headers().add(EventHeaders.EVENT_ID, "payment-failed-1".getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
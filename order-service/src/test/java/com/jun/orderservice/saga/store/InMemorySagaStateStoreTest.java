@@ -0,0 +1,69 @@
+package com.jun.orderservice.saga.store;
+
+import com.jun.orderservice.config.SagaStoreProperties;
+import com.jun.orderservice.saga.SagaState;
+import com.jun.orderservice.saga.SagaStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySagaStateStoreTest {
+
+    private final InMemorySagaStateStore store = new InMemorySagaStateStore(new SagaStoreProperties());
+
+    @Test
+    void concurrentSavesOfStaleCopiesKeepBothUpdates() {
+        SagaState started = new SagaState("order-1");
+        started.setUserId(7L);
+        started.advanceTo(SagaStep.ORDER_CREATED);
+        store.save(started);
+
+        // 두 리스너가 같은 saga 를 동시에 읽는다
+        SagaState paymentView = store.find("order-1").orElseThrow();
+        SagaState stockView = store.find("order-1").orElseThrow();
+
+        paymentView.advanceTo(SagaStep.PAYMENT_COMPLETED);
+        paymentView.setCompleted(true);
+        store.save(paymentView);
+
+        // 늦게 저장된 쪽이 먼저 저장된 진행을 되돌리지 않는다
+        stockView.advanceTo(SagaStep.STOCK_RESERVED);
+        store.save(stockView);
+
+        SagaState saved = store.find("order-1").orElseThrow();
+        assertThat(saved.getStep()).isEqualTo(SagaStep.PAYMENT_COMPLETED);
+        assertThat(saved.isCompleted()).isTrue();
+        assertThat(saved.getUserId()).isEqualTo(7L);
+    }
+
+    @Test
+    void findReturnsACopy() {
+        store.save(new SagaState("order-1"));
+
+        store.find("order-1").orElseThrow().setCompensated(true);
+
+        assertThat(store.find("order-1").orElseThrow().isCompensated()).isFalse();
+    }
+
+    @Test
+    void fullStoreEvictsFinishedSagasInBulk() {
+        SagaStoreProperties properties = new SagaStoreProperties();
+        properties.setMaxSize(100);
+        InMemorySagaStateStore small = new InMemorySagaStateStore(properties);
+        for (int i = 0; i < 100; i++) {
+            SagaState state = new SagaState("order-" + i);
+            // 앞의 20 개는 끝난 saga
+            state.setCompleted(i < 20);
+            small.save(state);
+        }
+
+        small.save(new SagaState("order-100"));
+
+        // 90 개까지 한 번에 비운다. 끝난 saga 10 개만 지워지고 진행 중인 saga 는 남는다
+        long finishedLeft = IntStream.range(0, 20).filter(i -> small.find("order-" + i).isPresent()).count();
+        assertThat(finishedLeft).isEqualTo(10);
+        assertThat(IntStream.rangeClosed(20, 100).allMatch(i -> small.find("order-" + i).isPresent())).isTrue();
+    }
+}
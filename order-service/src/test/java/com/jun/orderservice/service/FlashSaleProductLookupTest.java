@@ -0,0 +1,62 @@
+package com.jun.orderservice.service;
+
+import com.jun.orderservice.config.ServiceUrlConfig;
+import com.jun.orderservice.dto.OrderRequest;
+import com.jun.orderservice.repository.OrderRepository;
+import com.jun.orderservice.service.expiry.OrderExpiryScheduler;
+import com.jun.orderservice.service.external.ProductServiceClient;
+import com.jun.orderservice.service.validator.OrderValidator;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 대기열 입장 대상은 요청 플래그가 아니라 상품 서비스의 플래시 세일 기간으로 정한다.
+ */
+class FlashSaleProductLookupTest {
+
+    private final ProductServiceClient productServiceClient = mock(ProductServiceClient.class);
+    private final OrderService orderService = new OrderService(
+            mock(OrderRepository.class),
+            mock(RedissonClient.class),
+            productServiceClient,
+            mock(OrderEventPublisher.class),
+            mock(ServiceUrlConfig.class),
+            mock(OrderValidator.class),
+            mock(OrderExpiryScheduler.class),
+            mock(Tracer.class));
+
+    @Test
+    void ignoresClientFlagsAndUsesTheSaleWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        when(productServiceClient.getProducts(any())).thenReturn(Map.of(
+                1L, new OrderService.ProductInfo("on sale", BigDecimal.TEN, now.minusMinutes(5), now.plusMinutes(5)),
+                2L, new OrderService.ProductInfo("regular", BigDecimal.TEN),
+                3L, new OrderService.ProductInfo("sale ended", BigDecimal.TEN, now.minusHours(2), now.minusHours(1))));
+
+        // 세일 중인 상품을 일반 상품이라고 보내고, 일반 상품을 세일 상품이라고 보낸다
+        OrderRequest request = new OrderRequest();
+        request.setFlashSaleOrder(false);
+        request.setOrderItems(List.of(item(1L, false), item(2L, true), item(3L, true)));
+
+        assertThat(orderService.getActiveFlashSaleProductIds(request)).containsExactly(1L);
+    }
+
+    private static OrderRequest.OrderItemRequest item(Long productId, boolean flashSaleItem) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        item.setFlashSaleItem(flashSaleItem);
+        return item;
+    }
+}
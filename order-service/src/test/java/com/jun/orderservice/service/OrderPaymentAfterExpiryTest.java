@@ -0,0 +1,89 @@
+package com.jun.orderservice.service;
+
+import com.jun.orderservice.config.ServiceUrlConfig;
+import com.jun.orderservice.entity.Order;
+import com.jun.orderservice.event.PaymentCompletedEvent;
+import com.jun.orderservice.id.TimeOrderedUuid;
+import com.jun.orderservice.repository.OrderRepository;
+import com.jun.orderservice.service.expiry.OrderExpiryScheduler;
+import com.jun.orderservice.service.external.ProductServiceClient;
+import com.jun.orderservice.service.validator.OrderValidator;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 결제가 진행되는 사이 주문이 만료되고, 그 뒤에 결제 완료 이벤트가 도착하는 순서를 다룬다.
+ */
+class OrderPaymentAfterExpiryTest {
+
+    private static final Long USER_ID = 7L;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderEventPublisher eventPublisher = mock(OrderEventPublisher.class);
+    private final OrderService orderService = new OrderService(
+            orderRepository,
+            mock(RedissonClient.class),
+            mock(ProductServiceClient.class),
+            eventPublisher,
+            mock(ServiceUrlConfig.class),
+            mock(OrderValidator.class),
+            mock(OrderExpiryScheduler.class),
+            mock(Tracer.class));
+
+    @Test
+    void paymentCompletedAfterExpiryRequestsRefundInsteadOfConfirming() {
+        Order order = pendingOrder();
+        // 만료 스케줄러가 먼저 주문을 만료시켰다 (예약 재고는 order-cancelled 로 해제됨)
+        order.expire();
+        when(orderRepository.findByOrderIdIn(any())).thenReturn(List.of(order));
+
+        PaymentCompletedEvent payment = paymentFor(order);
+        var handled = orderService.confirmPaidOrders(Map.of(order.getOrderId(), payment));
+
+        assertThat(handled).containsExactly(order.getOrderId());
+        assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.EXPIRED);
+        verify(eventPublisher).publishPaymentCompensation(
+                eq(order.getOrderId()), eq(payment.getPaymentId()), eq(USER_ID), anyString());
+    }
+
+    @Test
+    void paymentCompletedBeforeExpiryConfirmsOrder() {
+        Order order = pendingOrder();
+        when(orderRepository.findByOrderIdIn(any())).thenReturn(List.of(order));
+
+        orderService.confirmPaidOrders(Map.of(order.getOrderId(), paymentFor(order)));
+
+        assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        verify(eventPublisher, never()).publishPaymentCompensation(any(), any(), any(), any());
+    }
+
+    private static Order pendingOrder() {
+        return Order.builder()
+                .orderId(TimeOrderedUuid.nextString())
+                .userId(USER_ID)
+                .shippingAddress("Seoul")
+                .paymentMethod("CARD")
+                .expiresAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+
+    private static PaymentCompletedEvent paymentFor(Order order) {
+        return new PaymentCompletedEvent("payment-1", order.getOrderId(), USER_ID, BigDecimal.TEN,
+                "CARD", "tx-1", null);
+    }
+}
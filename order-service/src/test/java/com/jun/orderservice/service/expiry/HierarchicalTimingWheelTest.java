@@ -0,0 +1,63 @@
+package com.jun.orderservice.service.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 100;
+
+    @Test
+    void itemsAreReturnedOnceTheirDeadlineHasPassed() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 4, 0);
+        wheel.schedule("soon", 250);
+        wheel.schedule("late", 10_000);   // 4^3 tick 을 넘으므로 상위 레벨에서 내려온다
+        wheel.schedule("overdue", -50);
+
+        assertThat(wheel.advance(0)).containsExactly("overdue");
+        assertThat(wheel.advance(249)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("soon");
+        assertThat(wheel.advance(9_999)).isEmpty();
+        assertThat(wheel.advance(10_000)).containsExactly("late");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadingMatchesDeadlinesAcrossLevels() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, 8, 1_000);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        long now = 1_000;
+        int next = 0;
+
+        for (int step = 0; step < 2_000; step++) {
+            for (int i = 0; i < 5; i++) {
+                long deadline = now + random.nextInt(1_000_000);
+                deadlines.put(next, deadline);
+                wheel.schedule(next++, deadline);
+            }
+            now += random.nextInt(2_000);
+
+            List<Integer> due = wheel.advance(now);
+            for (Integer item : due) {
+                // 마감 전에 나오지 않고, 늦어도 한 tick 안에 나온다
+                assertThat(deadlines.get(item)).isLessThanOrEqualTo(now);
+                deadlines.remove(item);
+            }
+            for (Long deadline : deadlines.values()) {
+                assertThat(deadline).isGreaterThan(now - TICK);
+            }
+        }
+
+        List<Integer> rest = new ArrayList<>(wheel.advance(now + 1_000_000 + TICK));
+        assertThat(rest).containsExactlyInAnyOrderElementsOf(deadlines.keySet());
+        assertThat(wheel.size()).isZero();
+    }
+}
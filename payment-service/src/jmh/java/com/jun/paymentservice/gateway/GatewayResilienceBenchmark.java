@@ -0,0 +1,188 @@
+package com.jun.paymentservice.gateway;
+
+import com.jun.paymentservice.config.PaymentGatewayProperties;
+import com.jun.paymentservice.dto.PaymentRequest;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * PG 시뮬레이터 위에서 PaymentGatewayClient 와 같은 순서(Retry → CircuitBreaker → TimeLimiter)로 resilience4j 를 씌워
+ * 결제 한 건의 지연 분포와 결과(승인/거절/실패/서킷 차단/타임아웃)를 잰다. 세일 전에 타임아웃, 재시도 횟수,
+ * 동시 호출 한도를 어떻게 잡을지 비교하는 용도이며, 서킷브레이커 값은 application.yml 과 같게 둔다.
+ * <pre>./gradlew jmh -Pjmh.includes=GatewayResilienceBenchmark</pre>
+ * 결과의 ·approved/·declined/·failed/·rejected/·timedOut 은 측정 구간 동안의 건수다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 2, time = 15)
+@Fork(1)
+@Threads(64)
+public class GatewayResilienceBenchmark {
+
+    private static final PaymentRequest REQUEST = new PaymentRequest();
+
+    static {
+        REQUEST.setOrderId("benchmark-order");
+        REQUEST.setAmount(BigDecimal.valueOf(50_000));
+        REQUEST.setPaymentMethod("CREDIT_CARD");
+        REQUEST.setFlashSalePayment(true);
+    }
+
+    /** normal: 기본값, tail: 긴 꼬리 지연과 잦은 hang, burst: 20초마다 5초간 오류 80% */
+    @Param({"normal", "tail", "burst"})
+    public String profile;
+
+    @Param({"10s", "2s"})
+    public String timeout;
+
+    @Param({"3", "1"})
+    public int retryAttempts;
+
+    @Param({"200"})
+    public int maxConcurrency;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService executor;
+    private Semaphore permits;
+    private PaymentGateway gateway;
+    private CircuitBreaker circuitBreaker;
+    private Retry retry;
+    private TimeLimiter timeLimiter;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long approved;
+        public long declined;
+        public long failed;
+        public long rejected;
+        public long timedOut;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            approved = declined = failed = rejected = timedOut = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PaymentGatewayProperties properties = new PaymentGatewayProperties();
+        properties.setMaxConcurrency(maxConcurrency);
+        PaymentGatewayProperties.Simulator simulator = properties.getSimulator();
+        switch (profile) {
+            case "tail" -> {
+                simulator.setP99(Duration.ofMillis(1500));
+                simulator.setSpikeRate(0.01);
+                simulator.setHangRate(0.005);
+            }
+            case "burst" -> {
+                simulator.getErrorBurst().setEvery(Duration.ofSeconds(20));
+                simulator.getErrorBurst().setDuration(Duration.ofSeconds(5));
+                simulator.getErrorBurst().setFailureRate(0.8);
+            }
+            default -> {
+            }
+        }
+
+        scheduler = Executors.newScheduledThreadPool(2);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        permits = new Semaphore(properties.getMaxConcurrency());
+        gateway = new SimulatedPaymentGateway(properties);
+
+        // application.yml 의 resilience4j.*.external-payment-api 와 같은 값
+        circuitBreaker = CircuitBreaker.of("external-payment-api", CircuitBreakerConfig.custom()
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofSeconds(30))
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .slowCallRateThreshold(50)
+                .slowCallDurationThreshold(Duration.ofSeconds(5))
+                .ignoreExceptions(PaymentDeclinedException.class)
+                .build());
+        retry = Retry.of("external-payment-api", RetryConfig.custom()
+                .maxAttempts(retryAttempts)
+                .waitDuration(Duration.ofSeconds(1))
+                .ignoreExceptions(PaymentDeclinedException.class)
+                .build());
+        timeLimiter = TimeLimiter.of("external-payment-api", TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.parse("PT" + timeout.toUpperCase()))
+                .cancelRunningFuture(true)
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void authorize(Outcomes outcomes) {
+        try {
+            // 한 결제의 재시도는 같은 멱등키로 나간다
+            String paymentId = UUID.randomUUID().toString();
+            retry.executeCompletionStage(scheduler, () -> guardedCall(paymentId)).toCompletableFuture().join();
+            outcomes.approved++;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PaymentDeclinedException) {
+                outcomes.declined++;
+            } else if (cause instanceof CallNotPermittedException) {
+                outcomes.rejected++;
+            } else if (cause instanceof TimeoutException) {
+                outcomes.timedOut++;
+            } else {
+                outcomes.failed++;
+            }
+        }
+    }
+
+    private CompletionStage<String> guardedCall(String paymentId) {
+        Supplier<CompletionStage<String>> call = () -> CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return gateway.authorize(paymentId, REQUEST);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+        return circuitBreaker.executeCompletionStage(() -> timeLimiter.executeCompletionStage(scheduler, call));
+    }
+}
@@ -0,0 +1,50 @@
+package com.jun.paymentservice.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.kafka.support.JacksonUtils;
+
+/**
+ * 이벤트 페이로드 인코딩. JSON 이 기본이며 Smile(Jackson 의 바이너리 JSON)은 opt-in 이다.
+ * Smile 은 필드명/반복 문자열을 백레퍼런스로 공유하고 숫자·BigDecimal 을 바이너리로 쓰므로 더 작고 빠르다.
+ * Smile 페이로드는 항상 포맷 버전이 담긴 ":)\n" 헤더로 시작해, 컨슈머는 별도 헤더 없이 형식을 구분한다.
+ * 필드 추가/삭제는 JSON 과 같이 이름 기반으로 호환된다 (모르는 필드는 무시).
+ */
+public enum PayloadCodec {
+    JSON,
+    SMILE;
+
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    public ObjectMapper newObjectMapper() {
+        if (this == JSON) {
+            return JacksonUtils.enhancedObjectMapper();
+        }
+        // JacksonUtils.enhancedObjectMapper() 와 같은 설정에 문자열 값 공유만 더한다
+        return SmileMapper.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .findAndAddModules()
+                .build();
+    }
+
+    public static PayloadCodec of(String name) {
+        return name != null && name.equalsIgnoreCase("smile") ? SMILE : JSON;
+    }
+
+    public static PayloadCodec detect(byte[] data) {
+        if (data == null || data.length < SMILE_HEADER.length) {
+            return JSON;
+        }
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (data[i] != SMILE_HEADER[i]) {
+                return JSON;
+            }
+        }
+        return SMILE;
+    }
+}
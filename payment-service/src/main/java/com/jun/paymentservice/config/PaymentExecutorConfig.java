@@ -0,0 +1,22 @@
+package com.jun.paymentservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PG 호출과 결제 완료 처리를 실행하는 가상 스레드 실행기. PG 응답을 기다리는 동안 플랫폼 스레드나 DB 커넥션을 잡지 않는다.
+ * 동시에 나가는 PG 호출 수는 {@code payment.gateway.max-concurrency} 로 따로 제한한다.
+ */
+@Configuration
+public class PaymentExecutorConfig {
+
+    public static final String PAYMENT_EXECUTOR = "paymentExecutor";
+
+    @Bean(name = PAYMENT_EXECUTOR, destroyMethod = "close")
+    public ExecutorService paymentExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -0,0 +1,162 @@
+package com.jun.paymentservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "payment.gateway")
+public class PaymentGatewayProperties {
+
+    private String type = "simulator";
+    private int maxConcurrency = 200;
+    private Simulator simulator = new Simulator();
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Simulator getSimulator() {
+        return simulator;
+    }
+
+    public void setSimulator(Simulator simulator) {
+        this.simulator = simulator;
+    }
+
+    /**
+     * 로컬 PG 시뮬레이터의 지연/장애 모델. 지연은 p50/p99 를 맞춘 로그정규분포에 드문 스파이크를 더하고,
+     * 주기적인 오류 폭주 구간과 응답이 오지 않는 호출(hang)을 섞는다.
+     */
+    public static class Simulator {
+
+        private Duration p50 = Duration.ofMillis(80);
+        private Duration p99 = Duration.ofMillis(400);
+        private double spikeRate = 0.001;
+        private Duration spikeLatency = Duration.ofSeconds(3);
+        private double failureRate = 0.01;
+        private double declineRate = 0.02;
+        private double hangRate = 0.0005;
+        private Duration hangDuration = Duration.ofSeconds(30);
+        private ErrorBurst errorBurst = new ErrorBurst();
+
+        public Duration getP50() {
+            return p50;
+        }
+
+        public void setP50(Duration p50) {
+            this.p50 = p50;
+        }
+
+        public Duration getP99() {
+            return p99;
+        }
+
+        public void setP99(Duration p99) {
+            this.p99 = p99;
+        }
+
+        public double getSpikeRate() {
+            return spikeRate;
+        }
+
+        public void setSpikeRate(double spikeRate) {
+            this.spikeRate = spikeRate;
+        }
+
+        public Duration getSpikeLatency() {
+            return spikeLatency;
+        }
+
+        public void setSpikeLatency(Duration spikeLatency) {
+            this.spikeLatency = spikeLatency;
+        }
+
+        public double getFailureRate() {
+            return failureRate;
+        }
+
+        public void setFailureRate(double failureRate) {
+            this.failureRate = failureRate;
+        }
+
+        public double getDeclineRate() {
+            return declineRate;
+        }
+
+        public void setDeclineRate(double declineRate) {
+            this.declineRate = declineRate;
+        }
+
+        public double getHangRate() {
+            return hangRate;
+        }
+
+        public void setHangRate(double hangRate) {
+            this.hangRate = hangRate;
+        }
+
+        public Duration getHangDuration() {
+            return hangDuration;
+        }
+
+        public void setHangDuration(Duration hangDuration) {
+            this.hangDuration = hangDuration;
+        }
+
+        public ErrorBurst getErrorBurst() {
+            return errorBurst;
+        }
+
+        public void setErrorBurst(ErrorBurst errorBurst) {
+            this.errorBurst = errorBurst;
+        }
+    }
+
+    /**
+     * every 주기마다 마지막 duration 동안 실패율을 failure-rate 로 올린다. every 가 0 이면 폭주 구간이 없다.
+     */
+    public static class ErrorBurst {
+
+        private Duration every = Duration.ZERO;
+        private Duration duration = Duration.ofSeconds(10);
+        private double failureRate = 0.5;
+
+        public Duration getEvery() {
+            return every;
+        }
+
+        public void setEvery(Duration every) {
+            this.every = every;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public void setDuration(Duration duration) {
+            this.duration = duration;
+        }
+
+        public double getFailureRate() {
+            return failureRate;
+        }
+
+        public void setFailureRate(double failureRate) {
+            this.failureRate = failureRate;
+        }
+    }
+}
@@ -1,15 +1,62 @@
 package com.jun.paymentservice.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * 서비스 간 호출은 게이트웨이를 거치지 않고 Eureka 에 등록된 인스턴스로 직접 보낸다.
+ * 모든 내부 클라이언트는 하나의 커넥션 풀(keep-alive)을 공유하고, 대상 서비스별로 응답 타임아웃을 따로 둔다.
+ */
 @Configuration
 public class WebConfig {
 
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager internalConnectionManager(InternalClientProperties properties) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .build())
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
+    @LoadBalanced
+    public RestTemplate orderServiceRestTemplate(RestTemplateBuilder builder,
+                                                PoolingHttpClientConnectionManager internalConnectionManager,
+                                                InternalClientProperties properties) {
+        return internalRestTemplate(builder, internalConnectionManager, properties, "order-service");
+    }
+
+    private RestTemplate internalRestTemplate(RestTemplateBuilder builder,
+                                              PoolingHttpClientConnectionManager connectionManager,
+                                              InternalClientProperties properties,
+                                              String serviceId) {
+        var httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setConnectionManagerShared(true)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.readTimeoutFor(serviceId)))
+                        .build())
+                .evictIdleConnections(TimeValue.of(properties.getIdleTimeout()))
+                .build();
+
+        return builder
+                .rootUri("http://" + serviceId)
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
     }
-}
\ No newline at end of file
+}
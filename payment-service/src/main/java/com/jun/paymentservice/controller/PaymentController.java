@@ -1,5 +1,6 @@
 package com.jun.paymentservice.controller;
 
+import com.jun.paymentservice.dto.CursorPage;
 import com.jun.paymentservice.dto.PaymentDto;
 import com.jun.paymentservice.dto.PaymentRequest;
 import com.jun.paymentservice.service.PaymentService;
@@ -52,10 +53,26 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    // 본문은 결제 목록이고, 다음 페이지가 있으면 X-Next-Cursor 헤더의 값을 cursor 로 넘겨 이어서 조회한다
     @GetMapping("/user")
-    public ResponseEntity<List<PaymentDto>> getUserPayments(@RequestHeader("User-Id") Long userId) {
-        List<PaymentDto> payments = paymentService.getPaymentsByUserId(userId);
-        return ResponseEntity.ok(payments);
+    public ResponseEntity<?> getUserPayments(@RequestHeader("User-Id") Long userId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer size) {
+        CursorPage.Cursor position;
+        try {
+            position = CursorPage.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid cursor");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        CursorPage<PaymentDto> page = paymentService.getPaymentsByUserId(userId, position, CursorPage.clampSize(size));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @PostMapping("/{paymentId}/refund")
@@ -42,6 +42,28 @@ public class PaymentDto {
         this.processedAt = payment.getProcessedAt();
     }
 
+    // JPQL 프로젝션용 생성자
+    public PaymentDto(Long id, String paymentId, String orderId, Long userId, BigDecimal amount,
+                      Payment.PaymentMethod paymentMethod, Payment.PaymentStatus status, String transactionId,
+                      String failureReason, String refundReason, BigDecimal refundedAmount, Boolean flashSalePayment,
+                      LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime processedAt) {
+        this.id = id;
+        this.paymentId = paymentId;
+        this.orderId = orderId;
+        this.userId = userId;
+        this.amount = amount;
+        this.paymentMethod = paymentMethod != null ? paymentMethod.name() : null;
+        this.status = status != null ? status.name() : null;
+        this.transactionId = transactionId;
+        this.failureReason = failureReason;
+        this.refundReason = refundReason;
+        this.refundedAmount = refundedAmount;
+        this.flashSalePayment = flashSalePayment;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.processedAt = processedAt;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -1,18 +1,23 @@
 package com.jun.paymentservice.entity;
 
+import com.jun.paymentservice.id.UuidStringConverter;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_user_created_id", columnList = "user_id, created_at, id")
+})
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "payment_id", unique = true, nullable = false)
+    @Convert(converter = UuidStringConverter.class)
     private String paymentId;
 
     @Column(name = "order_id", nullable = false)
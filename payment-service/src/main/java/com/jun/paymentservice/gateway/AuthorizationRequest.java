@@ -0,0 +1,25 @@
+package com.jun.paymentservice.gateway;
+
+import com.jun.paymentservice.dto.PaymentRequest;
+
+/**
+ * 배치 승인의 건별 요청. 멱등키는 결제 id 로, 재시도된 요청을 PG 가 같은 승인으로 알아보게 한다.
+ */
+public class AuthorizationRequest {
+
+    private final String idempotencyKey;
+    private final PaymentRequest paymentRequest;
+
+    public AuthorizationRequest(String idempotencyKey, PaymentRequest paymentRequest) {
+        this.idempotencyKey = idempotencyKey;
+        this.paymentRequest = paymentRequest;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public PaymentRequest getPaymentRequest() {
+        return paymentRequest;
+    }
+}
@@ -0,0 +1,35 @@
+package com.jun.paymentservice.gateway;
+
+/**
+ * 배치 승인에서 건별 결과. 승인되면 거래 id, 아니면 거절/오류 예외를 담는다.
+ */
+public class GatewayResult {
+
+    private final String transactionId;
+    private final RuntimeException error;
+
+    private GatewayResult(String transactionId, RuntimeException error) {
+        this.transactionId = transactionId;
+        this.error = error;
+    }
+
+    public static GatewayResult approved(String transactionId) {
+        return new GatewayResult(transactionId, null);
+    }
+
+    public static GatewayResult failed(RuntimeException error) {
+        return new GatewayResult(null, error);
+    }
+
+    public boolean isApproved() {
+        return error == null;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public RuntimeException getError() {
+        return error;
+    }
+}
@@ -0,0 +1,8 @@
+package com.jun.paymentservice.gateway;
+
+public class PaymentDeclinedException extends RuntimeException {
+
+    public PaymentDeclinedException(String message) {
+        super(message);
+    }
+}
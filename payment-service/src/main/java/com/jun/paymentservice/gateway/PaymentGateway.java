@@ -0,0 +1,52 @@
+package com.jun.paymentservice.gateway;
+
+import com.jun.paymentservice.dto.PaymentRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 외부 결제 대행사(PG) 연동 SPI. 구현은 payment.gateway.type 으로 고른다.
+ * 호출은 블로킹이어도 된다 — {@link com.jun.paymentservice.service.PaymentGatewayClient} 가 결제 전용 가상 스레드에서 실행하고
+ * 서킷브레이커/재시도/타임리미터를 씌운다.
+ * 타임아웃은 PG 가 이미 승인한 뒤에도 날 수 있으므로 모든 호출에 멱등키(결제 id)를 넘긴다.
+ * 구현은 같은 키로 다시 들어온 요청을 새로 승인하지 말고 처음 결과를 그대로 돌려줘야 한다.
+ */
+public interface PaymentGateway {
+
+    /**
+     * 결제를 승인하고 PG 거래 id 를 돌려준다. 같은 idempotencyKey 로 다시 호출하면 같은 거래 id 를 돌려준다.
+     *
+     * @throws PaymentDeclinedException 카드사/PG 가 거절한 경우. 재시도하지 않으며 서킷브레이커 실패로 세지 않는다.
+     * @throws PaymentGatewayException  PG 오류나 응답 지연. 재시도 대상이다.
+     */
+    String authorize(String idempotencyKey, PaymentRequest paymentRequest);
+
+    /**
+     * 멱등키로 처리된 결제의 결과를 조회한다. 응답을 잃어버린 승인(타임아웃, 재시도 소진)을 나중에 확정할 때 쓴다.
+     *
+     * @return 승인이면 거래 id, 거절이면 거절 예외를 담은 결과. PG 가 이 키를 받은 적이 없으면 empty
+     * @throws PaymentGatewayException PG 오류. 결과를 알 수 없으므로 나중에 다시 조회한다.
+     */
+    Optional<GatewayResult> inquire(String idempotencyKey);
+
+    /**
+     * 여러 결제를 한 번에 승인한다. 결과는 요청과 같은 순서다.
+     * 배치 API 가 있는 구현은 한 번의 호출로 처리하고, 배치 전체가 실패하면(PG 오류, 타임아웃) 예외를 던진다.
+     * 타임아웃된 배치는 PG 쪽에서 일부 또는 전부 승인됐을 수 있다. 건별 멱등키 덕분에 배치를 통째로 재시도해도
+     * 이미 승인된 건은 같은 거래 id 로 돌아올 뿐 다시 청구되지 않는다.
+     * 기본 구현은 건별로 호출하며 건별 실패를 결과에 담고 예외를 던지지 않는다.
+     */
+    default List<GatewayResult> authorizeAll(List<AuthorizationRequest> requests) {
+        List<GatewayResult> results = new ArrayList<>(requests.size());
+        for (AuthorizationRequest request : requests) {
+            try {
+                results.add(GatewayResult.approved(authorize(request.getIdempotencyKey(), request.getPaymentRequest())));
+            } catch (RuntimeException e) {
+                results.add(GatewayResult.failed(e));
+            }
+        }
+        return results;
+    }
+}
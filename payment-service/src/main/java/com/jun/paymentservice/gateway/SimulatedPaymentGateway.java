@@ -0,0 +1,147 @@
+package com.jun.paymentservice.gateway;
+
+import com.jun.paymentservice.config.PaymentGatewayProperties;
+import com.jun.paymentservice.dto.PaymentRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * 실제 PG 대신 쓰는 로컬 시뮬레이터. 부하 테스트와 벤치마크에서 실제와 비슷한 지연 분포, 오류 폭주, 타임아웃을 재현한다.
+ * <ul>
+ *     <li>지연: p50/p99 를 지나는 로그정규분포. spike-rate 확률로 spike-latency 가 더해진다.</li>
+ *     <li>hang: hang-rate 확률로 hang-duration 동안 응답이 없다가 실패한다 (소켓 read timeout).
+ *     PG 쪽에서는 이미 승인됐고 응답만 잃어버린 경우로 본다.</li>
+ *     <li>오류: 평소에는 failure-rate, error-burst 구간에는 error-burst.failure-rate 로 PG 오류를 낸다.</li>
+ *     <li>거절: decline-rate 확률로 카드 거절. 재시도/서킷브레이커 대상이 아니다.</li>
+ *     <li>멱등성: 처리한 멱등키의 결과(승인 거래 id 또는 거절)를 기억해 같은 키의 재요청과 조회에 그대로 돌려준다.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway.type", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    // 표준정규분포의 99 백분위수
+    private static final double Z_99 = 2.3263478740408408;
+    // 기억해 둘 멱등키 수. 재시도 구간 동안만 남아 있으면 된다
+    private static final int MAX_REMEMBERED_KEYS = 100_000;
+
+    private final PaymentGatewayProperties.Simulator config;
+    private final double mu;
+    private final double sigma;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, GatewayResult> processed = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, GatewayResult> eldest) {
+                    return size() > MAX_REMEMBERED_KEYS;
+                }
+            });
+
+    public SimulatedPaymentGateway(PaymentGatewayProperties properties) {
+        this.config = properties.getSimulator();
+        double p50 = Math.max(1, config.getP50().toNanos());
+        double p99 = Math.max(p50, config.getP99().toNanos());
+        this.mu = Math.log(p50);
+        this.sigma = (Math.log(p99) - Math.log(p50)) / Z_99;
+    }
+
+    @Override
+    public String authorize(String idempotencyKey, PaymentRequest paymentRequest) {
+        RandomGenerator random = ThreadLocalRandom.current();
+        roundTrip(random, () -> process(idempotencyKey, random));
+        GatewayResult result = process(idempotencyKey, random);
+        if (!result.isApproved()) {
+            throw result.getError();
+        }
+        return result.getTransactionId();
+    }
+
+    // 배치 API 를 흉내 낸다: 왕복 한 번의 지연과 오류는 배치 전체에, 거절은 건별로 적용한다
+    @Override
+    public List<GatewayResult> authorizeAll(List<AuthorizationRequest> requests) {
+        RandomGenerator random = ThreadLocalRandom.current();
+        roundTrip(random, () -> requests.forEach(request -> process(request.getIdempotencyKey(), random)));
+
+        List<GatewayResult> results = new ArrayList<>(requests.size());
+        for (AuthorizationRequest request : requests) {
+            results.add(process(request.getIdempotencyKey(), random));
+        }
+        return results;
+    }
+
+    // 조회는 승인과 같은 지연/오류 분포를 따른다. 처리한 적 없는 키(처리 전에 PG 오류로 끝난 요청)는 empty 다
+    @Override
+    public Optional<GatewayResult> inquire(String idempotencyKey) {
+        RandomGenerator random = ThreadLocalRandom.current();
+        sleep(sampleLatency(random));
+        if (random.nextDouble() < failureRate(System.nanoTime())) {
+            throw new PaymentGatewayException("Payment gateway error");
+        }
+        return Optional.ofNullable(processed.get(idempotencyKey));
+    }
+
+    // hang 은 PG 가 요청을 처리한 뒤 응답이 유실된 경우다. PG 오류는 처리 전에 실패한 것으로 본다
+    private void roundTrip(RandomGenerator random, Runnable processRequest) {
+        if (random.nextDouble() < config.getHangRate()) {
+            processRequest.run();
+            sleep(config.getHangDuration());
+            throw new PaymentGatewayException("Payment gateway read timed out");
+        }
+
+        sleep(sampleLatency(random));
+
+        if (random.nextDouble() < failureRate(System.nanoTime())) {
+            throw new PaymentGatewayException("Payment gateway error");
+        }
+    }
+
+    // 같은 멱등키는 처음 결과를 그대로 돌려준다
+    private GatewayResult process(String idempotencyKey, RandomGenerator random) {
+        return processed.computeIfAbsent(idempotencyKey, key -> decide(random));
+    }
+
+    private GatewayResult decide(RandomGenerator random) {
+        if (random.nextDouble() < config.getDeclineRate()) {
+            return GatewayResult.failed(new PaymentDeclinedException("Payment declined by card issuer"));
+        }
+        return GatewayResult.approved("SIM-" + UUID.randomUUID());
+    }
+
+    Duration sampleLatency(RandomGenerator random) {
+        long nanos = (long) Math.exp(mu + sigma * random.nextGaussian());
+        if (random.nextDouble() < config.getSpikeRate()) {
+            nanos += config.getSpikeLatency().toNanos();
+        }
+        return Duration.ofNanos(nanos);
+    }
+
+    double failureRate(long nowNanos) {
+        PaymentGatewayProperties.ErrorBurst burst = config.getErrorBurst();
+        long every = burst.getEvery().toNanos();
+        // 기동 직후(워밍업)가 아니라 매 주기의 끝에 폭주 구간을 둔다
+        if (every > 0 && (nowNanos - startNanos) % every >= every - burst.getDuration().toNanos()) {
+            return burst.getFailureRate();
+        }
+        return config.getFailureRate();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Payment gateway call interrupted");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.jun.paymentservice.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUIDv7 (RFC 9562) 생성기. 상위 48비트가 unix ms, 다음 12비트가 같은 ms 안의 순번이라 한 프로세스 안에서는
+ * 생성 순서대로 정렬되고, 인덱스에는 항상 오른쪽 끝에 추가된다. 나머지 62비트는 난수라 인스턴스 간 조율(노드 id)이 필요 없다.
+ */
+public final class TimeOrderedUuid {
+
+    private static final int SEQUENCE_BITS = 12;
+
+    // (unix ms << 12) | 순번
+    private static final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    private TimeOrderedUuid() {}
+
+    public static UUID next() {
+        long now = System.currentTimeMillis();
+        long last;
+        long next;
+        do {
+            last = lastTimestampAndSequence.get();
+            // 같은 ms 이거나 시계가 뒤로 가면 순번을 올린다. 순번이 넘치면 자연스럽게 다음 ms 로 올라간다.
+            next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+        } while (!lastTimestampAndSequence.compareAndSet(last, next));
+
+        long mostSigBits = (next >>> SEQUENCE_BITS) << 16
+                | 0x7000L
+                | (next & ((1L << SEQUENCE_BITS) - 1));
+        long leastSigBits = ThreadLocalRandom.current().nextLong() >>> 2 | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    public static String nextString() {
+        return next().toString();
+    }
+}
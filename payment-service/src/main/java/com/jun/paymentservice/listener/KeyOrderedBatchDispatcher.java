@@ -0,0 +1,133 @@
+package com.jun.paymentservice.listener;
+
+import com.jun.paymentservice.event.EventHeaders;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * 배치 리스너가 한 번의 poll 로 받은 레코드를 키(orderId)별로 묶어, 같은 키는 오프셋 순서대로 하나씩,
+ * 서로 다른 키는 가상 스레드에서 동시에 처리한다. 모든 레코드가 끝난 뒤에 반환하므로 오프셋은 배치 전체를 처리한 다음 커밋된다.
+ * 처리 전에 {@link ProcessedEventStore} 로 이미 처리한 event-id 를 걸러내 재전달된 이벤트는 핸들러에 넘기지 않고,
+ * 핸들러가 끝난 레코드만 배치 끝에 한 번에 DONE 으로 기록한다.
+ * <p>
+ * 핸들러가 실패하면 그 키의 남은 레코드는 처리하지 않고(순서 유지), 다른 키가 끝나기를 기다린 뒤 배치에서 가장 앞선
+ * 실패 레코드로 {@link BatchListenerFailedException} 을 던진다. 컨테이너의 에러 핸들러가 그 앞까지만 커밋하고
+ * 실패한 레코드부터 다시 받으며, 그 사이 이미 처리된 레코드는 DONE 마커로 걸러진다.
+ */
+@Component
+public class KeyOrderedBatchDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyOrderedBatchDispatcher.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ProcessedEventStore processedEventStore;
+
+    public KeyOrderedBatchDispatcher(ProcessedEventStore processedEventStore) {
+        this.processedEventStore = processedEventStore;
+    }
+
+    /**
+     * @param consumer 중복 판정 범위. 같은 이벤트를 여러 컨슈머 그룹이 받으므로 보통 groupId 를 넘긴다.
+     */
+    public <V> void dispatch(String consumer, List<ConsumerRecord<String, V>> records, Consumer<V> handler) {
+        records = processedEventStore.unprocessed(consumer, records);
+        if (records.isEmpty()) {
+            return;
+        }
+        Queue<String> done = new ConcurrentLinkedQueue<>();
+        Map<ConsumerRecord<String, V>, Exception> failures = new ConcurrentHashMap<>();
+        if (records.size() == 1) {
+            handle(consumer, records, handler, done, failures);
+            complete(consumer, records, done, failures);
+            return;
+        }
+
+        Map<String, List<ConsumerRecord<String, V>>> recordsByKey = new LinkedHashMap<>();
+        for (ConsumerRecord<String, V> record : records) {
+            // 키가 없는 레코드끼리는 순서 제약이 없다
+            String key = record.key() != null
+                    ? record.key()
+                    : record.topic() + "-" + record.partition() + "@" + record.offset();
+            recordsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(record);
+        }
+
+        List<Future<?>> futures = new ArrayList<>(recordsByKey.size());
+        for (List<ConsumerRecord<String, V>> sameKey : recordsByKey.values()) {
+            futures.add(executor.submit(() -> handle(consumer, sameKey, handler, done, failures)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while dispatching Kafka batch", e);
+            } catch (ExecutionException e) {
+                // handle() 이 핸들러 예외를 failures 로 모으므로 여기까지 오지 않는다
+                logger.error("Unexpected failure while dispatching Kafka batch", e.getCause());
+            }
+        }
+        complete(consumer, records, done, failures);
+    }
+
+    /**
+     * 같은 키의 레코드를 순서대로 처리한다. 하나가 실패하면 뒤의 레코드는 건너뛰고 PROCESSING 마커를 풀어
+     * 재전달 때 다시 처리되게 한다.
+     */
+    private <V> void handle(String consumer, List<ConsumerRecord<String, V>> sameKey, Consumer<V> handler,
+                            Queue<String> done, Map<ConsumerRecord<String, V>, Exception> failures) {
+        for (int i = 0; i < sameKey.size(); i++) {
+            ConsumerRecord<String, V> record = sameKey.get(i);
+            try {
+                handler.accept(record.value());
+                String eventId = EventHeaders.eventId(record);
+                if (eventId != null) {
+                    done.add(eventId);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to handle {} record (key={}, offset={}), skipping {} later record(s) of the key: {}",
+                        record.topic(), record.key(), record.offset(), sameKey.size() - i - 1, e.getMessage());
+                failures.put(record, e);
+                sameKey.subList(i, sameKey.size()).forEach(skipped -> processedEventStore.release(consumer, skipped));
+                return;
+            }
+        }
+    }
+
+    private <V> void complete(String consumer, List<ConsumerRecord<String, V>> records, Queue<String> done,
+                              Map<ConsumerRecord<String, V>, Exception> failures) {
+        processedEventStore.markDone(consumer, done);
+        if (failures.isEmpty()) {
+            return;
+        }
+        // 배치 순서상 가장 앞선 실패부터 다시 받아야 그 앞의 레코드만 커밋된다
+        for (ConsumerRecord<String, V> record : records) {
+            Exception failure = failures.get(record);
+            if (failure != null) {
+                throw new BatchListenerFailedException("Failed to handle " + record.topic() + " record (key="
+                        + record.key() + ", offset=" + record.offset() + ")", failure, record);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
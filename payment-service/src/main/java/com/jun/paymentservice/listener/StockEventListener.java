@@ -1,21 +1,27 @@
 package com.jun.paymentservice.listener;
 
+import com.jun.paymentservice.config.KafkaConfig;
 import com.jun.paymentservice.event.PaymentCompletedEvent;
 import com.jun.paymentservice.event.PaymentFailedEvent;
 import com.jun.paymentservice.event.StockReservedEvent;
+import com.jun.paymentservice.id.TimeOrderedUuid;
 import com.jun.paymentservice.service.PaymentEventPublisher;
 import com.jun.paymentservice.service.PaymentService;
 import com.jun.paymentservice.dto.PaymentRequest;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 
 @Component
 public class StockEventListener {
 
+    private static final String GROUP = "payment-service-group";
+
     @Autowired
     private PaymentService paymentService;
 
@@ -25,8 +31,23 @@ public class StockEventListener {
     @Autowired
     private RestTemplate restTemplate;
 
-    @KafkaListener(topics = "stock-reserved", groupId = "payment-service-group")
-    public void handleStockReserved(StockReservedEvent stockReservedEvent) {
+    @Autowired
+    private KeyOrderedBatchDispatcher batchDispatcher;
+
+    // 결제는 주문 조회와 PG 호출을 포함하므로 배치를 한 트랜잭션으로 묶지 않고, 주문별 순서만 지키며 병렬로 처리한다
+    @KafkaListener(topics = "stock-reserved", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handleStockReservedBatch(List<ConsumerRecord<String, StockReservedEvent>> records) {
+        batchDispatcher.dispatch(GROUP, records, this::handleStockReserved);
+    }
+
+    @KafkaListener(topics = "stock-reservation-failed", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handleStockReservationFailedBatch(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        batchDispatcher.dispatch(GROUP, records, this::handleStockReservationFailed);
+    }
+
+    private void handleStockReserved(StockReservedEvent stockReservedEvent) {
         try {
             String orderId = stockReservedEvent.getOrderId();
             System.out.println("Received stock reserved event for order: " + orderId +
@@ -49,14 +70,13 @@ public class StockEventListener {
         }
     }
 
-    @KafkaListener(topics = "stock-reservation-failed", groupId = "payment-service-group")
-    public void handleStockReservationFailed(Map<String, Object> stockData) {
+    private void handleStockReservationFailed(Map<String, Object> stockData) {
         try {
             String orderId = (String) stockData.get("orderId");
             String reason = (String) stockData.get("reason");
 
             eventPublisher.publishPaymentFailed(new PaymentFailedEvent(
-                java.util.UUID.randomUUID().toString(),
+                TimeOrderedUuid.nextString(),
                 orderId,
                 0L, // userId를 임시로 0으로 설정 (실제 구현에서는 주문 정보를 조회해야 함)
                 BigDecimal.ZERO,
@@ -70,8 +90,8 @@ public class StockEventListener {
 
     private PaymentRequest createPaymentRequest(String orderId) {
         try {
-            // 게이트웨이를 통해 주문 정보 조회
-            String orderUrl = "http://localhost:8080/api/orders/" + orderId;
+            // order-service 로 직접 주문 정보 조회
+            String orderUrl = "/api/orders/" + orderId;
             @SuppressWarnings("unchecked")
             Map<String, Object> orderResponse = restTemplate.getForObject(orderUrl, Map.class);
 
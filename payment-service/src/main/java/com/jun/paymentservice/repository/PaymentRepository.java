@@ -1,6 +1,8 @@
 package com.jun.paymentservice.repository;
 
+import com.jun.paymentservice.dto.PaymentDto;
 import com.jun.paymentservice.entity.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,8 +23,25 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    // 목록 페이지는 엔티티 대신 DTO 로 바로 조회해 gateway_response(TEXT) 와 영속성 컨텍스트 관리를 피한다
+    @Query("SELECT new com.jun.paymentservice.dto.PaymentDto(p.id, p.paymentId, p.orderId, p.userId, p.amount, p.paymentMethod, p.status, p.transactionId, p.failureReason, p.refundReason, p.refundedAmount, p.flashSalePayment, p.createdAt, p.updatedAt, p.processedAt) " +
+           "FROM Payment p WHERE p.userId = :userId ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentDto> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.jun.paymentservice.dto.PaymentDto(p.id, p.paymentId, p.orderId, p.userId, p.amount, p.paymentMethod, p.status, p.transactionId, p.failureReason, p.refundReason, p.refundedAmount, p.flashSalePayment, p.createdAt, p.updatedAt, p.processedAt) " +
+           "FROM Payment p WHERE p.userId = :userId " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentDto> findPageByUserIdBefore(@Param("userId") Long userId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
     List<Payment> findByStatus(Payment.PaymentStatus status);
 
+    // 결과를 반영하지 못한 채 오래 남은 결제 (PaymentReconciler)
+    List<Payment> findByStatusAndUpdatedAtBeforeOrderByIdAsc(Payment.PaymentStatus status, LocalDateTime before, Pageable pageable);
+
     @Query("SELECT p FROM Payment p WHERE p.flashSalePayment = true AND p.status = 'COMPLETED'")
     List<Payment> findCompletedFlashSalePayments();
 
@@ -1,19 +1,33 @@
 package com.jun.paymentservice.saga;
 
+import com.jun.paymentservice.event.EventHeaders;
+import com.jun.paymentservice.listener.ProcessedEventStore;
 import com.jun.paymentservice.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import java.util.Map;
 
 @Component
 public class PaymentCompensationHandler {
 
+    private static final String GROUP = "payment-service-compensation-group";
+
     @Autowired
     private PaymentService paymentService;
 
-    @KafkaListener(topics = "compensate-payment", groupId = "payment-service-compensation-group")
-    public void handlePaymentCompensation(Map<String, Object> compensationData) {
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    @KafkaListener(topics = "compensate-payment", groupId = GROUP)
+    public void handlePaymentCompensation(@Payload Map<String, Object> compensationData,
+                                          @Header(name = EventHeaders.EVENT_ID, required = false) String eventId) {
+        if (!processedEventStore.claim(GROUP, eventId)) {
+            System.out.println("Skipping duplicate payment compensation: " + eventId);
+            return;
+        }
         try {
             String paymentId = (String) compensationData.get("paymentId");
             String orderId = (String) compensationData.get("orderId");
@@ -22,7 +36,10 @@ public class PaymentCompensationHandler {
             System.out.println("Processing payment compensation for payment: " + paymentId + ", order: " + orderId);
 
             // 실제 결제 환불 처리
-            Long userId = getUserIdFromPayment(paymentId); // 실제 구현에서는 결제 정보에서 userId 조회
+            // 주문 서비스가 보내는 요청에는 userId 가 들어 있다
+            Long userId = compensationData.get("userId") instanceof Number number
+                    ? number.longValue()
+                    : getUserIdFromPayment(paymentId);
             boolean refunded = paymentService.refundPayment(paymentId, reason, userId);
 
             if (refunded) {
@@ -30,14 +47,21 @@ public class PaymentCompensationHandler {
             } else {
                 System.err.println("Payment compensation failed for payment: " + paymentId);
             }
+            processedEventStore.markDone(GROUP, eventId);
 
         } catch (Exception e) {
             System.err.println("Failed to handle payment compensation: " + e.getMessage());
+            processedEventStore.release(GROUP, eventId);
         }
     }
 
-    @KafkaListener(topics = "order-cancelled", groupId = "payment-service-compensation-group")
-    public void handleOrderCancelledCompensation(Map<String, Object> orderData) {
+    @KafkaListener(topics = "order-cancelled", groupId = GROUP)
+    public void handleOrderCancelledCompensation(@Payload Map<String, Object> orderData,
+                                                 @Header(name = EventHeaders.EVENT_ID, required = false) String eventId) {
+        if (!processedEventStore.claim(GROUP, eventId)) {
+            System.out.println("Skipping duplicate order cancelled compensation: " + eventId);
+            return;
+        }
         try {
             String orderId = (String) orderData.get("orderId");
             Long userId = ((Number) orderData.get("userId")).longValue();
@@ -58,9 +82,11 @@ public class PaymentCompensationHandler {
                     }
                 }
             }
+            processedEventStore.markDone(GROUP, eventId);
 
         } catch (Exception e) {
             System.err.println("Failed to handle order cancelled compensation: " + e.getMessage());
+            processedEventStore.release(GROUP, eventId);
         }
     }
 
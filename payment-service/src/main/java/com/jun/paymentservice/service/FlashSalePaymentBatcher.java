@@ -0,0 +1,237 @@
+package com.jun.paymentservice.service;
+
+import com.jun.paymentservice.config.PaymentExecutorConfig;
+import com.jun.paymentservice.dto.PaymentDto;
+import com.jun.paymentservice.dto.PaymentRequest;
+import com.jun.paymentservice.entity.Payment;
+import com.jun.paymentservice.gateway.AuthorizationRequest;
+import com.jun.paymentservice.gateway.GatewayResult;
+import com.jun.paymentservice.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 플래시 세일 결제를 linger-ms 또는 max-batch-size 까지 모아 한 번에 승인한다.
+ * 배치마다 PROCESSING 저장(JDBC 배치 INSERT), PG 배치 호출, 결과 반영과 이벤트 기록(JDBC 배치 UPDATE/INSERT)이 한 번씩 일어나므로
+ * 세일 중 결제 건수만큼 트랜잭션과 PG 왕복이 늘지 않는다. 호출자는 자기 결제의 결과를 future 로 받는다.
+ */
+@Component
+public class FlashSalePaymentBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSalePaymentBatcher.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentRecorder paymentRecorder;
+    private final PaymentGatewayClient gatewayClient;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long lingerMs;
+    // linger 주기는 전용 스레드로 돈다. 기본 스케줄러 스레드는 outbox 릴레이 등이 함께 써서 수 초씩 밀릴 수 있다
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("flash-sale-capture-flush").daemon().factory());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<PendingPayment> pending = new ArrayList<>();
+
+    public FlashSalePaymentBatcher(PaymentRepository paymentRepository,
+                                   PaymentRecorder paymentRecorder,
+                                   PaymentGatewayClient gatewayClient,
+                                   TransactionTemplate transactionTemplate,
+                                   @Qualifier(PaymentExecutorConfig.PAYMENT_EXECUTOR) ExecutorService executor,
+                                   @Value("${payment.flash-sale-capture.enabled:true}") boolean enabled,
+                                   @Value("${payment.flash-sale-capture.max-batch-size:50}") int maxBatchSize,
+                                   @Value("${payment.flash-sale-capture.linger-ms:20}") long lingerMs) {
+        this.paymentRepository = paymentRepository;
+        this.paymentRecorder = paymentRecorder;
+        this.gatewayClient = gatewayClient;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMs = lingerMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            flushScheduler.scheduleWithFixedDelay(this::flushSafely, lingerMs, lingerMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+    }
+
+    public boolean accepts(PaymentRequest paymentRequest) {
+        return enabled && Boolean.TRUE.equals(paymentRequest.getFlashSalePayment());
+    }
+
+    /**
+     * 결제 건은 여기서 만들어 검증한다. 잘못된 요청(알 수 없는 결제 수단 등)은 배치에 들어가지 않고 이 호출자만 실패한다.
+     */
+    public CompletableFuture<PaymentDto> submit(PaymentRequest paymentRequest, Long userId) {
+        PendingPayment payment;
+        try {
+            payment = new PendingPayment(paymentRequest, paymentRecorder.newPayment(paymentRequest, userId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        List<PendingPayment> full = null;
+        lock.lock();
+        try {
+            pending.add(payment);
+            if (pending.size() >= maxBatchSize) {
+                full = drain();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            List<PendingPayment> batch = full;
+            executor.execute(() -> capture(batch));
+        }
+        return payment.result;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // 예외가 나가면 이후 주기가 취소된다
+            logger.error("Failed to flush flash-sale payments: {}", e.getMessage());
+        }
+    }
+
+    public void flush() {
+        List<PendingPayment> batch;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        } finally {
+            lock.unlock();
+        }
+        executor.execute(() -> capture(batch));
+    }
+
+    private List<PendingPayment> drain() {
+        List<PendingPayment> batch = pending;
+        pending = new ArrayList<>(maxBatchSize);
+        return batch;
+    }
+
+    private void capture(List<PendingPayment> queued) {
+        List<PendingPayment> batch = save(queued);
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Payment> payments = batch.stream().map(pending -> pending.payment).collect(Collectors.toList());
+
+        List<AuthorizationRequest> requests = batch.stream()
+                .map(pending -> new AuthorizationRequest(pending.payment.getPaymentId(), pending.request))
+                .collect(Collectors.toList());
+        gatewayClient.authorizeAll(requests)
+                .handleAsync((results, error) -> {
+                    complete(batch, payments, results, error);
+                    return null;
+                }, executor);
+    }
+
+    /**
+     * 배치를 한 번의 saveAll 로 PROCESSING 저장한다. 실패하면 한 건씩 다시 저장해 문제가 된 결제의 호출자만 실패시킨다.
+     *
+     * @return 저장된 결제
+     */
+    private List<PendingPayment> save(List<PendingPayment> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    paymentRepository.saveAll(batch.stream().map(pending -> pending.payment).collect(Collectors.toList())));
+            return batch;
+        } catch (Exception e) {
+            logger.warn("Failed to save {} flash-sale payments at once, retrying one by one: {}", batch.size(), e.getMessage());
+        }
+
+        List<PendingPayment> saved = new ArrayList<>(batch.size());
+        for (PendingPayment pending : batch) {
+            // 롤백된 배치에서 시퀀스로 받은 id 는 버리고 새로 INSERT 한다
+            pending.payment.setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> paymentRepository.save(pending.payment));
+                saved.add(pending);
+            } catch (Exception e) {
+                logger.error("Failed to save flash-sale payment for order {}: {}", pending.payment.getOrderId(), e.getMessage());
+                pending.result.completeExceptionally(e);
+            }
+        }
+        return saved;
+    }
+
+    private void complete(List<PendingPayment> batch, List<Payment> payments, List<GatewayResult> results, Throwable error) {
+        try {
+            List<PaymentDto> completed = transactionTemplate.execute(status -> {
+                // 한 번의 IN 조회로 다시 읽어 변경 감지로 UPDATE 를 배치한다 (detached 병합은 건마다 SELECT 가 나간다)
+                Map<Long, Payment> managed = paymentRepository.findAllById(
+                                payments.stream().map(Payment::getId).collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.toMap(Payment::getId, Function.identity()));
+
+                List<Payment> updated = new ArrayList<>(payments.size());
+                for (int i = 0; i < payments.size(); i++) {
+                    Payment payment = managed.get(payments.get(i).getId());
+                    if (error != null) {
+                        paymentRecorder.applyResult(payment, null, error);
+                    } else {
+                        GatewayResult result = results.get(i);
+                        paymentRecorder.applyResult(payment, result.getTransactionId(), result.getError());
+                    }
+                    updated.add(payment);
+                }
+                paymentRepository.flush();
+                return updated.stream().map(PaymentDto::new).collect(Collectors.toList());
+            });
+
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(completed.get(i));
+            }
+            logger.debug("Captured {} flash-sale payments in one batch", batch.size());
+        } catch (Exception e) {
+            // 결과를 반영하지 못한 결제는 PROCESSING 으로 남는다 (단건 결제의 완료 트랜잭션 실패와 같다)
+            logger.error("Failed to record results of {} flash-sale payments: {}", batch.size(), e.getMessage());
+            batch.forEach(queued -> queued.result.completeExceptionally(e));
+        }
+    }
+
+    private static class PendingPayment {
+        private final PaymentRequest request;
+        private final Payment payment;
+        private final CompletableFuture<PaymentDto> result = new CompletableFuture<>();
+
+        private PendingPayment(PaymentRequest request, Payment payment) {
+            this.request = request;
+            this.payment = payment;
+        }
+    }
+}
@@ -2,8 +2,8 @@ package com.jun.paymentservice.service;
 
 import com.jun.paymentservice.event.PaymentCompletedEvent;
 import com.jun.paymentservice.event.PaymentFailedEvent;
+import com.jun.paymentservice.service.outbox.OutboxAppender;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,11 +13,11 @@ public class PaymentEventPublisher {
     private static final String PAYMENT_FAILED_TOPIC = "payment-failed";
 
     @Autowired
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private OutboxAppender outboxAppender;
 
     public void publishPaymentCompleted(PaymentCompletedEvent event) {
         try {
-            kafkaTemplate.send(PAYMENT_COMPLETED_TOPIC, event.getOrderId(), event);
+            outboxAppender.append(PAYMENT_COMPLETED_TOPIC, event.getOrderId(), event);
         } catch (Exception e) {
             System.err.println("Failed to publish PaymentCompletedEvent: " + e.getMessage());
             throw new RuntimeException("Event publishing failed", e);
@@ -26,7 +26,7 @@ public class PaymentEventPublisher {
 
     public void publishPaymentFailed(PaymentFailedEvent event) {
         try {
-            kafkaTemplate.send(PAYMENT_FAILED_TOPIC, event.getOrderId(), event);
+            outboxAppender.append(PAYMENT_FAILED_TOPIC, event.getOrderId(), event);
         } catch (Exception e) {
             System.err.println("Failed to publish PaymentFailedEvent: " + e.getMessage());
             throw new RuntimeException("Event publishing failed", e);
@@ -0,0 +1,92 @@
+package com.jun.paymentservice.service;
+
+import com.jun.paymentservice.config.PaymentExecutorConfig;
+import com.jun.paymentservice.config.PaymentGatewayProperties;
+import com.jun.paymentservice.dto.PaymentRequest;
+import com.jun.paymentservice.gateway.AuthorizationRequest;
+import com.jun.paymentservice.gateway.GatewayResult;
+import com.jun.paymentservice.gateway.PaymentGateway;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 외부 결제 API 호출. PaymentService 에서 분리해 프록시를 거치게 하므로 서킷브레이커/재시도/타임리미터가 실제로 적용된다.
+ * 호출은 공용 ForkJoinPool 대신 결제 전용 가상 스레드에서 실행하고, 동시에 나가는 호출 수를 세마포어로 제한한다.
+ */
+@Component
+public class PaymentGatewayClient {
+
+    private final PaymentGateway paymentGateway;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public PaymentGatewayClient(PaymentGateway paymentGateway,
+                                @Qualifier(PaymentExecutorConfig.PAYMENT_EXECUTOR) ExecutorService executor,
+                                PaymentGatewayProperties properties) {
+        this.paymentGateway = paymentGateway;
+        this.executor = executor;
+        this.permits = new Semaphore(properties.getMaxConcurrency());
+    }
+
+    /**
+     * 타임아웃 뒤 재시도는 PG 가 이미 승인한 결제를 다시 보낼 수 있으므로 결제 id 를 멱등키로 넘긴다.
+     *
+     * @return PG 거래 id. 거절/오류/서킷 open 이면 예외로 완료된다.
+     */
+    @CircuitBreaker(name = "external-payment-api")
+    @Retry(name = "external-payment-api")
+    @TimeLimiter(name = "external-payment-api")
+    public CompletableFuture<String> authorize(String paymentId, PaymentRequest paymentRequest) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return paymentGateway.authorize(paymentId, paymentRequest);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * 결제 id(멱등키)로 PG 에 처리 결과를 조회한다. {@link PaymentReconciler} 가 자기 스레드에서 호출하므로 블로킹이다.
+     *
+     * @return PG 가 이 결제를 받은 적이 없으면 empty
+     */
+    @CircuitBreaker(name = "external-payment-api")
+    public Optional<GatewayResult> inquire(String paymentId) {
+        permits.acquireUninterruptibly();
+        try {
+            return paymentGateway.inquire(paymentId);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 결제 여러 건을 PG 배치 호출 한 번으로 승인한다. 결과는 요청 순서와 같다.
+     * 배치 전체 실패(PG 오류, 타임아웃, 서킷 open)는 예외로 완료되고, 건별 거절은 결과에 담긴다.
+     * 건마다 결제 id 를 멱등키로 넘기므로 타임아웃 뒤 배치를 재시도해도 이미 승인된 건이 이중 청구되지 않는다.
+     */
+    @CircuitBreaker(name = "external-payment-api")
+    @Retry(name = "external-payment-api")
+    @TimeLimiter(name = "external-payment-api")
+    public CompletableFuture<List<GatewayResult>> authorizeAll(List<AuthorizationRequest> requests) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return paymentGateway.authorizeAll(requests);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+}
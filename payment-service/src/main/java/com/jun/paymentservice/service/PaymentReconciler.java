@@ -0,0 +1,125 @@
+package com.jun.paymentservice.service;
+
+import com.jun.paymentservice.entity.Payment;
+import com.jun.paymentservice.gateway.GatewayResult;
+import com.jun.paymentservice.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 승인 결과를 모르는 채 PROCESSING 으로 남은 결제(타임아웃, 재시도 소진, 결과 반영 트랜잭션 실패)를 PG 에 멱등키로 조회해 확정한다.
+ * PG 가 승인했으면 COMPLETED, 거절했거나 요청을 받은 적이 없으면 FAILED 로 기록하고 해당 이벤트를 outbox 에 남긴다.
+ * 조회가 실패하면 그대로 두고 다음 주기에 다시 조회한다.
+ * 아직 응답을 기다리는 결제를 건드리지 않도록 stale-after 보다 오래된 결제만 본다.
+ */
+@Component
+public class PaymentReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciler.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentRecorder paymentRecorder;
+    private final PaymentGatewayClient gatewayClient;
+    private final TransactionTemplate transactionTemplate;
+    private final long intervalMs;
+    private final Duration staleAfter;
+    private final int batchSize;
+    // PG 조회는 블로킹이므로 기본 스케줄러 스레드 대신 전용 스레드에서 돈다
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("payment-reconciler").daemon().factory());
+
+    public PaymentReconciler(PaymentRepository paymentRepository,
+                             PaymentRecorder paymentRecorder,
+                             PaymentGatewayClient gatewayClient,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${payment.reconcile.interval-ms:30000}") long intervalMs,
+                             @Value("${payment.reconcile.stale-after:2m}") Duration staleAfter,
+                             @Value("${payment.reconcile.batch-size:100}") int batchSize) {
+        this.paymentRepository = paymentRepository;
+        this.paymentRecorder = paymentRecorder;
+        this.gatewayClient = gatewayClient;
+        this.transactionTemplate = transactionTemplate;
+        this.intervalMs = intervalMs;
+        this.staleAfter = staleAfter;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::reconcileSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            // 예외가 나가면 이후 주기가 취소된다
+            logger.error("Failed to reconcile unsettled payments: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return 확정한 결제 수
+     */
+    public int reconcile() {
+        List<Payment> unsettled = paymentRepository.findByStatusAndUpdatedAtBeforeOrderByIdAsc(
+                Payment.PaymentStatus.PROCESSING, LocalDateTime.now().minus(staleAfter), PageRequest.of(0, batchSize));
+        int settled = 0;
+        for (Payment payment : unsettled) {
+            if (settle(payment)) {
+                settled++;
+            }
+        }
+        if (settled > 0) {
+            logger.info("Settled {} of {} unsettled payments", settled, unsettled.size());
+        }
+        return settled;
+    }
+
+    private boolean settle(Payment payment) {
+        Optional<GatewayResult> result;
+        try {
+            result = gatewayClient.inquire(payment.getPaymentId());
+        } catch (Exception e) {
+            logger.warn("Failed to inquire payment {} from the gateway, will retry: {}", payment.getPaymentId(), e.getMessage());
+            return false;
+        }
+
+        Boolean settled = transactionTemplate.execute(status -> {
+            // 조회하는 사이 다른 경로에서 확정됐으면 건드리지 않는다
+            Payment current = paymentRepository.findById(payment.getId()).orElse(null);
+            if (current == null || current.getStatus() != Payment.PaymentStatus.PROCESSING) {
+                return false;
+            }
+            if (result.isEmpty()) {
+                paymentRecorder.fail(current, "Payment was not received by the gateway");
+            } else if (result.get().isApproved()) {
+                paymentRecorder.complete(current, result.get().getTransactionId());
+            } else {
+                paymentRecorder.fail(current, result.get().getError().getMessage());
+            }
+            paymentRepository.save(current);
+            return true;
+        });
+        return Boolean.TRUE.equals(settled);
+    }
+}
@@ -0,0 +1,109 @@
+package com.jun.paymentservice.service;
+
+import com.jun.paymentservice.dto.PaymentRequest;
+import com.jun.paymentservice.entity.Payment;
+import com.jun.paymentservice.event.PaymentCompletedEvent;
+import com.jun.paymentservice.event.PaymentFailedEvent;
+import com.jun.paymentservice.gateway.PaymentDeclinedException;
+import com.jun.paymentservice.id.TimeOrderedUuid;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 결제 건 생성과 PG 결과 반영(상태 변경 + outbox 이벤트 기록). 단건 결제와 플래시 세일 배치 승인이 같이 쓴다.
+ * 저장은 호출자의 트랜잭션에서 한다.
+ * <p>
+ * 타임아웃이나 재시도 소진은 PG 가 이미 청구했을 수 있으므로 실패로 기록하지 않는다. 결제는 PROCESSING 으로 남고
+ * {@link PaymentReconciler} 가 멱등키(결제 id)로 PG 에 조회해 확정한다. 카드 거절과 PG 로 나가기 전에 막힌 호출만 FAILED 다.
+ */
+@Component
+public class PaymentRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRecorder.class);
+
+    private final PaymentEventPublisher eventPublisher;
+
+    public PaymentRecorder(PaymentEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Payment newPayment(PaymentRequest paymentRequest, Long userId) {
+        Payment payment = new Payment();
+        payment.setPaymentId(TimeOrderedUuid.nextString());
+        payment.setOrderId(paymentRequest.getOrderId());
+        payment.setUserId(userId);
+        payment.setAmount(paymentRequest.getAmount());
+        payment.setPaymentMethod(Payment.PaymentMethod.valueOf(paymentRequest.getPaymentMethod().toUpperCase()));
+        payment.setFlashSalePayment(paymentRequest.getFlashSalePayment());
+        payment.setStatus(Payment.PaymentStatus.PROCESSING);
+        return payment;
+    }
+
+    /**
+     * @param transactionId 승인된 경우 PG 거래 id
+     * @param error         승인되지 않은 경우 그 원인 (거절, PG 오류, 타임아웃, 서킷 open)
+     */
+    public void applyResult(Payment payment, String transactionId, Throwable error) {
+        if (error == null) {
+            complete(payment, transactionId);
+            return;
+        }
+        Throwable cause = unwrap(error);
+        if (isDefinitive(cause)) {
+            fail(payment, cause.getMessage());
+            return;
+        }
+        logger.warn("Authorization outcome of payment {} (order {}) is unknown, leaving it PROCESSING for reconciliation: {}",
+                payment.getPaymentId(), payment.getOrderId(), cause.getMessage());
+    }
+
+    public void complete(Payment payment, String transactionId) {
+        payment.setStatus(Payment.PaymentStatus.COMPLETED);
+        payment.setTransactionId(transactionId);
+
+        // 이벤트 발행으로 대체
+        eventPublisher.publishPaymentCompleted(new PaymentCompletedEvent(
+            payment.getPaymentId(),
+            payment.getOrderId(),
+            payment.getUserId(),
+            payment.getAmount(),
+            payment.getPaymentMethod().name(),
+            payment.getTransactionId()
+        ));
+    }
+
+    public void fail(Payment payment, String reason) {
+        payment.setStatus(Payment.PaymentStatus.FAILED);
+        payment.setFailureReason(reason);
+
+        eventPublisher.publishPaymentFailed(new PaymentFailedEvent(
+            payment.getPaymentId(),
+            payment.getOrderId(),
+            payment.getUserId(),
+            payment.getAmount(),
+            payment.getPaymentMethod().name(),
+            reason
+        ));
+    }
+
+    // 거절은 PG 가 처리한 결과이고, 서킷 open / 실행기 거부는 요청이 PG 로 나가지 않았다. 나머지는 청구 여부를 알 수 없다
+    private static boolean isDefinitive(Throwable cause) {
+        return cause instanceof PaymentDeclinedException
+                || cause instanceof CallNotPermittedException
+                || cause instanceof RejectedExecutionException;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -1,24 +1,26 @@
 package com.jun.paymentservice.service;
 
+import com.jun.paymentservice.config.PaymentExecutorConfig;
+import com.jun.paymentservice.dto.CursorPage;
 import com.jun.paymentservice.dto.PaymentDto;
 import com.jun.paymentservice.dto.PaymentRequest;
 import com.jun.paymentservice.entity.Payment;
 import com.jun.paymentservice.event.PaymentCompletedEvent;
-import com.jun.paymentservice.event.PaymentFailedEvent;
 import com.jun.paymentservice.repository.PaymentRepository;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
-import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,65 +35,52 @@ public class PaymentService {
     @Autowired
     private PaymentEventPublisher eventPublisher;
 
-    @Transactional
-    public PaymentDto processPayment(PaymentRequest paymentRequest, Long userId) {
-        // Create payment record
-        Payment payment = new Payment();
-        payment.setPaymentId(UUID.randomUUID().toString());
-        payment.setOrderId(paymentRequest.getOrderId());
-        payment.setUserId(userId);
-        payment.setAmount(paymentRequest.getAmount());
-        payment.setPaymentMethod(Payment.PaymentMethod.valueOf(paymentRequest.getPaymentMethod().toUpperCase()));
-        payment.setFlashSalePayment(paymentRequest.getFlashSalePayment());
-        payment.setStatus(Payment.PaymentStatus.PROCESSING);
-
-        Payment savedPayment = paymentRepository.save(payment);
+    @Autowired
+    private PaymentGatewayClient gatewayClient;
 
-        try {
-            String result = processPaymentWithGateway(paymentRequest).join();
+    @Autowired
+    private PaymentRecorder paymentRecorder;
 
-            if (result.startsWith("PAYMENT_SUCCESS")) {
-                savedPayment.setStatus(Payment.PaymentStatus.COMPLETED);
-                savedPayment.setTransactionId(result);
+    @Autowired
+    private FlashSalePaymentBatcher flashSaleBatcher;
 
-                // 이벤트 발행으로 대체
-                eventPublisher.publishPaymentCompleted(new PaymentCompletedEvent(
-                    savedPayment.getPaymentId(),
-                    savedPayment.getOrderId(),
-                    savedPayment.getUserId(),
-                    savedPayment.getAmount(),
-                    savedPayment.getPaymentMethod().name(),
-                    savedPayment.getTransactionId()
-                ));
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-            } else {
-                savedPayment.setStatus(Payment.PaymentStatus.FAILED);
-                savedPayment.setFailureReason("Payment gateway rejected the transaction");
-
-                eventPublisher.publishPaymentFailed(new PaymentFailedEvent(
-                    savedPayment.getPaymentId(),
-                    savedPayment.getOrderId(),
-                    savedPayment.getUserId(),
-                    savedPayment.getAmount(),
-                    savedPayment.getPaymentMethod().name(),
-                    "Payment gateway rejected the transaction"
-                ));
-            }
-        } catch (Exception e) {
-            savedPayment.setStatus(Payment.PaymentStatus.FAILED);
-            savedPayment.setFailureReason(e.getMessage());
-
-            eventPublisher.publishPaymentFailed(new PaymentFailedEvent(
-                savedPayment.getPaymentId(),
-                savedPayment.getOrderId(),
-                savedPayment.getUserId(),
-                savedPayment.getAmount(),
-                savedPayment.getPaymentMethod().name(),
-                e.getMessage()
-            ));
+    @Autowired
+    @Qualifier(PaymentExecutorConfig.PAYMENT_EXECUTOR)
+    private ExecutorService paymentExecutor;
+
+    /**
+     * 결제를 PROCESSING 으로 저장(커밋)한 뒤 커넥션 없이 PG 응답을 기다리고, 결과 반영과 이벤트 기록만 짧은 트랜잭션으로 마무리한다.
+     * 결제 처리량이 PG 응답 시간 동안 커넥션을 잡는 Hikari 풀 크기에 묶이지 않는다.
+     * 플래시 세일 결제는 {@link FlashSalePaymentBatcher} 가 모아서 한 번에 승인한다.
+     */
+    public CompletableFuture<PaymentDto> processPaymentAsync(PaymentRequest paymentRequest, Long userId) {
+        if (flashSaleBatcher.accepts(paymentRequest)) {
+            return flashSaleBatcher.submit(paymentRequest, userId);
         }
 
-        return new PaymentDto(paymentRepository.save(savedPayment));
+        Payment payment = transactionTemplate.execute(status ->
+                paymentRepository.save(paymentRecorder.newPayment(paymentRequest, userId)));
+
+        // 타임아웃은 resilience4j 스케줄러 스레드에서 완료되므로 완료 트랜잭션은 결제 실행기로 넘겨 실행한다
+        return gatewayClient.authorize(payment.getPaymentId(), paymentRequest)
+                .handleAsync((transactionId, error) -> transactionTemplate.execute(status -> {
+                    paymentRecorder.applyResult(payment, transactionId, error);
+                    return new PaymentDto(paymentRepository.save(payment));
+                }), paymentExecutor);
+    }
+
+    public PaymentDto processPayment(PaymentRequest paymentRequest, Long userId) {
+        try {
+            return processPaymentAsync(paymentRequest, userId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     public PaymentDto getPayment(String paymentId, Long userId) {
@@ -104,9 +93,19 @@ public class PaymentService {
         return payments.stream().map(PaymentDto::new).collect(Collectors.toList());
     }
 
-    public List<PaymentDto> getPaymentsByUserId(Long userId) {
-        List<Payment> payments = paymentRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return payments.stream().map(PaymentDto::new).collect(Collectors.toList());
+    // 최신순 키셋 페이지. size + 1 개를 읽어 다음 페이지 여부를 판단한다
+    public CursorPage<PaymentDto> getPaymentsByUserId(Long userId, CursorPage.Cursor cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<PaymentDto> payments = cursor == null
+                ? paymentRepository.findFirstPageByUserId(userId, limit)
+                : paymentRepository.findPageByUserIdBefore(userId, cursor.getCreatedAt(), cursor.getIdAsLong(), limit);
+
+        if (payments.size() <= size) {
+            return new CursorPage<>(payments, null);
+        }
+        PaymentDto last = payments.get(size - 1);
+        return new CursorPage<>(payments.subList(0, size),
+                new CursorPage.Cursor(last.getCreatedAt(), String.valueOf(last.getId())).encode());
     }
 
     @Transactional
@@ -157,28 +156,9 @@ public class PaymentService {
         }
     }
 
-    @CircuitBreaker(name = "external-payment-api", fallbackMethod = "fallbackPayment")
-    @Retry(name = "external-payment-api")
-    @TimeLimiter(name = "external-payment-api")
-    public CompletableFuture<String> processPaymentWithGateway(PaymentRequest paymentRequest) {
-        return CompletableFuture.supplyAsync(() -> {
-            // 외부 결제 API 호출 시뮬레이션
-            if (Math.random() > 0.8) { // 20% 실패율로 서킷브레이커 테스트
-                throw new RuntimeException("Payment gateway error");
-            }
-
-            // 결제 성공 시뮬레이션
-            return "PAYMENT_SUCCESS_" + UUID.randomUUID().toString();
-        });
-    }
-
-    public CompletableFuture<String> fallbackPayment(PaymentRequest paymentRequest, Exception ex) {
-        return CompletableFuture.completedFuture("PAYMENT_PENDING_" + paymentRequest.getOrderId());
-    }
-
     private void updateOrderStatus(String orderId, String status) {
         try {
-            String orderServiceUrl = "http://order-service:8083/api/orders/" + orderId + "/status?status=" + status;
+            String orderServiceUrl = "/api/orders/" + orderId + "/status?status=" + status;
             restTemplate.put(orderServiceUrl, null);
         } catch (Exception e) {
             // Log error but don't fail the payment
@@ -0,0 +1,82 @@
+package com.jun.paymentservice.gateway;
+
+import com.jun.paymentservice.config.PaymentGatewayProperties;
+import com.jun.paymentservice.dto.PaymentRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SimulatedPaymentGatewayTest {
+
+    @Test
+    void latencyMatchesConfiguredPercentiles() {
+        PaymentGatewayProperties properties = new PaymentGatewayProperties();
+        properties.getSimulator().setP50(Duration.ofMillis(80));
+        properties.getSimulator().setP99(Duration.ofMillis(400));
+        properties.getSimulator().setSpikeRate(0);
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(properties);
+
+        SplittableRandom random = new SplittableRandom(42);
+        long[] samples = new long[200_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = gateway.sampleLatency(random).toMillis();
+        }
+        Arrays.sort(samples);
+
+        assertThat((double) samples[samples.length / 2]).isCloseTo(80, within(4.0));
+        assertThat((double) samples[(int) (samples.length * 0.99)]).isCloseTo(400, within(20.0));
+    }
+
+    @Test
+    void errorBurstRaisesFailureRateAtEndOfEachPeriod() {
+        PaymentGatewayProperties properties = new PaymentGatewayProperties();
+        properties.getSimulator().setFailureRate(0.01);
+        properties.getSimulator().getErrorBurst().setEvery(Duration.ofSeconds(60));
+        properties.getSimulator().getErrorBurst().setDuration(Duration.ofSeconds(10));
+        properties.getSimulator().getErrorBurst().setFailureRate(0.5);
+
+        long start = System.nanoTime();
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(properties);
+        long second = Duration.ofSeconds(1).toNanos();
+
+        assertThat(gateway.failureRate(start + 5 * second)).isEqualTo(0.01);
+        assertThat(gateway.failureRate(start + 55 * second)).isEqualTo(0.5);
+        assertThat(gateway.failureRate(start + 65 * second)).isEqualTo(0.01);
+        assertThat(gateway.failureRate(start + 115 * second)).isEqualTo(0.5);
+    }
+
+    @Test
+    void retryWithSameIdempotencyKeyReturnsTheFirstApproval() {
+        PaymentGatewayProperties properties = new PaymentGatewayProperties();
+        properties.getSimulator().setP50(Duration.ofMillis(1));
+        properties.getSimulator().setP99(Duration.ofMillis(2));
+        properties.getSimulator().setSpikeRate(0);
+        properties.getSimulator().setFailureRate(0);
+        properties.getSimulator().setDeclineRate(0);
+        // 첫 호출은 PG 에서 승인된 뒤 응답을 잃어버린다
+        properties.getSimulator().setHangRate(1);
+        properties.getSimulator().setHangDuration(Duration.ofMillis(1));
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(properties);
+        PaymentRequest request = new PaymentRequest();
+
+        assertThatThrownBy(() -> gateway.authorize("payment-1", request)).isInstanceOf(PaymentGatewayException.class);
+        assertThatThrownBy(() -> gateway.authorizeAll(List.of(new AuthorizationRequest("payment-1", request),
+                new AuthorizationRequest("payment-2", request)))).isInstanceOf(PaymentGatewayException.class);
+
+        properties.getSimulator().setHangRate(0);
+        String transactionId = gateway.authorize("payment-1", request);
+        List<GatewayResult> retried = gateway.authorizeAll(List.of(new AuthorizationRequest("payment-1", request),
+                new AuthorizationRequest("payment-2", request)));
+
+        assertThat(retried.get(0).getTransactionId()).isEqualTo(transactionId);
+        assertThat(gateway.authorize("payment-2", request)).isEqualTo(retried.get(1).getTransactionId());
+        assertThat(gateway.authorize("payment-3", request)).isNotIn(transactionId, retried.get(1).getTransactionId());
+    }
+}
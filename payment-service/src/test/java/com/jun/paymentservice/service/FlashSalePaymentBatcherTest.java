@@ -0,0 +1,195 @@
+package com.jun.paymentservice.service;
+
+import com.jun.paymentservice.dto.PaymentDto;
+import com.jun.paymentservice.dto.PaymentRequest;
+import com.jun.paymentservice.entity.Payment;
+import com.jun.paymentservice.gateway.GatewayResult;
+import com.jun.paymentservice.gateway.PaymentDeclinedException;
+import com.jun.paymentservice.gateway.PaymentGatewayException;
+import com.jun.paymentservice.repository.PaymentRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlashSalePaymentBatcherTest {
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PaymentEventPublisher eventPublisher = mock(PaymentEventPublisher.class);
+    private final PaymentGatewayClient gatewayClient = mock(PaymentGatewayClient.class);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Payment> saved = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void capturesQueuedPaymentsWithOneGatewayCallAndOneSave() throws Exception {
+        givenRepository();
+        when(gatewayClient.authorizeAll(anyList())).thenReturn(CompletableFuture.completedFuture(List.of(
+                GatewayResult.approved("tx-1"),
+                GatewayResult.failed(new PaymentDeclinedException("declined")),
+                GatewayResult.approved("tx-3"))));
+        FlashSalePaymentBatcher batcher = batcher(50);
+
+        List<CompletableFuture<PaymentDto>> results = List.of(
+                batcher.submit(request("order-1"), 1L),
+                batcher.submit(request("order-2"), 2L),
+                batcher.submit(request("order-3"), 3L));
+        batcher.flush();
+
+        assertThat(results.get(0).get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("COMPLETED");
+        assertThat(results.get(1).get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("FAILED");
+        assertThat(results.get(1).get().getFailureReason()).isEqualTo("declined");
+        assertThat(results.get(2).get(5, TimeUnit.SECONDS).getTransactionId()).isEqualTo("tx-3");
+
+        verify(paymentRepository, times(1)).saveAll(anyList());
+        verify(gatewayClient, times(1)).authorizeAll(anyList());
+        verify(eventPublisher, times(2)).publishPaymentCompleted(any());
+        verify(eventPublisher, times(1)).publishPaymentFailed(any());
+    }
+
+    @Test
+    void fullBatchIsCapturedWithoutWaitingForTheWindow() throws Exception {
+        givenRepository();
+        when(gatewayClient.authorizeAll(anyList())).thenReturn(CompletableFuture.completedFuture(List.of(
+                GatewayResult.approved("tx-1"),
+                GatewayResult.approved("tx-2"))));
+        FlashSalePaymentBatcher batcher = batcher(2);
+
+        CompletableFuture<PaymentDto> first = batcher.submit(request("order-1"), 1L);
+        CompletableFuture<PaymentDto> second = batcher.submit(request("order-2"), 2L);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("COMPLETED");
+        assertThat(second.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void gatewayFailureLeavesTheBatchForReconciliation() throws Exception {
+        givenRepository();
+        // 재시도를 다 쓴 PG 오류는 PG 가 청구했는지 알 수 없다
+        when(gatewayClient.authorizeAll(anyList()))
+                .thenReturn(CompletableFuture.failedFuture(new PaymentGatewayException("Payment gateway read timed out")));
+        FlashSalePaymentBatcher batcher = batcher(2);
+
+        CompletableFuture<PaymentDto> first = batcher.submit(request("order-1"), 1L);
+        CompletableFuture<PaymentDto> second = batcher.submit(request("order-2"), 2L);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("PROCESSING");
+        assertThat(second.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("PROCESSING");
+        verify(eventPublisher, never()).publishPaymentFailed(any());
+    }
+
+    @Test
+    void openCircuitFailsTheWholeBatch() throws Exception {
+        givenRepository();
+        // 서킷이 열려 PG 로 나가지 않은 호출은 실패로 확정한다
+        when(gatewayClient.authorizeAll(anyList())).thenReturn(CompletableFuture.failedFuture(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("external-payment-api"))));
+        FlashSalePaymentBatcher batcher = batcher(2);
+
+        CompletableFuture<PaymentDto> first = batcher.submit(request("order-1"), 1L);
+        CompletableFuture<PaymentDto> second = batcher.submit(request("order-2"), 2L);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("FAILED");
+        assertThat(second.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("FAILED");
+        verify(eventPublisher, times(2)).publishPaymentFailed(any());
+    }
+
+    @Test
+    void invalidRequestFailsOnlyItsCaller() throws Exception {
+        givenRepository();
+        when(gatewayClient.authorizeAll(anyList())).thenReturn(CompletableFuture.completedFuture(List.of(
+                GatewayResult.approved("tx-1"))));
+        FlashSalePaymentBatcher batcher = batcher(50);
+        PaymentRequest unknownMethod = request("order-2");
+        unknownMethod.setPaymentMethod("BITCOIN");
+
+        CompletableFuture<PaymentDto> valid = batcher.submit(request("order-1"), 1L);
+        CompletableFuture<PaymentDto> invalid = batcher.submit(unknownMethod, 2L);
+        batcher.flush();
+
+        assertThat(invalid).isCompletedExceptionally();
+        assertThat(valid.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("COMPLETED");
+        assertThat(saved).extracting(Payment::getOrderId).containsExactly("order-1");
+    }
+
+    @Test
+    void failedBatchSaveIsRetriedOneByOne() throws Exception {
+        givenRepository();
+        when(paymentRepository.saveAll(anyList())).thenThrow(new RuntimeException("value too long"));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            if ("order-2".equals(payment.getOrderId())) {
+                throw new RuntimeException("value too long");
+            }
+            payment.setId((long) saved.size() + 1);
+            saved.add(payment);
+            return payment;
+        });
+        when(gatewayClient.authorizeAll(anyList())).thenReturn(CompletableFuture.completedFuture(List.of(
+                GatewayResult.approved("tx-1"),
+                GatewayResult.approved("tx-3"))));
+        FlashSalePaymentBatcher batcher = batcher(50);
+
+        CompletableFuture<PaymentDto> first = batcher.submit(request("order-1"), 1L);
+        CompletableFuture<PaymentDto> second = batcher.submit(request("order-2"), 2L);
+        CompletableFuture<PaymentDto> third = batcher.submit(request("order-3"), 3L);
+        batcher.flush();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getTransactionId()).isEqualTo("tx-1");
+        assertThat(third.get(5, TimeUnit.SECONDS).getTransactionId()).isEqualTo("tx-3");
+        assertThat(second).isCompletedExceptionally();
+        verify(gatewayClient, times(1)).authorizeAll(argThat(requests -> requests.size() == 2));
+    }
+
+    private FlashSalePaymentBatcher batcher(int maxBatchSize) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new FlashSalePaymentBatcher(paymentRepository, new PaymentRecorder(eventPublisher), gatewayClient,
+                transactionTemplate, executor, true, maxBatchSize, 20);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenRepository() {
+        AtomicLong ids = new AtomicLong();
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = new ArrayList<>((List<Payment>) invocation.getArgument(0));
+            payments.forEach(payment -> payment.setId(ids.incrementAndGet()));
+            saved.addAll(payments);
+            return payments;
+        });
+        when(paymentRepository.findAllById(anyList())).thenAnswer(invocation -> new ArrayList<>(saved));
+    }
+
+    private static PaymentRequest request(String orderId) {
+        PaymentRequest request = new PaymentRequest();
+        request.setOrderId(orderId);
+        request.setAmount(BigDecimal.valueOf(10_000));
+        request.setPaymentMethod("CREDIT_CARD");
+        request.setFlashSalePayment(true);
+        return request;
+    }
+}
@@ -0,0 +1,104 @@
+package com.jun.paymentservice.service;
+
+import com.jun.paymentservice.entity.Payment;
+import com.jun.paymentservice.gateway.GatewayResult;
+import com.jun.paymentservice.gateway.PaymentDeclinedException;
+import com.jun.paymentservice.gateway.PaymentGatewayException;
+import com.jun.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 타임아웃으로 결과를 모르는 결제는 PG 조회 결과로만 확정한다.
+ */
+class PaymentReconcilerTest {
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PaymentEventPublisher eventPublisher = mock(PaymentEventPublisher.class);
+    private final PaymentGatewayClient gatewayClient = mock(PaymentGatewayClient.class);
+    private final PaymentReconciler reconciler = new PaymentReconciler(paymentRepository,
+            new PaymentRecorder(eventPublisher), gatewayClient,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), 30_000, Duration.ofMinutes(2), 100);
+
+    @Test
+    void settlesUnsettledPaymentsFromTheGatewayRecord() {
+        Payment charged = unsettled(1L);
+        Payment declined = unsettled(2L);
+        Payment neverReceived = unsettled(3L);
+        Payment unreachable = unsettled(4L);
+        givenUnsettled(charged, declined, neverReceived, unreachable);
+        when(gatewayClient.inquire(charged.getPaymentId())).thenReturn(Optional.of(GatewayResult.approved("tx-1")));
+        when(gatewayClient.inquire(declined.getPaymentId()))
+                .thenReturn(Optional.of(GatewayResult.failed(new PaymentDeclinedException("declined"))));
+        when(gatewayClient.inquire(neverReceived.getPaymentId())).thenReturn(Optional.empty());
+        when(gatewayClient.inquire(unreachable.getPaymentId())).thenThrow(new PaymentGatewayException("Payment gateway error"));
+
+        assertThat(reconciler.reconcile()).isEqualTo(3);
+
+        assertThat(charged.getStatus()).isEqualTo(Payment.PaymentStatus.COMPLETED);
+        assertThat(charged.getTransactionId()).isEqualTo("tx-1");
+        assertThat(declined.getStatus()).isEqualTo(Payment.PaymentStatus.FAILED);
+        assertThat(neverReceived.getStatus()).isEqualTo(Payment.PaymentStatus.FAILED);
+        // 조회에 실패한 결제는 다음 주기에 다시 조회한다
+        assertThat(unreachable.getStatus()).isEqualTo(Payment.PaymentStatus.PROCESSING);
+        verify(eventPublisher, times(1)).publishPaymentCompleted(any());
+        verify(eventPublisher, times(2)).publishPaymentFailed(any());
+    }
+
+    @Test
+    void skipsPaymentsSettledWhileInquiring() {
+        Payment payment = unsettled(1L);
+        givenUnsettled(payment);
+        when(gatewayClient.inquire(payment.getPaymentId())).thenAnswer(invocation -> {
+            // 조회하는 사이 늦게 도착한 승인 응답이 먼저 반영됐다
+            payment.setStatus(Payment.PaymentStatus.COMPLETED);
+            return Optional.empty();
+        });
+
+        assertThat(reconciler.reconcile()).isZero();
+
+        assertThat(payment.getStatus()).isEqualTo(Payment.PaymentStatus.COMPLETED);
+        verify(eventPublisher, never()).publishPaymentFailed(any());
+    }
+
+    private void givenUnsettled(Payment... payments) {
+        Map<Long, Payment> byId = new HashMap<>();
+        for (Payment payment : payments) {
+            byId.put(payment.getId(), payment);
+        }
+        when(paymentRepository.findByStatusAndUpdatedAtBeforeOrderByIdAsc(eq(Payment.PaymentStatus.PROCESSING), any(), any()))
+                .thenReturn(List.of(payments));
+        when(paymentRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(byId.get((Long) invocation.getArgument(0))));
+    }
+
+    private static Payment unsettled(Long id) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setPaymentId("payment-" + id);
+        payment.setOrderId("order-" + id);
+        payment.setUserId(7L);
+        payment.setAmount(BigDecimal.valueOf(10_000));
+        payment.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD);
+        payment.setStatus(Payment.PaymentStatus.PROCESSING);
+        return payment;
+    }
+}
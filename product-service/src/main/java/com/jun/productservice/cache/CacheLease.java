@@ -0,0 +1,65 @@
+package com.jun.productservice.cache;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * L2 미스 시 여러 인스턴스 중 한 곳만 DB 에서 로드하도록 잡는 Redis 리스(SET NX PX).
+ * 리스는 토큰으로 보호되어, 만료 후 다른 인스턴스가 다시 잡은 리스를 지우지 않는다.
+ */
+public class CacheLease {
+
+    private static final String LEASE_KEY_PREFIX = "cache:lease:";
+    private static final RedisScript<Long> RELEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/cache-lease-release.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration leaseTtl;
+
+    public CacheLease(StringRedisTemplate redisTemplate, Duration leaseTtl) {
+        this.redisTemplate = redisTemplate;
+        this.leaseTtl = leaseTtl;
+    }
+
+    /**
+     * @return 리스 토큰, 이미 다른 로더가 잡고 있으면 null. Redis 오류 시에도 빈 토큰을 돌려 로드를 막지 않는다.
+     */
+    public String tryAcquire(String redisKey) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LEASE_KEY_PREFIX + redisKey, token, leaseTtl);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    public void release(String redisKey, String token) {
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(LEASE_KEY_PREFIX + redisKey), token);
+        } catch (Exception e) {
+            // 리스 TTL 이 지나면 풀린다
+        }
+    }
+
+    /**
+     * @return L2 항목의 남은 TTL(ms), 알 수 없으면 -1
+     */
+    public long remainingTtlMillis(String redisKey) {
+        try {
+            Long ttl = redisTemplate.getExpire(redisKey, TimeUnit.MILLISECONDS);
+            return ttl != null ? ttl : -1L;
+        } catch (Exception e) {
+            return -1L;
+        }
+    }
+}
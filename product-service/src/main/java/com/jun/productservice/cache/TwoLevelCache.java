@@ -0,0 +1,263 @@
+package com.jun.productservice.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * 프로세스 내 Caffeine(L1) 뒤에 Redis 캐시(L2)를 두는 캐시. L1 키는 문자열로 정규화해 다른 인스턴스에서 온
+ * 무효화 메시지와 같은 키로 비교한다. 값을 바꾸는 put/evict/clear 만 무효화를 브로드캐스트하고,
+ * 미스로 채우는 경우(get with loader, putIfAbsent)는 다른 인스턴스의 L1 을 건드리지 않는다.
+ * 미스로 채울 때는 L2 에 SET NX 로만 쓰므로, 느린 조회가 그 사이 커밋된 쓰기의 값을 되돌리지 못한다.
+ *
+ * <p>get(key, loader) 는 캐시 스탬피드를 막는다.
+ * <ul>
+ *   <li>같은 인스턴스 안의 동시 미스는 Caffeine 이 한 번만 로드한다.</li>
+ *   <li>L2 도 미스면 {@link CacheLease} 를 잡은 인스턴스만 DB 에서 로드하고, 나머지는 lease-wait 동안 L2 를 기다린다.</li>
+ *   <li>L2 만료가 가까워지면 확률적으로(XFetch) 한 요청이 백그라운드에서 미리 다시 로드한다.</li>
+ * </ul>
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private static final long LEASE_POLL_INTERVAL_MILLIS = 20;
+    private static final long DEFAULT_LOAD_MILLIS = 50;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Entry> local;
+    private final Cache remote;
+    private final String remoteKeyPrefix;
+    private final long remoteTtlMillis;
+    private final CacheLease lease;
+    private final long leaseWaitMillis;
+    private final double earlyRefreshBeta;
+    private final Executor refreshExecutor;
+    private final Consumer<String> invalidationPublisher;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // 최근 DB 로드 시간(ms)의 이동 평균. XFetch 의 delta 로 쓰인다.
+    private volatile long averageLoadMillis = DEFAULT_LOAD_MILLIS;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Entry> local,
+                         Cache remote,
+                         String remoteKeyPrefix,
+                         long remoteTtlMillis,
+                         CacheLease lease,
+                         long leaseWaitMillis,
+                         double earlyRefreshBeta,
+                         Executor refreshExecutor,
+                         Consumer<String> invalidationPublisher) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.remoteKeyPrefix = remoteKeyPrefix;
+        this.remoteTtlMillis = remoteTtlMillis;
+        this.lease = lease;
+        this.leaseWaitMillis = leaseWaitMillis;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.refreshExecutor = refreshExecutor;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        Entry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            return entry.storeValue;
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        // 조기 갱신은 get(key, loader) 경로에서만 하므로 남은 TTL 조회 없이 추정치를 쓴다
+        entry = new Entry(toStoreValue(wrapper.get()), System.currentTimeMillis() + remoteTtlMillis);
+        local.put(localKey, entry);
+        return entry.storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Entry entry = local.get(localKey, k -> loadEntry(key, valueLoader));
+        if (shouldRefreshEarly(entry)) {
+            refreshAsync(key, valueLoader);
+        }
+        return (T) fromStoreValue(entry.storeValue);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), new Entry(toStoreValue(value), System.currentTimeMillis() + remoteTtlMillis));
+        invalidationPublisher.accept(localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        Object storeValue = toStoreValue(existing != null ? existing.get() : value);
+        local.put(localKey(key), new Entry(storeValue, System.currentTimeMillis() + remoteTtlMillis));
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        invalidationPublisher.accept(localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.accept(null);
+    }
+
+    /**
+     * L1 을 거치지 않고 L2 에서 읽는다. 다른 인스턴스의 무효화 메시지가 아직 도착하지 않았을 수 있는 값을
+     * 기준으로 갱신하면 안 되는 경우(목록 캐시 부분 갱신 등)에 사용한다.
+     */
+    public ValueWrapper getRemote(Object key) {
+        return remote.get(key);
+    }
+
+    void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private <T> Entry loadEntry(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null) {
+            return new Entry(toStoreValue(wrapper.get()), remoteExpiresAt(localKey));
+        }
+
+        String token = lease.tryAcquire(remoteKeyPrefix + localKey);
+        if (token == null) {
+            // 다른 인스턴스가 로드 중이다. 그 결과가 L2 에 올라오기를 기다리고, 시간 안에 오지 않으면 직접 로드한다.
+            long deadline = System.currentTimeMillis() + leaseWaitMillis;
+            while (System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(LEASE_POLL_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                wrapper = remote.get(key);
+                if (wrapper != null) {
+                    return new Entry(toStoreValue(wrapper.get()), remoteExpiresAt(localKey));
+                }
+            }
+        }
+
+        try {
+            T value = load(key, valueLoader);
+            // 로드하는 동안 커밋된 쓰기가 먼저 L2 에 올라갔다면 그 값을 덮어쓰지 않는다
+            ValueWrapper existing = remote.putIfAbsent(key, value);
+            return new Entry(toStoreValue(existing != null ? existing.get() : value),
+                    System.currentTimeMillis() + remoteTtlMillis);
+        } finally {
+            lease.release(remoteKeyPrefix + localKey, token);
+        }
+    }
+
+    // XFetch: now - delta * beta * ln(rand) >= expiry 이면 만료 전에 다시 로드한다. 로드가 느릴수록, 만료가 가까울수록 일찍 갱신된다.
+    private boolean shouldRefreshEarly(Entry entry) {
+        if (earlyRefreshBeta <= 0) {
+            return false;
+        }
+        double gap = averageLoadMillis * earlyRefreshBeta * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= entry.expiresAt;
+    }
+
+    private <T> void refreshAsync(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        if (!refreshing.add(localKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                String token = lease.tryAcquire(remoteKeyPrefix + localKey);
+                if (token == null) {
+                    // 다른 인스턴스가 갱신 중이며, 그 결과는 무효화 메시지로 전달된다
+                    refreshing.remove(localKey);
+                    return;
+                }
+                try {
+                    put(key, load(key, valueLoader));
+                } catch (Exception e) {
+                    logger.warn("Early refresh of {}::{} failed: {}", name, localKey, e.getMessage());
+                } finally {
+                    lease.release(remoteKeyPrefix + localKey, token);
+                    refreshing.remove(localKey);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(localKey);
+        }
+    }
+
+    private <T> T load(Object key, Callable<T> valueLoader) {
+        long startedAt = System.currentTimeMillis();
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long elapsed = System.currentTimeMillis() - startedAt;
+        averageLoadMillis = (averageLoadMillis * 7 + Math.max(1, elapsed)) / 8;
+        return value;
+    }
+
+    private long remoteExpiresAt(String localKey) {
+        long remaining = lease.remainingTtlMillis(remoteKeyPrefix + localKey);
+        return System.currentTimeMillis() + (remaining >= 0 ? remaining : remoteTtlMillis);
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * L1 항목. expiresAt 은 L2 항목이 만료되는 시각의 추정치로, 조기 갱신 판단에만 쓰인다.
+     */
+    static final class Entry {
+        private final Object storeValue;
+        private final long expiresAt;
+
+        Entry(Object storeValue, long expiresAt) {
+            this.storeValue = storeValue;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
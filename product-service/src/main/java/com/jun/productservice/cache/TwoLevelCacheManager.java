@@ -0,0 +1,107 @@
+package com.jun.productservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jun.productservice.config.NearCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link TwoLevelCache} 를 만들고, 다른 인스턴스가 값을 바꿀 때 cache:invalidate 채널로 받은 메시지로 L1 을 비운다.
+ * 메시지 형식은 {instanceId}|{cacheName}|{key} 이며 key 가 비어 있으면 캐시 전체를 비운다.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final RedisCacheManager remoteCacheManager;
+    private final NearCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheLease lease;
+    // 조기 갱신은 요청 스레드를 잡지 않도록 가상 스레드에서 실행한다
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public TwoLevelCacheManager(RedisCacheManager remoteCacheManager,
+                                NearCacheProperties properties,
+                                StringRedisTemplate redisTemplate,
+                                RedisMessageListenerContainer listenerContainer) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.lease = new CacheLease(redisTemplate, properties.getLeaseTtl());
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.evictLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        RedisCache remote = (RedisCache) remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("No Redis cache configured for " + name);
+        }
+
+        // Caffeine 의 기본 eviction 정책이 W-TinyLFU 이다
+        com.github.benmanes.caffeine.cache.Cache<String, TwoLevelCache.Entry> local = Caffeine.newBuilder()
+                .maximumSize(properties.l1MaxSizeFor(name))
+                .expireAfterWrite(properties.l1TtlFor(name))
+                .build();
+        return new TwoLevelCache(name, local, remote,
+                remote.getCacheConfiguration().getKeyPrefixFor(name),
+                properties.l2TtlFor(name).toMillis(),
+                lease,
+                properties.getLeaseWait().toMillis(),
+                properties.getEarlyRefreshBeta(),
+                refreshExecutor,
+                key -> publish(name, key));
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    instanceId + "|" + cacheName + "|" + (key != null ? key : ""));
+        } catch (Exception e) {
+            // 다른 인스턴스의 L1 은 TTL 이 지나면 정리된다
+            logger.warn("Failed to publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+}
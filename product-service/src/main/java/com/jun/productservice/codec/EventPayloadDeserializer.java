@@ -0,0 +1,44 @@
+package com.jun.productservice.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * JSON 과 Smile 페이로드를 모두 읽는 값 역직렬화기. 타입 매핑 등 spring.json.* 설정은 두 JsonDeserializer 에
+ * 똑같이 적용되고, 레코드마다 {@link PayloadCodec#detect(byte[])} 로 형식을 골라 위임한다.
+ * 프로듀서가 outbox.codec 을 바꾸기 전에 컨슈머가 먼저 이 역직렬화기로 배포되어 있어야 한다.
+ */
+public class EventPayloadDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>(PayloadCodec.JSON.newObjectMapper());
+    private final JsonDeserializer<Object> smile = new JsonDeserializer<>(PayloadCodec.SMILE.newObjectMapper());
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+        smile.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return delegateFor(data).deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return delegateFor(data).deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+        smile.close();
+    }
+
+    private JsonDeserializer<Object> delegateFor(byte[] data) {
+        return PayloadCodec.detect(data) == PayloadCodec.SMILE ? smile : json;
+    }
+}
@@ -0,0 +1,140 @@
+package com.jun.productservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.near")
+public class NearCacheProperties {
+
+    private String keyVersion = "v1";
+    private String codec = "json";
+    private long l1MaxSize = 10_000;
+    private Duration l1Ttl = Duration.ofSeconds(30);
+    private Duration l2Ttl = Duration.ofMinutes(5);
+    private double earlyRefreshBeta = 1.0;
+    private Duration leaseTtl = Duration.ofSeconds(5);
+    private Duration leaseWait = Duration.ofSeconds(1);
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public String getKeyVersion() {
+        return keyVersion;
+    }
+
+    public void setKeyVersion(String keyVersion) {
+        this.keyVersion = keyVersion;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    public long getL1MaxSize() {
+        return l1MaxSize;
+    }
+
+    public void setL1MaxSize(long l1MaxSize) {
+        this.l1MaxSize = l1MaxSize;
+    }
+
+    public Duration getL1Ttl() {
+        return l1Ttl;
+    }
+
+    public void setL1Ttl(Duration l1Ttl) {
+        this.l1Ttl = l1Ttl;
+    }
+
+    public Duration getL2Ttl() {
+        return l2Ttl;
+    }
+
+    public void setL2Ttl(Duration l2Ttl) {
+        this.l2Ttl = l2Ttl;
+    }
+
+    public double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+
+    public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    public Duration getLeaseTtl() {
+        return leaseTtl;
+    }
+
+    public void setLeaseTtl(Duration leaseTtl) {
+        this.leaseTtl = leaseTtl;
+    }
+
+    public Duration getLeaseWait() {
+        return leaseWait;
+    }
+
+    public void setLeaseWait(Duration leaseWait) {
+        this.leaseWait = leaseWait;
+    }
+
+    public Map<String, Spec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Spec> caches) {
+        this.caches = caches;
+    }
+
+    public long l1MaxSizeFor(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getL1MaxSize() != null ? spec.getL1MaxSize() : l1MaxSize;
+    }
+
+    public Duration l1TtlFor(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getL1Ttl() != null ? spec.getL1Ttl() : l1Ttl;
+    }
+
+    public Duration l2TtlFor(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        return spec != null && spec.getL2Ttl() != null ? spec.getL2Ttl() : l2Ttl;
+    }
+
+    public static class Spec {
+        private Long l1MaxSize;
+        private Duration l1Ttl;
+        private Duration l2Ttl;
+
+        public Long getL1MaxSize() {
+            return l1MaxSize;
+        }
+
+        public void setL1MaxSize(Long l1MaxSize) {
+            this.l1MaxSize = l1MaxSize;
+        }
+
+        public Duration getL1Ttl() {
+            return l1Ttl;
+        }
+
+        public void setL1Ttl(Duration l1Ttl) {
+            this.l1Ttl = l1Ttl;
+        }
+
+        public Duration getL2Ttl() {
+            return l2Ttl;
+        }
+
+        public void setL2Ttl(Duration l2Ttl) {
+            this.l2Ttl = l2Ttl;
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.jun.productservice.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jun.productservice.cache.TwoLevelCacheManager;
+import com.jun.productservice.codec.PayloadCodec;
 import com.jun.productservice.dto.ProductDto;
+import com.jun.productservice.dto.ProductStockDto;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,7 +14,10 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -30,35 +36,49 @@ public class RedisConfig {
         return objectMapper;
     }
 
+    // 캐시마다 프로세스 내 L1(Caffeine) 을 두고 L2 로 Redis 캐시를 사용한다. TTL 은 cache.near 설정을 따른다
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     NearCacheProperties properties,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer) {
+        // 값 인코딩은 cache.near.codec 으로 고른다 (json | smile). 형식이 다르면 키 접두사도 달라 서로 섞이지 않는다
+        PayloadCodec codec = PayloadCodec.of(properties.getCodec());
+        ObjectMapper valueMapper = codec == PayloadCodec.SMILE ? codec.newObjectMapper() : redisObjectMapper();
+        String keyVersion = codec == PayloadCodec.SMILE ? properties.getKeyVersion() + "-smile" : properties.getKeyVersion();
+
         // ProductDto용 serializer
-        Jackson2JsonRedisSerializer<ProductDto> productSerializer = new Jackson2JsonRedisSerializer<>(redisObjectMapper(), ProductDto.class);
+        Jackson2JsonRedisSerializer<ProductDto> productSerializer = new Jackson2JsonRedisSerializer<>(valueMapper, ProductDto.class);
 
         // List<ProductDto>용 serializer
-        CollectionType listType = redisObjectMapper().getTypeFactory().constructCollectionType(List.class, ProductDto.class);
-        Jackson2JsonRedisSerializer<List<ProductDto>> listSerializer = new Jackson2JsonRedisSerializer<>(redisObjectMapper(), listType);
-
-        // 기본 캐시 설정
-        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(5))
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(productSerializer));
+        CollectionType listType = valueMapper.getTypeFactory().constructCollectionType(List.class, ProductDto.class);
+        Jackson2JsonRedisSerializer<List<ProductDto>> listSerializer = new Jackson2JsonRedisSerializer<>(valueMapper, listType);
 
-        // List용 캐시 설정
-        RedisCacheConfiguration listConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(5))
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(listSerializer));
+        Jackson2JsonRedisSerializer<ProductStockDto> stockSerializer = new Jackson2JsonRedisSerializer<>(valueMapper, ProductStockDto.class);
 
         Map<String, RedisCacheConfiguration> configMap = new HashMap<>();
-        configMap.put("products", defaultConfig);
-        configMap.put("flash_sale_products", listConfig);
+        configMap.put("products", cacheConfig(productSerializer, properties.l2TtlFor("products"), keyVersion));
+        configMap.put("product_lists", cacheConfig(listSerializer, properties.l2TtlFor("product_lists"), keyVersion));
+        configMap.put("flash_sale_products", cacheConfig(listSerializer, properties.l2TtlFor("flash_sale_products"), keyVersion));
+        configMap.put("product_stock", cacheConfig(stockSerializer, properties.l2TtlFor("product_stock"), keyVersion));
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheConfig(productSerializer, properties.getL2Ttl(), keyVersion))
                 .withInitialCacheConfigurations(configMap)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(redisCacheManager, properties,
+                stringRedisTemplate, redisMessageListenerContainer);
+    }
+
+    // 키는 {cacheName}:{keyVersion}::{key} 형태다. 값 형식이 바뀌면 key-version 을 올려 이전 키를 전체 삭제 없이 버린다
+    private RedisCacheConfiguration cacheConfig(RedisSerializer<?> valueSerializer, Duration ttl, String keyVersion) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
+                .computePrefixWith(cacheName -> cacheName + ":" + keyVersion + "::")
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
     }
 
     @Bean
@@ -75,4 +95,11 @@ public class RedisConfig {
 
         return template;
     }
-}
\ No newline at end of file
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
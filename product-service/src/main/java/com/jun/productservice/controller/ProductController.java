@@ -1,9 +1,13 @@
 package com.jun.productservice.controller;
 
+import com.jun.productservice.dto.BatchStockReservationRequest;
+import com.jun.productservice.dto.CursorPage;
 import com.jun.productservice.dto.ProductDto;
 import com.jun.productservice.dto.StockReservationRequest;
 import com.jun.productservice.service.ProductService;
+import com.jun.productservice.service.stock.BatchReservationResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,9 +23,30 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     
+    // 본문은 상품 목록이고, 다음 페이지가 있으면 X-Next-Cursor 헤더의 값을 cursor 로 넘겨 이어서 조회한다
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        List<ProductDto> products = productService.getAllActiveProducts();
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        Long afterId;
+        try {
+            afterId = cursor != null && !cursor.isBlank() ? Long.valueOf(cursor) : null;
+        } catch (NumberFormatException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid cursor");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        CursorPage<ProductDto> page = productService.getActiveProducts(afterId, CursorPage.clampSize(size));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+    
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductDto>> getProductsByIds(@RequestParam List<Long> ids) {
+        List<ProductDto> products = productService.getProductsByIds(ids);
         return ResponseEntity.ok(products);
     }
     
@@ -46,10 +71,22 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
     
+    // 본문은 기존과 같은 상품 목록이고, 전체 결과 수는 X-Total-Count 헤더로 내려준다
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDto>> searchProducts(@RequestParam String keyword) {
-        List<ProductDto> products = productService.searchProducts(keyword);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductDto>> searchProducts(@RequestParam String keyword,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        Page<ProductDto> products = productService.searchProducts(keyword, Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(products.getTotalElements()))
+                .body(products.getContent());
+    }
+    
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<String>> suggestProductNames(@RequestParam String prefix,
+                                                            @RequestParam(defaultValue = "10") int limit) {
+        List<String> names = productService.suggestProductNames(prefix, Math.min(Math.max(limit, 1), 50));
+        return ResponseEntity.ok(names);
     }
     
     @PostMapping
@@ -83,6 +120,25 @@ public class ProductController {
         }
     }
     
+    @PostMapping("/reserve-stock/batch")
+    public ResponseEntity<Map<String, Object>> reserveStockBatch(@RequestBody BatchStockReservationRequest request) {
+        BatchReservationResult result = productService.reserveStockBatch(request);
+        Map<String, Object> response = new HashMap<>();
+        
+        if (result.isSuccess()) {
+            response.put("success", true);
+            response.put("message", "Stock reserved successfully");
+            response.put("reservedProductIds", result.getReservedProductIds());
+            return ResponseEntity.ok(response);
+        } else {
+            response.put("success", false);
+            response.put("message", "Failed to reserve stock - " + result.getResult());
+            response.put("failedProductId", result.getFailedProductId());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+    
+    // quantity 는 주문에서 이 상품의 라인 수량 합계 (예약이 상품별 합계로 기록된다)
     @PostMapping("/confirm-stock-reduction")
     public ResponseEntity<Map<String, Object>> confirmStockReduction(
             @RequestParam String orderId,
@@ -102,6 +158,7 @@ public class ProductController {
         }
     }
     
+    // quantity 는 주문에서 이 상품의 라인 수량 합계
     @PostMapping("/release-reserved-stock")
     public ResponseEntity<Map<String, Object>> releaseReservedStock(
             @RequestParam String orderId,
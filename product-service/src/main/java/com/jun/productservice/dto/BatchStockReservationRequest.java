@@ -0,0 +1,70 @@
+package com.jun.productservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchStockReservationRequest {
+    private String orderId;
+    private Long userId;
+    private List<Item> items = new ArrayList<>();
+
+    public BatchStockReservationRequest() {}
+
+    public BatchStockReservationRequest(String orderId, Long userId, List<Item> items) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.items = items;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    public static class Item {
+        private Long productId;
+        private Integer quantity;
+
+        public Item() {}
+
+        public Item(Long productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.jun.productservice.dto;
+
+import java.util.List;
+
+/**
+ * 키셋(커서) 페이지. 목록 본문은 items 그대로 내려가고, 다음 페이지 커서는 {@value #NEXT_CURSOR_HEADER} 헤더로 전달된다.
+ * 상품 목록은 id 내림차순이므로 커서는 마지막 상품의 id 이다.
+ */
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+
+    public static int clampSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+}
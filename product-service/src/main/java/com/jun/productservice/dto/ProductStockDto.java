@@ -0,0 +1,40 @@
+package com.jun.productservice.dto;
+
+// 상품 조회 캐시에서 분리한 재고 값. 정적인 상품 정보보다 훨씬 짧은 TTL 로 캐시된다.
+public class ProductStockDto {
+    private Long productId;
+    private Integer stock;
+    private Integer availableStock;
+
+    public ProductStockDto() {}
+
+    public ProductStockDto(Long productId, Integer stock, Integer availableStock) {
+        this.productId = productId;
+        this.stock = stock;
+        this.availableStock = availableStock;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Integer getAvailableStock() {
+        return availableStock;
+    }
+
+    public void setAvailableStock(Integer availableStock) {
+        this.availableStock = availableStock;
+    }
+}
@@ -0,0 +1,52 @@
+package com.jun.productservice.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Kafka event-id 헤더. 릴레이가 재전송해도 같은 값을 보내므로 컨슈머가 중복을 걸러낼 수 있다
+    @Column(name = "event_id", length = 36)
+    private String eventId;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "message_key")
+    private String messageKey;
+
+    @Column(name = "payload_type", nullable = false)
+    private String payloadType;
+
+    @Column(nullable = false)
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    protected OutboxEvent() {}
+
+    public OutboxEvent(String topic, String messageKey, String payloadType, byte[] payload) {
+        this.eventId = UUID.randomUUID().toString();
+        this.topic = topic;
+        this.messageKey = messageKey;
+        this.payloadType = payloadType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public String getEventId() { return eventId; }
+    public String getTopic() { return topic; }
+    public String getMessageKey() { return messageKey; }
+    public String getPayloadType() { return payloadType; }
+    public byte[] getPayload() { return payload; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
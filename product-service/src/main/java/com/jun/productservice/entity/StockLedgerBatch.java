@@ -0,0 +1,31 @@
+package com.jun.productservice.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_ledger_batches")
+public class StockLedgerBatch {
+
+    @Id
+    @Column(name = "batch_id", length = 100)
+    private String batchId;
+
+    @Column(name = "entry_count", nullable = false)
+    private Integer entryCount;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+
+    protected StockLedgerBatch() {}
+
+    public StockLedgerBatch(String batchId, Integer entryCount) {
+        this.batchId = batchId;
+        this.entryCount = entryCount;
+        this.appliedAt = LocalDateTime.now();
+    }
+
+    public String getBatchId() { return batchId; }
+    public Integer getEntryCount() { return entryCount; }
+    public LocalDateTime getAppliedAt() { return appliedAt; }
+}
@@ -3,30 +3,72 @@ package com.jun.productservice.event;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class StockReservedEvent {
     private final String orderId;
     private final Long productId;
     private final Integer quantity;
     private final String productName;
+    private final List<ReservedItem> items;
     private final LocalDateTime timestamp;
 
+    public StockReservedEvent(String orderId, Long productId, Integer quantity, String productName) {
+        this(orderId, productId, quantity, productName, List.of(new ReservedItem(productId, quantity, productName)));
+    }
+
     @JsonCreator
     public StockReservedEvent(
             @JsonProperty("orderId") String orderId,
             @JsonProperty("productId") Long productId,
             @JsonProperty("quantity") Integer quantity,
-            @JsonProperty("productName") String productName) {
+            @JsonProperty("productName") String productName,
+            @JsonProperty("items") List<ReservedItem> items) {
         this.orderId = orderId;
         this.productId = productId;
         this.quantity = quantity;
         this.productName = productName;
+        this.items = items != null ? items : List.of();
         this.timestamp = LocalDateTime.now();
     }
 
+    /**
+     * 주문 전체에 대한 단일 예약 이벤트. 라인이 하나면 기존 단건 필드도 채우고,
+     * 여러 개면 productId/productName 은 비워 두고 quantity 에 총 수량을 담는다.
+     */
+    public static StockReservedEvent forOrder(String orderId, List<ReservedItem> items) {
+        if (items.size() == 1) {
+            ReservedItem item = items.get(0);
+            return new StockReservedEvent(orderId, item.getProductId(), item.getQuantity(), item.getProductName(), items);
+        }
+        int totalQuantity = items.stream().mapToInt(ReservedItem::getQuantity).sum();
+        return new StockReservedEvent(orderId, null, totalQuantity, null, items);
+    }
+
     public String getOrderId() { return orderId; }
     public Long getProductId() { return productId; }
     public Integer getQuantity() { return quantity; }
     public String getProductName() { return productName; }
+    public List<ReservedItem> getItems() { return items; }
     public LocalDateTime getTimestamp() { return timestamp; }
-}
\ No newline at end of file
+
+    public static class ReservedItem {
+        private final Long productId;
+        private final Integer quantity;
+        private final String productName;
+
+        @JsonCreator
+        public ReservedItem(
+                @JsonProperty("productId") Long productId,
+                @JsonProperty("quantity") Integer quantity,
+                @JsonProperty("productName") String productName) {
+            this.productId = productId;
+            this.quantity = quantity;
+            this.productName = productName;
+        }
+
+        public Long getProductId() { return productId; }
+        public Integer getQuantity() { return quantity; }
+        public String getProductName() { return productName; }
+    }
+}
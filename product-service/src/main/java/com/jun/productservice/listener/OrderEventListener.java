@@ -1,77 +1,117 @@
 package com.jun.productservice.listener;
 
+import com.jun.productservice.config.KafkaConfig;
+import com.jun.productservice.dto.BatchStockReservationRequest;
 import com.jun.productservice.event.StockReservedEvent;
 import com.jun.productservice.event.StockReservationFailedEvent;
 import com.jun.productservice.service.ProductEventPublisher;
 import com.jun.productservice.service.ProductService;
+import com.jun.productservice.service.stock.BatchReservationResult;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
 public class OrderEventListener {
 
+    private static final String GROUP = "product-service-group";
+
     @Autowired
     private ProductService productService;
 
     @Autowired
     private ProductEventPublisher eventPublisher;
 
-    @KafkaListener(topics = "order-created", groupId = "product-service-group")
-    public void handleOrderCreated(Map<String, Object> orderData) {
+    @Autowired
+    private KeyOrderedBatchDispatcher batchDispatcher;
+
+    // 예약/해제는 Redis 스크립트 호출이라 주문별 순서만 지키며 병렬로 처리한다
+    @KafkaListener(topics = "order-created", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handleOrderCreatedBatch(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        batchDispatcher.dispatch(GROUP, records, this::handleOrderCreated);
+    }
+
+    @KafkaListener(topics = "order-cancelled", groupId = GROUP,
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY)
+    public void handleOrderCancelledBatch(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        batchDispatcher.dispatch(GROUP, records, this::handleOrderCancelled);
+    }
+
+    private void handleOrderCreated(Map<String, Object> orderData) {
         try {
             String orderId = (String) orderData.get("orderId");
+            Long userId = orderData.get("userId") != null ? ((Number) orderData.get("userId")).longValue() : null;
             @SuppressWarnings("unchecked")
             java.util.List<Map<String, Object>> orderItems = (java.util.List<Map<String, Object>>) orderData.get("orderItems");
 
+            List<BatchStockReservationRequest.Item> items = new ArrayList<>();
+            List<StockReservedEvent.ReservedItem> reservedItems = new ArrayList<>();
             for (Map<String, Object> item : orderItems) {
                 Long productId = ((Number) item.get("productId")).longValue();
                 Integer quantity = ((Number) item.get("quantity")).intValue();
                 String productName = (String) item.get("productName");
 
-                try {
-                    boolean reserved = productService.reserveStock(productId, quantity, orderId);
-
-                    if (reserved) {
-                        eventPublisher.publishStockReserved(new StockReservedEvent(
-                            orderId, productId, quantity, productName
-                        ));
-                    } else {
-                        eventPublisher.publishStockReservationFailed(new StockReservationFailedEvent(
-                            orderId, productId, quantity, "Insufficient stock"
-                        ));
-                    }
-                } catch (Exception e) {
+                items.add(new BatchStockReservationRequest.Item(productId, quantity));
+                reservedItems.add(new StockReservedEvent.ReservedItem(productId, quantity, productName));
+            }
+
+            // 주문 전체를 한 번에 예약하고 주문당 하나의 이벤트만 발행한다.
+            try {
+                BatchReservationResult result = productService.reserveStockBatch(
+                        new BatchStockReservationRequest(orderId, userId, items));
+
+                if (result.isSuccess()) {
+                    eventPublisher.publishStockReserved(StockReservedEvent.forOrder(orderId, reservedItems));
+                } else {
                     eventPublisher.publishStockReservationFailed(new StockReservationFailedEvent(
-                        orderId, productId, quantity, e.getMessage()
+                        orderId, result.getFailedProductId(), requestedQuantity(items, result.getFailedProductId()),
+                        "Stock reservation failed: " + result.getResult()
                     ));
                 }
+            } catch (Exception e) {
+                eventPublisher.publishStockReservationFailed(new StockReservationFailedEvent(
+                    orderId, null, null, e.getMessage()
+                ));
             }
         } catch (Exception e) {
             System.err.println("Failed to handle order created event: " + e.getMessage());
         }
     }
 
-    @KafkaListener(topics = "order-cancelled", groupId = "product-service-group")
-    public void handleOrderCancelled(Map<String, Object> orderData) {
+    private Integer requestedQuantity(List<BatchStockReservationRequest.Item> items, Long productId) {
+        return items.stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .mapToInt(BatchStockReservationRequest.Item::getQuantity)
+                .sum();
+    }
+
+    private void handleOrderCancelled(Map<String, Object> orderData) {
         try {
             String orderId = (String) orderData.get("orderId");
             @SuppressWarnings("unchecked")
             java.util.List<Map<String, Object>> orderItems = (java.util.List<Map<String, Object>>) orderData.get("orderItems");
 
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
             for (Map<String, Object> item : orderItems) {
                 Long productId = ((Number) item.get("productId")).longValue();
                 Integer quantity = ((Number) item.get("quantity")).intValue();
+                quantities.merge(productId, quantity, Integer::sum);
+            }
 
-                try {
-                    productService.releaseReservedStock(productId, quantity, orderId);
-                } catch (Exception e) {
-                    System.err.println("Failed to release reserved stock for order: " + orderId + ", product: " + productId);
-                }
+            // 주문의 모든 라인을 스크립트 한 번으로 해제한다
+            try {
+                productService.releaseReservedStockBatch(orderId, quantities);
+            } catch (Exception e) {
+                System.err.println("Failed to release reserved stock for order: " + orderId);
             }
         } catch (Exception e) {
             System.err.println("Failed to handle order cancelled event: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
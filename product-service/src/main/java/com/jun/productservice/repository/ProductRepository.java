@@ -1,6 +1,9 @@
 package com.jun.productservice.repository;
 
+import com.jun.productservice.dto.ProductStockDto;
 import com.jun.productservice.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
@@ -10,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,11 +22,17 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     List<Product> findByActiveTrue();
     
+    List<Product> findByActiveTrueOrderByIdDesc();
+    
     List<Product> findByCategoryIdAndActiveTrue(Long categoryId);
     
     @Query("SELECT p FROM Product p WHERE p.flashSale = true AND p.active = true AND :now BETWEEN p.flashSaleStartTime AND p.flashSaleEndTime")
     List<Product> findActiveFlashSaleProducts(@Param("now") LocalDateTime now);
     
+    @Query("SELECT new com.jun.productservice.dto.ProductStockDto(p.id, p.stock, p.stock - COALESCE(p.reservedStock, 0)) " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<ProductStockDto> findStockByIdIn(@Param("ids") Collection<Long> ids);
+    
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM Product p WHERE p.id = :id")
     Optional<Product> findByIdWithLock(@Param("id") Long id);
@@ -42,6 +52,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.stock > 0 AND p.active = true ORDER BY p.createdAt DESC")
     List<Product> findAvailableProducts();
     
-    @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword% AND p.active = true")
-    List<Product> findByKeyword(@Param("keyword") String keyword);
+    // 검색 인덱스가 준비되기 전에만 사용된다
+    @Query("SELECT p FROM Product p WHERE (p.name LIKE %:keyword% OR p.description LIKE %:keyword%) AND p.active = true")
+    Page<Product> findByKeyword(@Param("keyword") String keyword, Pageable pageable);
 }
\ No newline at end of file
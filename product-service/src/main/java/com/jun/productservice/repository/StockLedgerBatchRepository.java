@@ -0,0 +1,18 @@
+package com.jun.productservice.repository;
+
+import com.jun.productservice.entity.StockLedgerBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StockLedgerBatchRepository extends JpaRepository<StockLedgerBatch, String> {
+
+    @Modifying
+    @Query("DELETE FROM StockLedgerBatch b WHERE b.appliedAt < :before")
+    int deleteByAppliedAtBefore(@Param("before") LocalDateTime before);
+}
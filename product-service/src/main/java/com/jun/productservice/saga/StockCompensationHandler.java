@@ -1,19 +1,34 @@
 package com.jun.productservice.saga;
 
+import com.jun.productservice.event.EventHeaders;
+import com.jun.productservice.listener.ProcessedEventStore;
 import com.jun.productservice.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
 public class StockCompensationHandler {
 
+    private static final String GROUP = "product-service-compensation-group";
+
     @Autowired
     private ProductService productService;
 
-    @KafkaListener(topics = "compensate-stock", groupId = "product-service-compensation-group")
-    public void handleStockCompensation(Map<String, Object> compensationData) {
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    @KafkaListener(topics = "compensate-stock", groupId = GROUP)
+    public void handleStockCompensation(@Payload Map<String, Object> compensationData,
+                                        @Header(name = EventHeaders.EVENT_ID, required = false) String eventId) {
+        if (!processedEventStore.claim(GROUP, eventId)) {
+            System.out.println("Skipping duplicate stock compensation: " + eventId);
+            return;
+        }
         try {
             String orderId = (String) compensationData.get("orderId");
             @SuppressWarnings("unchecked")
@@ -21,24 +36,34 @@ public class StockCompensationHandler {
 
             System.out.println("Processing stock compensation for order: " + orderId);
 
+            // 예약은 같은 상품의 라인 수량을 합산해 기록하므로 해제도 상품별 합계로 한다
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
             for (Map<String, Object> item : orderItems) {
                 Long productId = ((Number) item.get("productId")).longValue();
                 Integer quantity = ((Number) item.get("quantity")).intValue();
+                quantities.merge(productId, quantity, Integer::sum);
+            }
 
-                try {
-                    productService.releaseReservedStock(productId, quantity, orderId);
-                    System.out.println("Stock compensation completed for product: " + productId + ", quantity: " + quantity);
-                } catch (Exception e) {
-                    System.err.println("Failed to compensate stock for product " + productId + ": " + e.getMessage());
-                }
+            try {
+                int released = productService.releaseReservedStockBatch(orderId, quantities);
+                System.out.println("Stock compensation completed for order: " + orderId + ", released lines: " + released);
+            } catch (Exception e) {
+                System.err.println("Failed to compensate stock for order " + orderId + ": " + e.getMessage());
             }
+            processedEventStore.markDone(GROUP, eventId);
         } catch (Exception e) {
             System.err.println("Failed to handle stock compensation: " + e.getMessage());
+            processedEventStore.release(GROUP, eventId);
         }
     }
 
-    @KafkaListener(topics = "payment-failed", groupId = "product-service-compensation-group")
-    public void handlePaymentFailedCompensation(Map<String, Object> paymentData) {
+    @KafkaListener(topics = "payment-failed", groupId = GROUP)
+    public void handlePaymentFailedCompensation(@Payload Map<String, Object> paymentData,
+                                                @Header(name = EventHeaders.EVENT_ID, required = false) String eventId) {
+        if (!processedEventStore.claim(GROUP, eventId)) {
+            System.out.println("Skipping duplicate payment failed compensation: " + eventId);
+            return;
+        }
         try {
             String orderId = (String) paymentData.get("orderId");
             System.out.println("Payment failed for order: " + orderId + ". Releasing reserved stock...");
@@ -46,9 +71,11 @@ public class StockCompensationHandler {
             // 결제 실패 시 예약된 재고 해제
             // 실제 구현에서는 주문 정보를 조회해서 상품 목록을 가져와야 함
             releaseAllReservedStockForOrder(orderId);
+            processedEventStore.markDone(GROUP, eventId);
 
         } catch (Exception e) {
             System.err.println("Failed to handle payment failed compensation: " + e.getMessage());
+            processedEventStore.release(GROUP, eventId);
         }
     }
 
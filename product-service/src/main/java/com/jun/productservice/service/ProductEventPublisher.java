@@ -2,8 +2,8 @@ package com.jun.productservice.service;
 
 import com.jun.productservice.event.StockReservedEvent;
 import com.jun.productservice.event.StockReservationFailedEvent;
+import com.jun.productservice.service.outbox.OutboxAppender;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,11 +13,11 @@ public class ProductEventPublisher {
     private static final String STOCK_RESERVATION_FAILED_TOPIC = "stock-reservation-failed";
 
     @Autowired
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private OutboxAppender outboxAppender;
 
     public void publishStockReserved(StockReservedEvent event) {
         try {
-            kafkaTemplate.send(STOCK_RESERVED_TOPIC, event.getOrderId(), event);
+            outboxAppender.append(STOCK_RESERVED_TOPIC, event.getOrderId(), event);
         } catch (Exception e) {
             System.err.println("Failed to publish StockReservedEvent: " + e.getMessage());
             throw new RuntimeException("Event publishing failed", e);
@@ -26,7 +26,7 @@ public class ProductEventPublisher {
 
     public void publishStockReservationFailed(StockReservationFailedEvent event) {
         try {
-            kafkaTemplate.send(STOCK_RESERVATION_FAILED_TOPIC, event.getOrderId(), event);
+            outboxAppender.append(STOCK_RESERVATION_FAILED_TOPIC, event.getOrderId(), event);
         } catch (Exception e) {
             System.err.println("Failed to publish StockReservationFailedEvent: " + e.getMessage());
             throw new RuntimeException("Event publishing failed", e);
@@ -1,20 +1,30 @@
 package com.jun.productservice.service;
 
+import com.jun.productservice.dto.BatchStockReservationRequest;
+import com.jun.productservice.dto.CursorPage;
 import com.jun.productservice.dto.ProductDto;
 import com.jun.productservice.dto.StockReservationRequest;
 import com.jun.productservice.entity.Product;
 import com.jun.productservice.repository.ProductRepository;
+import com.jun.productservice.service.catalog.ProductCacheUpdater;
+import com.jun.productservice.service.catalog.ProductCatalog;
+import com.jun.productservice.service.catalog.ProductStockView;
+import com.jun.productservice.service.search.ProductSearchIndex;
+import com.jun.productservice.service.stock.BatchReservationResult;
+import com.jun.productservice.service.stock.ReservationResult;
+import com.jun.productservice.service.stock.StockReservationEngine;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,64 +34,115 @@ public class ProductService {
     private ProductRepository productRepository;
     
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private StockReservationEngine stockReservationEngine;
     
-    private static final String PRODUCT_CACHE_KEY = "product:";
-    private static final String FLASH_SALE_CACHE_KEY = "flash_sale_products";
-    private static final long CACHE_TTL = 300; // 5분
+    @Autowired
+    private ProductCatalog productCatalog;
+    
+    @Autowired
+    private ProductStockView productStockView;
+    
+    @Autowired
+    private ProductCacheUpdater productCacheUpdater;
     
-    @Cacheable(value = "products", key = "#id")
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    // 상품 정보는 near cache 에서, 재고는 짧은 TTL 의 product_stock 캐시에서 가져와 합친다
     public ProductDto getProduct(Long id) {
-        Optional<Product> product = productRepository.findById(id);
-        return product.map(this::convertToDto).orElse(null);
+        return productStockView.withCurrentStock(productCatalog.findProduct(id));
     }
     
-    @Cacheable(value = "products", key = "'all_active'")
-    public List<ProductDto> getAllActiveProducts() {
-        List<Product> products = productRepository.findByActiveTrue();
+    // 주문 생성 시 장바구니의 상품들을 한 번의 쿼리로 조회한다 (존재하지 않는 id 는 결과에서 빠진다)
+    public List<ProductDto> getProductsByIds(List<Long> ids) {
+        List<Product> products = productRepository.findAllById(ids);
         return products.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
-    @Cacheable(value = "flash_sale_products", key = "'active'")
+    /**
+     * 캐시된 활성 상품 목록(id 내림차순)에서 afterId 다음부터 size 개를 잘라 재고만 덮어쓴다.
+     * 페이지마다 DB 를 읽지 않고, 재고 조회도 페이지 안의 상품으로 한정된다.
+     */
+    public CursorPage<ProductDto> getActiveProducts(Long afterId, int size) {
+        List<ProductDto> products = productCatalog.findAllActive();
+        int from = 0;
+        if (afterId != null) {
+            int low = 0;
+            int high = products.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (products.get(mid).getId() >= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            from = low;
+        }
+        int to = Math.min(from + size, products.size());
+        List<ProductDto> page = productStockView.withCurrentStock(products.subList(from, to));
+        String nextCursor = to < products.size() && !page.isEmpty()
+                ? String.valueOf(page.get(page.size() - 1).getId())
+                : null;
+        return new CursorPage<>(page, nextCursor);
+    }
+    
     public List<ProductDto> getActiveFlashSaleProducts() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Product> products = productRepository.findActiveFlashSaleProducts(now);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productStockView.withCurrentStock(productCatalog.findActiveFlashSale());
     }
     
     public List<ProductDto> getProductsByCategory(Long categoryId) {
-        List<Product> products = productRepository.findByCategoryIdAndActiveTrue(categoryId);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productStockView.withCurrentStock(productCatalog.findByCategory(categoryId));
     }
     
-    public List<ProductDto> searchProducts(String keyword) {
-        List<Product> products = productRepository.findByKeyword(keyword);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    // 검색 인덱스에서 관련도 순으로 id 를 받고, 상품 정보는 near cache 에서 채운다
+    public Page<ProductDto> searchProducts(String keyword, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        if (!productSearchIndex.isReady()) {
+            Page<Product> products = productRepository.findByKeyword(keyword,
+                    pageRequest.withSort(Sort.by(Sort.Direction.DESC, "id")));
+            return products.map(this::convertToDto);
+        }
+
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(keyword, (int) pageRequest.getOffset(), size);
+        List<ProductDto> products = new ArrayList<>(result.getProductIds().size());
+        for (Long id : result.getProductIds()) {
+            ProductDto product = productCatalog.findProduct(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return new PageImpl<>(productStockView.withCurrentStock(products), pageRequest, result.getTotal());
+    }
+    
+    public List<String> suggestProductNames(String prefix, int limit) {
+        return productSearchIndex.suggest(prefix, limit);
     }
     
+    // 캐시는 커밋 이후 해당 상품 키와 그 상품이 속한 목록만 갱신한다
     @Transactional
-    @CacheEvict(value = {"products", "flash_sale_products"}, allEntries = true)
     public ProductDto createProduct(ProductDto productDto) {
         Product product = convertToEntity(productDto);
         Product savedProduct = productRepository.save(product);
+        productCacheUpdater.productChanged(null, savedProduct);
+        productSearchIndex.productChanged(savedProduct);
         return convertToDto(savedProduct);
     }
     
     @Transactional
-    @CacheEvict(value = {"products", "flash_sale_products"}, allEntries = true)
     public ProductDto updateProduct(Long id, ProductDto productDto) {
         return productRepository.findById(id)
                 .map(product -> {
+                    int previousAvailableStock = product.getAvailableStock();
+                    Long previousCategoryId = product.getCategoryId();
                     updateProductFields(product, productDto);
                     Product savedProduct = productRepository.save(product);
+                    stockReservationEngine.applyProductChange(savedProduct,
+                            savedProduct.getAvailableStock() - previousAvailableStock);
+                    productCacheUpdater.productChanged(previousCategoryId, savedProduct);
+                    productSearchIndex.productChanged(savedProduct);
                     return convertToDto(savedProduct);
                 })
                 .orElse(null);
@@ -133,207 +194,51 @@ public class ProductService {
         }
     }
     
-    @Transactional
     public boolean reserveStock(StockReservationRequest request) {
-        String lockKey = "stock_lock:" + request.getProductId();
-        Boolean lockAcquired = redisTemplate.opsForValue()
-                .setIfAbsent(lockKey, "locked", 5, TimeUnit.SECONDS);
-        
-        if (!lockAcquired) {
-            return false;
-        }
-        
-        try {
-            Optional<Product> productOpt = productRepository.findByIdWithLock(request.getProductId());
-            if (productOpt.isEmpty()) {
-                return false;
-            }
-            
-            Product product = productOpt.get();
-            
-            // 플래시 세일 상품인 경우 추가 검증
-            if (product.getFlashSale() && !product.isFlashSaleActive()) {
-                return false;
-            }
-            
-            if (!product.hasAvailableStock(request.getQuantity())) {
-                return false;
-            }
-
-            try {
-                product.reserveStock(request.getQuantity());
-                productRepository.save(product);
-
-                String reservationKey = "reservation:" + request.getOrderId();
-                redisTemplate.opsForHash().put(reservationKey, "productId", request.getProductId());
-                redisTemplate.opsForHash().put(reservationKey, "quantity", request.getQuantity());
-                redisTemplate.opsForHash().put(reservationKey, "userId", request.getUserId());
-                redisTemplate.expire(reservationKey, 10, TimeUnit.MINUTES);
-
-                evictProductCache(request.getProductId());
-                return true;
-            } catch (IllegalArgumentException e) {
-                return false;
-            }
-        } finally {
-            redisTemplate.delete(lockKey);
-        }
+        ReservationResult result = stockReservationEngine.reserve(
+                request.getProductId(), request.getQuantity(), request.getOrderId(), request.getUserId());
+        return result.isSuccess();
     }
     
-    @Transactional
-    public boolean confirmStockReduction(String orderId, Long productId, Integer quantity) {
-        String reservationKey = "reservation:" + orderId;
-        Object reservedProductId = redisTemplate.opsForHash().get(reservationKey, "productId");
-        Object reservedQuantity = redisTemplate.opsForHash().get(reservationKey, "quantity");
-        
-        if (reservedProductId == null || !reservedProductId.equals(productId) ||
-            reservedQuantity == null || !reservedQuantity.equals(quantity)) {
-            return false;
-        }
-        
-        Optional<Product> productOpt = productRepository.findById(productId);
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            try {
-                product.confirmStockReduction(quantity);
-                productRepository.save(product);
-                redisTemplate.delete(reservationKey);
-                evictProductCache(productId);
-                return true;
-            } catch (IllegalArgumentException e) {
-                return false;
+    public BatchReservationResult reserveStockBatch(BatchStockReservationRequest request) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (BatchStockReservationRequest.Item item : request.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                return BatchReservationResult.failed(ReservationResult.INSUFFICIENT_STOCK, item.getProductId());
             }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
 
-        return false;
+        return stockReservationEngine.reserveAll(request.getOrderId(), request.getUserId(), quantities);
+    }
+    
+    public boolean confirmStockReduction(String orderId, Long productId, Integer quantity) {
+        return stockReservationEngine.confirm(orderId, productId, quantity);
     }
     
-    @Transactional
     public boolean releaseReservedStock(String orderId, Long productId, Integer quantity) {
-        String reservationKey = "reservation:" + orderId;
-        Object reservedProductId = redisTemplate.opsForHash().get(reservationKey, "productId");
-        Object reservedQuantity = redisTemplate.opsForHash().get(reservationKey, "quantity");
-
-        if (reservedProductId == null || !reservedProductId.equals(productId) ||
-            reservedQuantity == null || !reservedQuantity.equals(quantity)) {
-            return false;
-        }
-
-        Optional<Product> productOpt = productRepository.findById(productId);
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            try {
-                product.releaseReservedStock(quantity);
-                productRepository.save(product);
-                redisTemplate.delete(reservationKey);
-                evictProductCache(productId);
-                return true;
-            } catch (IllegalArgumentException e) {
-                return false;
-            }
-        }
+        return stockReservationEngine.release(orderId, productId, quantity);
+    }
 
-        return false;
+    /**
+     * 주문 취소/만료 시 주문의 모든 라인을 한 번에 해제한다.
+     *
+     * @return 해제된 라인 수
+     */
+    public int releaseReservedStockBatch(String orderId, Map<Long, Integer> quantities) {
+        return stockReservationEngine.releaseAll(orderId, quantities).size();
     }
 
-    @Transactional
     public boolean reserveStock(Long productId, Integer quantity, String orderId) {
-        String lockKey = "stock_lock:" + productId;
-        Boolean lockAcquired = redisTemplate.opsForValue()
-                .setIfAbsent(lockKey, "locked", 5, TimeUnit.SECONDS);
-
-        if (!lockAcquired) {
-            return false;
-        }
-
-        try {
-            Optional<Product> productOpt = productRepository.findByIdWithLock(productId);
-            if (productOpt.isEmpty()) {
-                return false;
-            }
-
-            Product product = productOpt.get();
-
-            if (product.getFlashSale() && !product.isFlashSaleActive()) {
-                return false;
-            }
-
-            if (!product.hasAvailableStock(quantity)) {
-                return false;
-            }
-
-            try {
-                product.reserveStock(quantity);
-                productRepository.save(product);
-
-                String reservationKey = "reservation:" + orderId;
-                redisTemplate.opsForHash().put(reservationKey, "productId", productId);
-                redisTemplate.opsForHash().put(reservationKey, "quantity", quantity);
-                redisTemplate.expire(reservationKey, 10, TimeUnit.MINUTES);
-
-                evictProductCache(productId);
-                return true;
-            } catch (IllegalArgumentException e) {
-                return false;
-            }
-        } finally {
-            redisTemplate.delete(lockKey);
-        }
+        return stockReservationEngine.reserve(productId, quantity, orderId, null).isSuccess();
     }
 
-    @Transactional
     public boolean releaseReservedStock(Long productId, Integer quantity, String orderId) {
-        String reservationKey = "reservation:" + orderId;
-        Object reservedProductId = redisTemplate.opsForHash().get(reservationKey, "productId");
-        Object reservedQuantity = redisTemplate.opsForHash().get(reservationKey, "quantity");
-
-        if (reservedProductId != null && reservedProductId.equals(productId) &&
-            reservedQuantity != null && reservedQuantity.equals(quantity)) {
-
-            Optional<Product> productOpt = productRepository.findById(productId);
-            if (productOpt.isPresent()) {
-                Product product = productOpt.get();
-                try {
-                    product.releaseReservedStock(quantity);
-                    productRepository.save(product);
-                    redisTemplate.delete(reservationKey);
-                    evictProductCache(productId);
-                    return true;
-                } catch (IllegalArgumentException e) {
-                    return false;
-                }
-            }
-        }
-
-        return false;
-    }
-    
-    private void evictProductCache(Long productId) {
-        redisTemplate.delete(PRODUCT_CACHE_KEY + productId);
-        redisTemplate.delete(FLASH_SALE_CACHE_KEY);
+        return releaseReservedStock(orderId, productId, quantity);
     }
     
     private ProductDto convertToDto(Product product) {
-        return new ProductDto(
-            product.getId(),
-            product.getName(),
-            product.getDescription(),
-            product.getPrice(),
-            product.getOriginalPrice(),
-            product.getStock(),
-            product.getAvailableStock(),
-            product.getCategoryId(),
-            product.getImageUrl(),
-            product.getActive(),
-            product.getFlashSale(),
-            product.getFlashSaleStartTime(),
-            product.getFlashSaleEndTime(),
-            product.getFlashSaleStock(),
-            product.getDiscountRate(),
-            product.getCreatedAt(),
-            product.getUpdatedAt(),
-            product.isFlashSaleActive()
-        );
+        return ProductCatalog.toDto(product);
     }
     
     private Product convertToEntity(ProductDto dto) {
@@ -0,0 +1,165 @@
+package com.jun.productservice.service.catalog;
+
+import com.jun.productservice.cache.TwoLevelCache;
+import com.jun.productservice.dto.ProductDto;
+import com.jun.productservice.entity.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 상품이 생성/수정되면 캐시 전체를 비우지 않고 해당 상품 키를 새 값으로 덮어쓰고, 그 상품이 들어가는 목록 캐시
+ * (전체 활성 목록, 카테고리별 목록, 플래시 세일 목록)에서 한 항목만 교체/추가/제거한다.
+ * 목록 갱신은 인스턴스 간 lost update 를 막기 위해 Redis 락을 잡은 상태에서 L2 값을 기준으로 하며,
+ * 락을 못 잡거나 갱신에 실패하면 해당 목록 키 하나만 무효화한다.
+ */
+@Component
+public class ProductCacheUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheUpdater.class);
+
+    private static final String ALL_ACTIVE_KEY = "all_active";
+    private static final String CATEGORY_KEY_PREFIX = "category:";
+    private static final String FLASH_SALE_KEY = "active";
+    private static final String LOCK_KEY_PREFIX = "cache:lock:";
+    private static final Duration LOCK_TTL = Duration.ofSeconds(5);
+
+    private final Cache products;
+    private final Cache productLists;
+    private final Cache flashSaleProducts;
+    private final ProductStockView productStockView;
+    private final StringRedisTemplate redisTemplate;
+
+    public ProductCacheUpdater(CacheManager cacheManager,
+                               ProductStockView productStockView,
+                               StringRedisTemplate redisTemplate) {
+        this.products = cacheManager.getCache("products");
+        this.productLists = cacheManager.getCache("product_lists");
+        this.flashSaleProducts = cacheManager.getCache("flash_sale_products");
+        this.productStockView = productStockView;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 트랜잭션 안에서 호출되면 커밋 이후에 반영한다. previousCategoryId 는 수정 전 카테고리로, 카테고리가 바뀐
+     * 경우 이전 카테고리 목록에서 상품을 빼는 데 쓰인다 (신규 상품이면 null).
+     */
+    public void productChanged(Long previousCategoryId, Product product) {
+        // updatedAt 은 flush 시점에 채워지므로 DTO 는 커밋 이후에 만든다
+        Runnable apply = () -> apply(previousCategoryId, ProductCatalog.toDto(product));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void apply(Long previousCategoryId, ProductDto product) {
+        boolean active = Boolean.TRUE.equals(product.getActive());
+
+        try {
+            products.put(product.getId(), product);
+        } catch (Exception e) {
+            logger.warn("Failed to write through product {} to cache: {}", product.getId(), e.getMessage());
+            evictQuietly(products, product.getId());
+        }
+        productStockView.evict(product.getId());
+
+        patchList(productLists, ALL_ACTIVE_KEY, product, active);
+        if (product.getCategoryId() != null) {
+            patchList(productLists, CATEGORY_KEY_PREFIX + product.getCategoryId(), product, active);
+        }
+        if (previousCategoryId != null && !Objects.equals(previousCategoryId, product.getCategoryId())) {
+            patchList(productLists, CATEGORY_KEY_PREFIX + previousCategoryId, product, false);
+        }
+        patchList(flashSaleProducts, FLASH_SALE_KEY, product,
+                active && Boolean.TRUE.equals(product.getFlashSaleActive()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void patchList(Cache cache, String key, ProductDto product, boolean include) {
+        String lockKey = LOCK_KEY_PREFIX + cache.getName() + ":" + key;
+        Boolean locked;
+        try {
+            locked = redisTemplate.opsForValue().setIfAbsent(lockKey, "1", LOCK_TTL);
+        } catch (Exception e) {
+            locked = false;
+        }
+        if (!Boolean.TRUE.equals(locked)) {
+            evictQuietly(cache, key);
+            return;
+        }
+
+        try {
+            Cache.ValueWrapper current = cache instanceof TwoLevelCache twoLevelCache
+                    ? twoLevelCache.getRemote(key)
+                    : cache.get(key);
+            if (current == null || !(current.get() instanceof List<?>)) {
+                // 아직 로드되지 않은 목록은 다음 조회 때 만들어진다. 다른 인스턴스의 L1 만 정리한다.
+                cache.evict(key);
+                return;
+            }
+            cache.put(key, patched((List<ProductDto>) current.get(), product, include));
+        } catch (Exception e) {
+            logger.warn("Failed to patch {}::{} for product {}: {}", cache.getName(), key, product.getId(), e.getMessage());
+            evictQuietly(cache, key);
+        } finally {
+            redisTemplate.delete(lockKey);
+        }
+    }
+
+    private List<ProductDto> patched(List<ProductDto> current, ProductDto product, boolean include) {
+        List<ProductDto> next = new ArrayList<>(current.size() + 1);
+        boolean found = false;
+        for (ProductDto entry : current) {
+            if (!Objects.equals(entry.getId(), product.getId())) {
+                next.add(entry);
+                continue;
+            }
+            found = true;
+            if (isNewer(entry, product)) {
+                // 목록에 이미 더 최근 수정이 반영되어 있다
+                next.add(entry);
+            } else if (include) {
+                next.add(product);
+            }
+        }
+        if (!found && include) {
+            // 전체 활성 목록의 id 내림차순을 유지한다
+            int position = 0;
+            while (position < next.size() && next.get(position).getId() > product.getId()) {
+                position++;
+            }
+            next.add(position, product);
+        }
+        return next;
+    }
+
+    private boolean isNewer(ProductDto cached, ProductDto product) {
+        return cached.getUpdatedAt() != null && product.getUpdatedAt() != null
+                && cached.getUpdatedAt().isAfter(product.getUpdatedAt());
+    }
+
+    private void evictQuietly(Cache cache, Object key) {
+        try {
+            cache.evict(key);
+        } catch (Exception e) {
+            logger.warn("Failed to evict {}::{}: {}", cache.getName(), key, e.getMessage());
+        }
+    }
+}
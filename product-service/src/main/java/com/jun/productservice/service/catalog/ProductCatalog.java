@@ -0,0 +1,75 @@
+package com.jun.productservice.service.catalog;
+
+import com.jun.productservice.dto.ProductDto;
+import com.jun.productservice.entity.Product;
+import com.jun.productservice.repository.ProductRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 자주 바뀌지 않는 상품 정보를 조회해 near cache(L1 Caffeine + L2 Redis)에 올린다.
+ * 재고 값은 캐시된 시점의 것이므로 응답 전에 {@link ProductStockView} 로 덮어써야 한다.
+ * 상품이 수정되면 {@link ProductCacheUpdater} 가 해당 키와 목록만 갱신한다.
+ */
+@Component
+public class ProductCatalog {
+
+    private final ProductRepository productRepository;
+
+    public ProductCatalog(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Cacheable(value = "products", key = "#id", sync = true)
+    public ProductDto findProduct(Long id) {
+        return productRepository.findById(id).map(ProductCatalog::toDto).orElse(null);
+    }
+
+    // id 내림차순으로 정렬해 두어 목록 API 가 캐시된 목록에서 바로 키셋 페이지를 잘라낼 수 있다
+    @Cacheable(value = "product_lists", key = "'all_active'", sync = true)
+    public List<ProductDto> findAllActive() {
+        return productRepository.findByActiveTrueOrderByIdDesc().stream()
+                .map(ProductCatalog::toDto)
+                .toList();
+    }
+
+    @Cacheable(value = "flash_sale_products", key = "'active'", sync = true)
+    public List<ProductDto> findActiveFlashSale() {
+        return productRepository.findActiveFlashSaleProducts(LocalDateTime.now()).stream()
+                .map(ProductCatalog::toDto)
+                .toList();
+    }
+
+    @Cacheable(value = "product_lists", key = "'category:' + #categoryId", sync = true)
+    public List<ProductDto> findByCategory(Long categoryId) {
+        return productRepository.findByCategoryIdAndActiveTrue(categoryId).stream()
+                .map(ProductCatalog::toDto)
+                .toList();
+    }
+
+    public static ProductDto toDto(Product product) {
+        return new ProductDto(
+            product.getId(),
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            product.getOriginalPrice(),
+            product.getStock(),
+            product.getAvailableStock(),
+            product.getCategoryId(),
+            product.getImageUrl(),
+            product.getActive(),
+            product.getFlashSale(),
+            product.getFlashSaleStartTime(),
+            product.getFlashSaleEndTime(),
+            product.getFlashSaleStock(),
+            product.getDiscountRate(),
+            product.getCreatedAt(),
+            product.getUpdatedAt(),
+            product.isFlashSaleActive()
+        );
+    }
+}
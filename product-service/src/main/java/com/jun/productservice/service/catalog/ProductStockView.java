@@ -0,0 +1,97 @@
+package com.jun.productservice.service.catalog;
+
+import com.jun.productservice.dto.ProductDto;
+import com.jun.productservice.dto.ProductStockDto;
+import com.jun.productservice.repository.ProductRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 캐시된 상품 정보에 최신 재고를 덮어쓴다. 재고는 product_stock 캐시(짧은 TTL)에 상품 단위로 두고,
+ * 미스난 상품만 한 번의 IN 쿼리로 읽어 채운다. 캐시된 ProductDto 는 L1 에서 공유되므로 항상 복사본을 만든다.
+ * 재고 변경은 StockLedger 가 DB 에 반영한 뒤에 상품 단위로 무효화한다 (예약마다 비우면 반영 전 값을 다시 캐시한다).
+ */
+@Component
+public class ProductStockView {
+
+    static final String CACHE_NAME = "product_stock";
+
+    private final ProductRepository productRepository;
+    private final Cache stockCache;
+
+    public ProductStockView(ProductRepository productRepository, CacheManager cacheManager) {
+        this.productRepository = productRepository;
+        this.stockCache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    public ProductDto withCurrentStock(ProductDto product) {
+        if (product == null) {
+            return null;
+        }
+        return withCurrentStock(List.of(product)).get(0);
+    }
+
+    public List<ProductDto> withCurrentStock(List<ProductDto> products) {
+        Map<Long, ProductStockDto> stocks = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (ProductDto product : products) {
+            ProductStockDto stock = stockCache.get(product.getId(), ProductStockDto.class);
+            if (stock != null) {
+                stocks.put(product.getId(), stock);
+            } else {
+                misses.add(product.getId());
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (ProductStockDto stock : productRepository.findStockByIdIn(misses)) {
+                stockCache.putIfAbsent(stock.getProductId(), stock);
+                stocks.put(stock.getProductId(), stock);
+            }
+        }
+
+        List<ProductDto> result = new ArrayList<>(products.size());
+        for (ProductDto product : products) {
+            result.add(copyWithStock(product, stocks.get(product.getId())));
+        }
+        return result;
+    }
+
+    public void evict(Long productId) {
+        stockCache.evict(productId);
+    }
+
+    private ProductDto copyWithStock(ProductDto product, ProductStockDto stock) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean flashSaleActive = Boolean.TRUE.equals(product.getFlashSale())
+                && product.getFlashSaleStartTime() != null && product.getFlashSaleEndTime() != null
+                && now.isAfter(product.getFlashSaleStartTime()) && now.isBefore(product.getFlashSaleEndTime());
+
+        return new ProductDto(
+            product.getId(),
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            product.getOriginalPrice(),
+            stock != null ? stock.getStock() : product.getStock(),
+            stock != null ? stock.getAvailableStock() : product.getAvailableStock(),
+            product.getCategoryId(),
+            product.getImageUrl(),
+            product.getActive(),
+            product.getFlashSale(),
+            product.getFlashSaleStartTime(),
+            product.getFlashSaleEndTime(),
+            product.getFlashSaleStock(),
+            product.getDiscountRate(),
+            product.getCreatedAt(),
+            product.getUpdatedAt(),
+            flashSaleActive
+        );
+    }
+}
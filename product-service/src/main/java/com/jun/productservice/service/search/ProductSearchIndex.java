@@ -0,0 +1,398 @@
+package com.jun.productservice.service.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jun.productservice.entity.Product;
+import com.jun.productservice.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 활성 상품의 이름/설명을 프로세스 안의 역색인으로 들고 있는 검색 인덱스. 한국어처럼 띄어쓰기 단위가 검색어와
+ * 맞지 않는 경우를 위해 단어를 문자 1-gram/2-gram 으로 색인하고, 후보를 실제 부분 문자열 포함 여부로 확인해
+ * 기존 LIKE 검색과 같은 결과를 관련도 순으로 돌려준다.
+ *
+ * <p>상품이 생성/수정되면 커밋 이후 로컬 인덱스를 갱신하고 product:changed 채널로 id 를 브로드캐스트해
+ * 다른 인스턴스가 DB 에서 다시 읽어 반영한다. 유실된 메시지는 주기적인 전체 재색인으로 보정한다.
+ * 첫 색인이 끝나기 전에는 {@link #isReady()} 가 false 이며 호출자는 DB 검색을 사용한다.
+ */
+@Component
+public class ProductSearchIndex implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    public static final String CHANNEL = "product:changed";
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<String, List<String>> suggestionCache;
+    private final long rebuildIntervalMs;
+    // 전체 재색인은 활성 상품을 모두 읽으므로 기본 스케줄러 스레드를 쓰지 않는다 (outbox 릴레이 등이 함께 쓴다)
+    private final ScheduledExecutorService rebuildScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-search-rebuild").daemon().factory());
+
+    private final Object writeLock = new Object();
+    private volatile Index index = new Index();
+    private volatile boolean ready;
+    // 전체 재색인 중에 들어온 변경. 새 인덱스로 교체하기 직전에 다시 적용한다.
+    private List<Product> changesDuringRebuild;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              @Value("${search.suggest.cache-max-size:10000}") long suggestCacheMaxSize,
+                              @Value("${search.suggest.cache-ttl:60s}") Duration suggestCacheTtl,
+                              @Value("${search.index.rebuild-interval-ms:600000}") long rebuildIntervalMs) {
+        this.productRepository = productRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.suggestionCache = Caffeine.newBuilder()
+                .maximumSize(suggestCacheMaxSize)
+                .expireAfterWrite(suggestCacheTtl)
+                .build();
+        this.rebuildIntervalMs = rebuildIntervalMs;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        // 첫 색인도 같은 스레드에서 바로 시작한다. 끝나기 전까지는 DB 검색으로 응답한다
+        rebuildScheduler.scheduleWithFixedDelay(this::rebuild, 0, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildScheduler.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 검색어의 모든 단어가 이름이나 설명에 포함된 활성 상품을 관련도 순으로 정렬해 offset 부터 limit 개 반환한다.
+     * 이름에서 단어와 정확히 일치 > 단어의 접두어 > 부분 일치 > 설명에 포함 순으로 가중치를 주고, 동점이면 최신 상품이 먼저다.
+     */
+    public SearchResult search(String keyword, int offset, int limit) {
+        List<String> terms = tokenize(keyword);
+        if (terms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        Index current = index;
+        Map<Long, Integer> scores = null;
+        for (String term : terms) {
+            Map<Long, Integer> termScores = new HashMap<>();
+            for (Long id : current.candidates(term)) {
+                if (scores != null && !scores.containsKey(id)) {
+                    continue;
+                }
+                Document document = current.documents.get(id);
+                int score = document != null ? document.score(term) : 0;
+                if (score > 0) {
+                    termScores.put(id, score + (scores != null ? scores.get(id) : 0));
+                }
+            }
+            scores = termScores;
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = offset; i < ranked.size() && ids.size() < limit; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return new SearchResult(ids, ranked.size());
+    }
+
+    /**
+     * 이름(또는 이름 속 단어)이 prefix 로 시작하는 상품명을 최대 limit 개 반환한다. 결과는 인덱스가 바뀔 때까지 캐시된다.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String normalized = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return suggestionCache.get(normalized + "|" + limit, key -> index.suggest(normalized, limit));
+    }
+
+    public void productChanged(Product product) {
+        Runnable apply = () -> {
+            apply(product);
+            broadcast(product.getId());
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            Long productId = Long.valueOf(body);
+            productRepository.findById(productId).ifPresent(this::apply);
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed product change event: {}", body);
+        } catch (Exception e) {
+            logger.error("Failed to reindex product {}: {}", body, e.getMessage());
+        }
+    }
+
+    public void rebuild() {
+        synchronized (writeLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            Index rebuilt = new Index();
+            for (Product product : productRepository.findByActiveTrue()) {
+                rebuilt.put(product);
+            }
+            synchronized (writeLock) {
+                changesDuringRebuild.forEach(rebuilt::apply);
+                index = rebuilt;
+                ready = true;
+                suggestionCache.invalidateAll();
+            }
+            logger.debug("Rebuilt product search index: {} products in {}ms",
+                    rebuilt.documents.size(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            logger.error("Failed to rebuild product search index: {}", e.getMessage());
+        } finally {
+            synchronized (writeLock) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    private void apply(Product product) {
+        synchronized (writeLock) {
+            index.apply(product);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(product);
+            }
+            suggestionCache.invalidateAll();
+        }
+    }
+
+    private void broadcast(Long productId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, String.valueOf(productId));
+        } catch (Exception e) {
+            logger.error("Failed to broadcast product change for {}: {}", productId, e.getMessage());
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public static class SearchResult {
+        private final List<Long> productIds;
+        private final int total;
+
+        SearchResult(List<Long> productIds, int total) {
+            this.productIds = productIds;
+            this.total = total;
+        }
+
+        public List<Long> getProductIds() { return productIds; }
+        public int getTotal() { return total; }
+    }
+
+    /**
+     * 색인 자료구조. 쓰기는 writeLock 아래에서만 일어나고 읽기는 잠금 없이 수행되므로 동시 자료구조를 쓴다.
+     */
+    private static final class Index {
+        private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, Set<Long>> nameWords = new ConcurrentSkipListMap<>();
+
+        void apply(Product product) {
+            remove(product.getId());
+            if (Boolean.TRUE.equals(product.getActive())) {
+                put(product);
+            }
+        }
+
+        void put(Product product) {
+            Document document = new Document(product.getId(), product.getName(), product.getDescription());
+            documents.put(document.id, document);
+            for (String gram : document.grams()) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(document.id);
+            }
+            for (String word : document.nameKeys()) {
+                nameWords.computeIfAbsent(word, w -> ConcurrentHashMap.newKeySet()).add(document.id);
+            }
+        }
+
+        void remove(Long productId) {
+            Document document = documents.remove(productId);
+            if (document == null) {
+                return;
+            }
+            for (String gram : document.grams()) {
+                removePosting(postings, gram, productId);
+            }
+            for (String word : document.nameKeys()) {
+                removePosting(nameWords, word, productId);
+            }
+        }
+
+        Set<Long> candidates(String term) {
+            List<String> grams = Document.queryGrams(term);
+            Set<Long> result = null;
+            for (String gram : grams) {
+                Set<Long> posting = postings.getOrDefault(gram, Collections.emptySet());
+                if (result == null) {
+                    result = new HashSet<>(posting);
+                } else {
+                    result.retainAll(posting);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result != null ? result : Set.of();
+        }
+
+        List<String> suggest(String prefix, int limit) {
+            Set<String> names = new LinkedHashSet<>();
+            for (Set<Long> ids : nameWords.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                for (Long id : ids) {
+                    Document document = documents.get(id);
+                    if (document != null) {
+                        names.add(document.name);
+                    }
+                    if (names.size() >= limit) {
+                        return new ArrayList<>(names);
+                    }
+                }
+            }
+            return new ArrayList<>(names);
+        }
+
+        private static void removePosting(Map<String, Set<Long>> map, String key, Long productId) {
+            map.computeIfPresent(key, (k, ids) -> {
+                ids.remove(productId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static final class Document {
+        private final Long id;
+        private final String name;
+        private final String lowerName;
+        private final String lowerDescription;
+        private final List<String> nameTokens;
+
+        Document(Long id, String name, String description) {
+            this.id = id;
+            this.name = name;
+            this.lowerName = name != null ? name.toLowerCase(Locale.ROOT) : "";
+            this.lowerDescription = description != null ? description.toLowerCase(Locale.ROOT) : "";
+            this.nameTokens = tokenize(name);
+        }
+
+        int score(String term) {
+            int score = 0;
+            if (nameTokens.contains(term)) {
+                score += 10;
+            } else if (nameTokens.stream().anyMatch(token -> token.startsWith(term))) {
+                score += 6;
+            } else if (lowerName.contains(term)) {
+                score += 4;
+            }
+            if (lowerDescription.contains(term)) {
+                score += 1;
+            }
+            return score;
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (String token : tokenize(lowerName + " " + lowerDescription)) {
+                for (int i = 0; i < token.length(); i++) {
+                    grams.add(token.substring(i, i + 1));
+                    if (i + 1 < token.length()) {
+                        grams.add(token.substring(i, i + 2));
+                    }
+                }
+            }
+            return grams;
+        }
+
+        // 단어별 접두어 검색과 상품명 전체 접두어 검색을 모두 지원한다
+        Set<String> nameKeys() {
+            Set<String> keys = new HashSet<>(nameTokens);
+            if (!lowerName.isBlank()) {
+                keys.add(lowerName.trim());
+            }
+            return keys;
+        }
+
+        static List<String> queryGrams(String term) {
+            if (term.length() == 1) {
+                return List.of(term);
+            }
+            List<String> grams = new ArrayList<>(term.length() - 1);
+            for (int i = 0; i + 1 < term.length(); i++) {
+                grams.add(term.substring(i, i + 2));
+            }
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.jun.productservice.service.stock;
+
+import java.util.List;
+
+public class BatchReservationResult {
+
+    private final ReservationResult result;
+    private final Long failedProductId;
+    private final List<Long> reservedProductIds;
+
+    private BatchReservationResult(ReservationResult result, Long failedProductId, List<Long> reservedProductIds) {
+        this.result = result;
+        this.failedProductId = failedProductId;
+        this.reservedProductIds = reservedProductIds;
+    }
+
+    public static BatchReservationResult reserved(List<Long> reservedProductIds) {
+        return new BatchReservationResult(ReservationResult.RESERVED, null, List.copyOf(reservedProductIds));
+    }
+
+    public static BatchReservationResult alreadyReserved() {
+        return new BatchReservationResult(ReservationResult.ALREADY_RESERVED, null, List.of());
+    }
+
+    public static BatchReservationResult failed(ReservationResult result, Long failedProductId) {
+        return new BatchReservationResult(result, failedProductId, List.of());
+    }
+
+    public boolean isSuccess() { return result.isSuccess(); }
+    public ReservationResult getResult() { return result; }
+    public Long getFailedProductId() { return failedProductId; }
+    public List<Long> getReservedProductIds() { return reservedProductIds; }
+}
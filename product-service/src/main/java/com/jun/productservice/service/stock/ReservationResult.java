@@ -0,0 +1,14 @@
+package com.jun.productservice.service.stock;
+
+public enum ReservationResult {
+    RESERVED,
+    ALREADY_RESERVED,
+    INSUFFICIENT_STOCK,
+    SOLD_OUT,
+    FLASH_SALE_NOT_ACTIVE,
+    PRODUCT_NOT_FOUND;
+
+    public boolean isSuccess() {
+        return this == RESERVED || this == ALREADY_RESERVED;
+    }
+}
@@ -0,0 +1,92 @@
+package com.jun.productservice.service.stock;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 품절된 상품 id 를 프로세스 안에 들고 있어 품절 상품에 대한 예약을 Redis 나 DB 에 가지 않고 거절한다.
+ * 상태는 {@link StockReservationEngine} 의 예약/해제/조정 스크립트가 카운터를 바꾸는 그 스크립트 안에서 Redis 집합(stock:sold-out)에
+ * 기록하고 stock:sold-out:events 채널로 브로드캐스트한다. 이 인스턴스를 포함한 모든 product-service 인스턴스와 게이트웨이가
+ * 메시지로 각자의 로컬 집합을 갱신하며, 유실된 메시지는 주기적인 재동기화로 보정한다.
+ */
+@Component
+public class SoldOutRegistry implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoldOutRegistry.class);
+
+    public static final String SOLD_OUT_KEY = "stock:sold-out";
+    public static final String CHANNEL = "stock:sold-out:events";
+
+    private final Set<Long> soldOut = ConcurrentHashMap.newKeySet();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public SoldOutRegistry(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        resync();
+    }
+
+    public boolean isSoldOut(Long productId) {
+        return productId != null && soldOut.contains(productId);
+    }
+
+    /**
+     * 재고가 돌아온 상품을 해제 메시지가 오기 전에 로컬 집합에서 먼저 뺀다.
+     * 잘못 빼더라도 예약이 Redis 스크립트까지 가서 판정받을 뿐이므로, 로컬에서 추가하는 것은 메시지에만 맡긴다.
+     */
+    public void clearLocally(Long productId) {
+        soldOut.remove(productId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.length() < 2) {
+            return;
+        }
+        try {
+            Long productId = Long.valueOf(body.substring(1));
+            if (body.charAt(0) == '+') {
+                soldOut.add(productId);
+            } else if (body.charAt(0) == '-') {
+                soldOut.remove(productId);
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed sold-out event: {}", body);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock.sold-out.resync-interval-ms:5000}")
+    public void resync() {
+        try {
+            Set<String> members = redisTemplate.opsForSet().members(SOLD_OUT_KEY);
+            Set<Long> latest = new HashSet<>();
+            if (members != null) {
+                members.forEach(member -> latest.add(Long.valueOf(member)));
+            }
+            soldOut.retainAll(latest);
+            soldOut.addAll(latest);
+        } catch (Exception e) {
+            logger.error("Failed to resync sold-out products: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.jun.productservice.service.stock;
+
+import com.jun.productservice.entity.StockLedgerBatch;
+import com.jun.productservice.repository.ProductRepository;
+import com.jun.productservice.repository.StockLedgerBatchRepository;
+import com.jun.productservice.service.catalog.ProductStockView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Redis 카운터에서 이미 확정된 재고 변경을 상품별 델타로 모아 두었다가 주기적으로 products 테이블에 반영하는
+ * write-behind 원장. 모든 변경은 먼저 로컬 저널 세그먼트에 append 되고, flush 시 세그먼트 단위로
+ * reserveStock / confirmStockReduction / releaseReservedStock 쿼리를 상품당 한 번씩 실행한다.
+ * 적용된 세그먼트 id 는 같은 트랜잭션에서 stock_ledger_batches 에 기록되어, 재시작 시 남은 저널을 다시 읽어도
+ * 두 번 반영되지 않는다. 세그먼트가 반영되면 그 상품들의 product_stock 캐시를 비워 다음 조회가 반영된 값을 읽게 한다.
+ */
+@Component
+public class StockLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockLedger.class);
+
+    private static final String SEGMENT_PREFIX = "stock-ledger-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final ProductRepository productRepository;
+    private final StockLedgerBatchRepository batchRepository;
+    private final ProductStockView productStockView;
+    private final TransactionTemplate transactionTemplate;
+    private final Path journalDir;
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final long startedAt = System.currentTimeMillis();
+    private final long flushIntervalMs;
+    // flush 는 전용 스레드로 돈다. 기본 스케줄러 스레드는 outbox 릴레이 등이 함께 써서 수 초씩 밀릴 수 있다
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("stock-ledger-flush").daemon().factory());
+
+    private final Object appendLock = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Deque<Segment> sealedSegments = new ArrayDeque<>();
+    private Segment activeSegment;
+    private long segmentSequence;
+
+    public StockLedger(ProductRepository productRepository,
+                       StockLedgerBatchRepository batchRepository,
+                       ProductStockView productStockView,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${stock.ledger.journal-dir:./data/stock-ledger}") String journalDir,
+                       @Value("${stock.ledger.flush-interval-ms:200}") long flushIntervalMs) {
+        this.productRepository = productRepository;
+        this.batchRepository = batchRepository;
+        this.productStockView = productStockView;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalDir = Paths.get(journalDir);
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        Files.createDirectories(journalDir);
+
+        try (Stream<Path> files = Files.list(journalDir)) {
+            List<Path> leftovers = files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+            for (Path path : leftovers) {
+                sealedSegments.addLast(Segment.load(path));
+            }
+            if (!leftovers.isEmpty()) {
+                logger.info("Replaying {} stock ledger segment(s) from {}", leftovers.size(), journalDir);
+            }
+        }
+
+        activeSegment = openSegment();
+        flush();
+        flushScheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void reserved(Long productId, Integer quantity) {
+        record(Operation.RESERVE, productId, quantity);
+    }
+
+    public void confirmed(Long productId, Integer quantity) {
+        record(Operation.CONFIRM, productId, quantity);
+    }
+
+    public void released(Long productId, Integer quantity) {
+        record(Operation.RELEASE, productId, quantity);
+    }
+
+    private void record(Operation operation, Long productId, Integer quantity) {
+        synchronized (appendLock) {
+            activeSegment.append(operation, productId, quantity);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // 예외가 나가면 이후 주기가 취소된다
+            logger.error("Failed to flush stock ledger: {}", e.getMessage());
+        }
+    }
+
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            seal();
+            applySealedSegments();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelay = 3_600_000)
+    public void pruneAppliedBatches() {
+        transactionTemplate.executeWithoutResult(status ->
+                batchRepository.deleteByAppliedAtBefore(LocalDateTime.now().minusDays(1)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        flushLock.lock();
+        try {
+            seal();
+            applySealedSegments();
+            synchronized (appendLock) {
+                activeSegment.close();
+                activeSegment.delete();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void seal() {
+        synchronized (appendLock) {
+            if (activeSegment.isEmpty()) {
+                return;
+            }
+            activeSegment.close();
+            sealedSegments.addLast(activeSegment);
+            activeSegment = openSegment();
+        }
+    }
+
+    private void applySealedSegments() {
+        while (!sealedSegments.isEmpty()) {
+            Segment segment = sealedSegments.peekFirst();
+            try {
+                apply(segment);
+            } catch (Exception e) {
+                // 순서를 유지하기 위해 실패한 세그먼트에서 멈추고 다음 주기에 다시 시도한다.
+                logger.error("Failed to flush stock ledger segment {}: {}", segment.getId(), e.getMessage());
+                return;
+            }
+            segment.delete();
+            sealedSegments.pollFirst();
+            segment.getDeltas().keySet().forEach(productStockView::evict);
+        }
+    }
+
+    private void apply(Segment segment) {
+        if (segment.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (batchRepository.existsById(segment.getId())) {
+                logger.debug("Stock ledger segment {} already applied, skipping", segment.getId());
+                return;
+            }
+
+            // 여러 인스턴스가 동시에 flush 해도 교착되지 않도록 상품 id 순서로 갱신한다.
+            for (Map.Entry<Long, StockDelta> entry : segment.getDeltas().entrySet()) {
+                Long productId = entry.getKey();
+                StockDelta delta = entry.getValue();
+                if (delta.reserved > 0) {
+                    productRepository.reserveStock(productId, delta.reserved);
+                }
+                if (delta.confirmed > 0) {
+                    productRepository.confirmStockReduction(productId, delta.confirmed);
+                }
+                if (delta.released > 0) {
+                    productRepository.releaseReservedStock(productId, delta.released);
+                }
+            }
+
+            batchRepository.save(new StockLedgerBatch(segment.getId(), segment.getEntryCount()));
+        });
+        logger.debug("Flushed stock ledger segment {} ({} entries, {} products)",
+                segment.getId(), segment.getEntryCount(), segment.getDeltas().size());
+    }
+
+    private Segment openSegment() {
+        String id = String.format("%s%d-%s-%06d", SEGMENT_PREFIX, startedAt, instanceId, segmentSequence++);
+        return Segment.open(journalDir.resolve(id + SEGMENT_SUFFIX), id);
+    }
+
+    private enum Operation {
+        RESERVE('R'),
+        CONFIRM('C'),
+        RELEASE('L');
+
+        private final char code;
+
+        Operation(char code) {
+            this.code = code;
+        }
+
+        static Operation fromCode(char code) {
+            for (Operation operation : values()) {
+                if (operation.code == code) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown ledger operation: " + code);
+        }
+    }
+
+    private static final class StockDelta {
+        private int reserved;
+        private int confirmed;
+        private int released;
+
+        void add(Operation operation, int quantity) {
+            switch (operation) {
+                case RESERVE -> reserved += quantity;
+                case CONFIRM -> confirmed += quantity;
+                case RELEASE -> released += quantity;
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final String id;
+        private final Map<Long, StockDelta> deltas = new TreeMap<>();
+        private BufferedWriter writer;
+        private int entryCount;
+
+        private Segment(Path path, String id) {
+            this.path = path;
+            this.id = id;
+        }
+
+        static Segment open(Path path, String id) {
+            Segment segment = new Segment(path, id);
+            try {
+                segment.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                // 저널을 열 수 없어도 메모리 델타는 계속 누적해 DB 반영은 이어가되, 크래시 복구는 보장되지 않는다.
+                logger.error("Failed to open stock ledger journal {}: {}", path, e.getMessage());
+            }
+            return segment;
+        }
+
+        static Segment load(Path path) throws IOException {
+            String fileName = path.getFileName().toString();
+            Segment segment = new Segment(path, fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(",");
+                    try {
+                        if (parts.length != 3 || parts[0].length() != 1) {
+                            throw new IllegalArgumentException("expected <op>,<productId>,<quantity>");
+                        }
+                        segment.accumulate(Operation.fromCode(parts[0].charAt(0)),
+                                Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+                    } catch (IllegalArgumentException e) {
+                        // 크래시로 잘린 마지막 줄 등
+                        logger.warn("Skipping malformed stock ledger entry in {}: {}", path, line);
+                    }
+                }
+            }
+            return segment;
+        }
+
+        void append(Operation operation, Long productId, Integer quantity) {
+            if (writer != null) {
+                try {
+                    writer.write(operation.code + "," + productId + "," + quantity + "\n");
+                    writer.flush();
+                } catch (IOException e) {
+                    logger.error("Failed to append stock ledger entry to {}: {}", path, e.getMessage());
+                }
+            }
+            accumulate(operation, productId, quantity);
+        }
+
+        private void accumulate(Operation operation, Long productId, int quantity) {
+            deltas.computeIfAbsent(productId, id -> new StockDelta()).add(operation, quantity);
+            entryCount++;
+        }
+
+        void close() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.error("Failed to close stock ledger journal {}: {}", path, e.getMessage());
+            }
+            writer = null;
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.error("Failed to delete stock ledger journal {}: {}", path, e.getMessage());
+            }
+        }
+
+        boolean isEmpty() { return entryCount == 0; }
+        String getId() { return id; }
+        Map<Long, StockDelta> getDeltas() { return deltas; }
+        int getEntryCount() { return entryCount; }
+    }
+}
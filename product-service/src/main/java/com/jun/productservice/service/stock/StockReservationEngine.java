@@ -0,0 +1,336 @@
+package com.jun.productservice.service.stock;
+
+import com.jun.productservice.entity.Product;
+import com.jun.productservice.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품별 가용 재고를 Redis 해시(stock:{productId})에 두고, 카운터 차감과 reservation:{orderId} 기록을
+ * 하나의 Lua 스크립트로 처리한다. DB 반영은 {@link StockLedger} 가 모아서 비동기로 수행한다.
+ * 품절된 상품은 {@link SoldOutRegistry} 에서 먼저 걸러 Redis 호출 없이 거절한다.
+ * 품절 표시(stock:sold-out)와 그 브로드캐스트는 카운터를 바꾸는 스크립트 안에서 함께 처리해 카운터와 어긋나지 않게 한다.
+ */
+@Component
+public class StockReservationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationEngine.class);
+
+    private static final String STOCK_KEY_PREFIX = "stock:";
+    private static final String RESERVATION_KEY_PREFIX = "reservation:";
+    // 미결제 주문은 order-service 의 만료 스케줄러가 취소 이벤트로 해제한다. TTL 은 그보다 늦게 끝나는 최후의 안전망이다.
+    // TTL 로 예약이 먼저 사라지면 해제 스크립트가 아무것도 돌려주지 못해 카운터와 reserved_stock 이 그대로 남는다.
+    private static final long RESERVATION_TTL_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    private static final RedisScript<Long> RESERVE_SCRIPT = script("scripts/reserve-stock.lua");
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_BATCH_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/reserve-stock-batch.lua"), List.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = script("scripts/release-stock.lua");
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RELEASE_BATCH_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/release-stock-batch.lua"), List.class);
+    private static final RedisScript<Long> LOAD_SCRIPT = script("scripts/load-stock.lua");
+    private static final RedisScript<Long> ADJUST_SCRIPT = script("scripts/adjust-stock.lua");
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final SoldOutRegistry soldOutRegistry;
+
+    public StockReservationEngine(StringRedisTemplate redisTemplate,
+                                  ProductRepository productRepository,
+                                  StockLedger stockLedger,
+                                  SoldOutRegistry soldOutRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.productRepository = productRepository;
+        this.stockLedger = stockLedger;
+        this.soldOutRegistry = soldOutRegistry;
+    }
+
+    public ReservationResult reserve(Long productId, Integer quantity, String orderId, Long userId) {
+        if (quantity == null || quantity <= 0) {
+            return ReservationResult.INSUFFICIENT_STOCK;
+        }
+        if (soldOutRegistry.isSoldOut(productId)) {
+            return ReservationResult.SOLD_OUT;
+        }
+
+        Long result = runReserve(productId, quantity, orderId, userId);
+        if (result == -1L) {
+            if (!loadCounter(productId)) {
+                return ReservationResult.PRODUCT_NOT_FOUND;
+            }
+            result = runReserve(productId, quantity, orderId, userId);
+        }
+
+        ReservationResult reservationResult = toReservationResult(result);
+        if (reservationResult == ReservationResult.RESERVED) {
+            stockLedger.reserved(productId, quantity);
+        }
+        return reservationResult;
+    }
+
+    /**
+     * 주문의 모든 라인을 하나의 Lua 스크립트로 예약한다. 한 라인이라도 실패하면 어떤 카운터도 변경되지 않는다.
+     * 같은 상품이 여러 라인에 있으면 수량을 합산하고, 키는 상품 id 순서로 넘긴다.
+     */
+    public BatchReservationResult reserveAll(String orderId, Long userId, Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> lines = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null || entry.getValue() <= 0) {
+                return BatchReservationResult.failed(ReservationResult.INSUFFICIENT_STOCK, entry.getKey());
+            }
+            if (soldOutRegistry.isSoldOut(entry.getKey())) {
+                return BatchReservationResult.failed(ReservationResult.SOLD_OUT, entry.getKey());
+            }
+            lines.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        if (lines.isEmpty()) {
+            return BatchReservationResult.failed(ReservationResult.INSUFFICIENT_STOCK, null);
+        }
+
+        List<Long> result = runReserveBatch(lines, orderId, userId);
+        // 카운터가 로드되지 않은 상품은 하나씩 로드하며 재시도한다 (라인 수만큼만).
+        for (int attempt = 0; attempt < lines.size() && result.get(0) == -1L; attempt++) {
+            Long missingProductId = result.get(1);
+            if (!loadCounter(missingProductId)) {
+                return BatchReservationResult.failed(ReservationResult.PRODUCT_NOT_FOUND, missingProductId);
+            }
+            result = runReserveBatch(lines, orderId, userId);
+        }
+
+        long status = result.get(0);
+        if (status == 1L) {
+            List<Long> reservedProductIds = result.subList(2, result.size());
+            for (Long productId : reservedProductIds) {
+                stockLedger.reserved(productId, lines.get(productId));
+            }
+            return BatchReservationResult.reserved(reservedProductIds);
+        }
+        if (status == -3L) {
+            return BatchReservationResult.alreadyReserved();
+        }
+        return BatchReservationResult.failed(toReservationResult(status), result.get(1));
+    }
+
+    /**
+     * 예약은 상품별 합계로 기록되므로 quantity 는 주문에서 그 상품의 라인 수량을 모두 더한 값이어야 한다.
+     * 라인별 수량을 넘기면 같은 상품이 여러 라인에 있는 주문은 일치하는 예약을 찾지 못한다.
+     */
+    public boolean confirm(String orderId, Long productId, Integer quantity) {
+        if (!runRelease(orderId, productId, quantity, false)) {
+            return false;
+        }
+        stockLedger.confirmed(productId, quantity);
+        return true;
+    }
+
+    /**
+     * quantity 는 {@link #confirm} 과 같이 주문에서 그 상품의 수량 합계다.
+     */
+    public boolean release(String orderId, Long productId, Integer quantity) {
+        if (!runRelease(orderId, productId, quantity, true)) {
+            return false;
+        }
+        stockLedger.released(productId, quantity);
+        soldOutRegistry.clearLocally(productId);
+        return true;
+    }
+
+    /**
+     * 주문의 모든 라인 예약을 하나의 Lua 스크립트로 해제한다. 이미 해제되었거나 확정된 라인은 건너뛴다.
+     *
+     * @return 실제로 해제된 상품 id
+     */
+    public List<Long> releaseAll(String orderId, Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> lines = new TreeMap<>();
+        quantities.forEach((productId, quantity) -> {
+            if (productId != null && quantity != null && quantity > 0) {
+                lines.merge(productId, quantity, Integer::sum);
+            }
+        });
+        if (orderId == null || lines.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> keys = new ArrayList<>(lines.size() + 2);
+        List<String> args = new ArrayList<>(lines.size() * 2 + 1);
+        keys.add(reservationKey(orderId));
+        keys.add(SoldOutRegistry.SOLD_OUT_KEY);
+        args.add(SoldOutRegistry.CHANNEL);
+        lines.forEach((productId, quantity) -> {
+            keys.add(stockKey(productId));
+            args.add(String.valueOf(productId));
+            args.add(String.valueOf(quantity));
+        });
+
+        List<?> raw = redisTemplate.execute(RELEASE_BATCH_SCRIPT, keys, args.toArray());
+        if (raw == null || raw.isEmpty()) {
+            return List.of();
+        }
+        List<Long> released = new ArrayList<>(raw.size());
+        for (Object value : raw) {
+            Long productId = ((Number) value).longValue();
+            stockLedger.released(productId, lines.get(productId));
+            soldOutRegistry.clearLocally(productId);
+            released.add(productId);
+        }
+        return released;
+    }
+
+    /**
+     * 관리자 재고 수정이 이미 로드된 카운터에 반영되도록 가용 재고 변화량과 플래시 세일 기간을 적용한다.
+     */
+    public void applyProductChange(Product product, int availableDelta) {
+        Runnable apply = () -> {
+            redisTemplate.execute(ADJUST_SCRIPT, List.of(stockKey(product.getId()), SoldOutRegistry.SOLD_OUT_KEY),
+                    String.valueOf(availableDelta),
+                    flashSaleFlag(product),
+                    String.valueOf(toEpochMillis(product.getFlashSaleStartTime())),
+                    String.valueOf(toEpochMillis(product.getFlashSaleEndTime())),
+                    String.valueOf(product.getId()),
+                    SoldOutRegistry.CHANNEL);
+            if (availableDelta > 0) {
+                soldOutRegistry.clearLocally(product.getId());
+            }
+        };
+
+        // 롤백된 수정이 카운터에 남지 않도록 커밋 이후에 반영한다.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private Long runReserve(Long productId, Integer quantity, String orderId, Long userId) {
+        Long result = redisTemplate.execute(RESERVE_SCRIPT,
+                List.of(stockKey(productId), reservationKey(orderId), SoldOutRegistry.SOLD_OUT_KEY),
+                String.valueOf(productId),
+                String.valueOf(quantity),
+                userId != null ? String.valueOf(userId) : "",
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(RESERVATION_TTL_SECONDS),
+                SoldOutRegistry.CHANNEL);
+        return result != null ? result : 0L;
+    }
+
+    private List<Long> runReserveBatch(SortedMap<Long, Integer> lines, String orderId, Long userId) {
+        List<String> keys = new ArrayList<>(lines.size() + 2);
+        List<String> args = new ArrayList<>(lines.size() * 2 + 4);
+        keys.add(reservationKey(orderId));
+        keys.add(SoldOutRegistry.SOLD_OUT_KEY);
+        args.add(userId != null ? String.valueOf(userId) : "");
+        args.add(String.valueOf(System.currentTimeMillis()));
+        args.add(String.valueOf(RESERVATION_TTL_SECONDS));
+        args.add(SoldOutRegistry.CHANNEL);
+        lines.forEach((productId, quantity) -> {
+            keys.add(stockKey(productId));
+            args.add(String.valueOf(productId));
+            args.add(String.valueOf(quantity));
+        });
+
+        List<?> raw = redisTemplate.execute(RESERVE_BATCH_SCRIPT, keys, args.toArray());
+        if (raw == null || raw.size() < 2) {
+            return List.of(0L, 0L);
+        }
+        List<Long> result = new ArrayList<>(raw.size());
+        for (Object value : raw) {
+            result.add(((Number) value).longValue());
+        }
+        return result;
+    }
+
+    private boolean runRelease(String orderId, Long productId, Integer quantity, boolean returnToStock) {
+        if (orderId == null || productId == null || quantity == null) {
+            return false;
+        }
+        Long result = redisTemplate.execute(RELEASE_SCRIPT,
+                List.of(stockKey(productId), reservationKey(orderId), SoldOutRegistry.SOLD_OUT_KEY),
+                String.valueOf(productId),
+                String.valueOf(quantity),
+                returnToStock ? "1" : "0",
+                SoldOutRegistry.CHANNEL);
+        return result != null && result == 1L;
+    }
+
+    private boolean loadCounter(Long productId) {
+        Optional<Product> productOpt = productRepository.findById(productId);
+        if (productOpt.isEmpty()) {
+            return false;
+        }
+
+        Product product = productOpt.get();
+        Long seeded = redisTemplate.execute(LOAD_SCRIPT, List.of(stockKey(productId)),
+                String.valueOf(product.getAvailableStock()),
+                flashSaleFlag(product),
+                String.valueOf(toEpochMillis(product.getFlashSaleStartTime())),
+                String.valueOf(toEpochMillis(product.getFlashSaleEndTime())));
+        if (seeded != null && seeded == 1L) {
+            logger.debug("Loaded stock counter for product {}: available={}", productId, product.getAvailableStock());
+        }
+        return true;
+    }
+
+    private ReservationResult toReservationResult(long result) {
+        if (result == 1L) {
+            return ReservationResult.RESERVED;
+        }
+        if (result == -2L) {
+            return ReservationResult.FLASH_SALE_NOT_ACTIVE;
+        }
+        if (result == -3L) {
+            return ReservationResult.ALREADY_RESERVED;
+        }
+        if (result == -1L) {
+            return ReservationResult.PRODUCT_NOT_FOUND;
+        }
+        if (result == -4L) {
+            return ReservationResult.SOLD_OUT;
+        }
+        return ReservationResult.INSUFFICIENT_STOCK;
+    }
+
+    private String flashSaleFlag(Product product) {
+        return Boolean.TRUE.equals(product.getFlashSale()) ? "1" : "0";
+    }
+
+    private long toEpochMillis(LocalDateTime time) {
+        // 기간이 비어 있는 플래시 세일 상품은 Product.isFlashSaleActive() 와 동일하게 항상 비활성으로 취급된다.
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    private String stockKey(Long productId) {
+        return STOCK_KEY_PREFIX + productId;
+    }
+
+    private String reservationKey(String orderId) {
+        return RESERVATION_KEY_PREFIX + orderId;
+    }
+
+    private static RedisScript<Long> script(String path) {
+        return RedisScript.of(new ClassPathResource(path), Long.class);
+    }
+}
@@ -0,0 +1,28 @@
+-- KEYS[1] = stock:{productId}, KEYS[2] = stock:sold-out
+-- ARGV[1] = available delta, ARGV[2] = flashSale ('1' or '0'), ARGV[3] = saleStart (epoch millis), ARGV[4] = saleEnd (epoch millis),
+-- ARGV[5] = productId, ARGV[6] = sold-out channel
+-- Applies an admin stock/flash-sale change to a loaded counter; an unloaded counter is left for the next reservation to seed.
+-- The sold-out flag is updated in the same script as the counter change, so it can never disagree with the counter.
+local function flag(soldOut)
+    local changed
+    if soldOut then
+        changed = redis.call('SADD', KEYS[2], ARGV[5])
+    else
+        changed = redis.call('SREM', KEYS[2], ARGV[5])
+    end
+    if changed == 1 then
+        redis.call('PUBLISH', ARGV[6], (soldOut and '+' or '-') .. ARGV[5])
+    end
+end
+
+if redis.call('HEXISTS', KEYS[1], 'available') == 0 then
+    -- restocking a product whose counter is not loaded must not leave a stale flag behind
+    if tonumber(ARGV[1]) > 0 then
+        flag(false)
+    end
+    return 0
+end
+local available = redis.call('HINCRBY', KEYS[1], 'available', tonumber(ARGV[1]))
+redis.call('HSET', KEYS[1], 'flashSale', ARGV[2], 'saleStart', ARGV[3], 'saleEnd', ARGV[4])
+flag(available <= 0)
+return 1
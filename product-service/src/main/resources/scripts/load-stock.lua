@@ -0,0 +1,8 @@
+-- KEYS[1] = stock:{productId}
+-- ARGV[1] = available, ARGV[2] = flashSale ('1' or '0'), ARGV[3] = saleStart (epoch millis), ARGV[4] = saleEnd (epoch millis)
+-- Seeds the counter only if no other instance has done it first; returns 1 when seeded, 0 otherwise.
+if redis.call('HEXISTS', KEYS[1], 'available') == 1 then
+    return 0
+end
+redis.call('HSET', KEYS[1], 'available', ARGV[1], 'flashSale', ARGV[2], 'saleStart', ARGV[3], 'saleEnd', ARGV[4])
+return 1
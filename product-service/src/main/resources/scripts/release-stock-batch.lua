@@ -0,0 +1,28 @@
+-- KEYS[1] = reservation:{orderId}, KEYS[2] = stock:sold-out,
+-- KEYS[3..n+2] = stock:{productId} for each line, sorted by productId
+-- ARGV[1] = sold-out channel, ARGV[2..] = productId, quantity pairs in the same order as KEYS[3..]
+-- returns: released productIds. Lines without a matching reservation (already released or confirmed) are skipped.
+-- The sold-out flag is cleared in the same script as the counter change, so it can never disagree with the counter.
+local released = {}
+
+for i = 1, #KEYS - 2 do
+    local stockKey = KEYS[i + 2]
+    local productId = ARGV[i * 2]
+    local field = 'item:' .. productId
+    local reserved = redis.call('HGET', KEYS[1], field)
+    if reserved and tonumber(reserved) == tonumber(ARGV[i * 2 + 1]) then
+        redis.call('HDEL', KEYS[1], field)
+        if redis.call('HEXISTS', stockKey, 'available') == 1
+                and redis.call('HINCRBY', stockKey, 'available', tonumber(reserved)) > 0
+                and redis.call('SREM', KEYS[2], productId) == 1 then
+            redis.call('PUBLISH', ARGV[1], '-' .. productId)
+        end
+        released[#released + 1] = tonumber(productId)
+    end
+end
+
+local remaining = redis.call('HLEN', KEYS[1])
+if remaining == 0 or (remaining == 1 and redis.call('HEXISTS', KEYS[1], 'userId') == 1) then
+    redis.call('DEL', KEYS[1])
+end
+return released
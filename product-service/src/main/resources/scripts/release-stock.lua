@@ -0,0 +1,24 @@
+-- KEYS[1] = stock:{productId}, KEYS[2] = reservation:{orderId}, KEYS[3] = stock:sold-out
+-- ARGV[1] = productId, ARGV[2] = quantity, ARGV[3] = '1' to return the quantity to the counter (release), '0' to consume it (confirm),
+-- ARGV[4] = sold-out channel
+-- returns: 1 done, 0 no matching reservation
+local field = 'item:' .. ARGV[1]
+local reserved = redis.call('HGET', KEYS[2], field)
+if not reserved or tonumber(reserved) ~= tonumber(ARGV[2]) then
+    return 0
+end
+
+redis.call('HDEL', KEYS[2], field)
+local remaining = redis.call('HLEN', KEYS[2])
+if remaining == 0 or (remaining == 1 and redis.call('HEXISTS', KEYS[2], 'userId') == 1) then
+    redis.call('DEL', KEYS[2])
+end
+
+if ARGV[3] == '1' and redis.call('HEXISTS', KEYS[1], 'available') == 1 then
+    -- the sold-out flag is cleared together with the counter it describes
+    if redis.call('HINCRBY', KEYS[1], 'available', tonumber(reserved)) > 0
+            and redis.call('SREM', KEYS[3], ARGV[1]) == 1 then
+        redis.call('PUBLISH', ARGV[4], '-' .. ARGV[1])
+    end
+end
+return 1
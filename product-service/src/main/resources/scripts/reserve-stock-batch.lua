@@ -0,0 +1,68 @@
+-- KEYS[1] = reservation:{orderId}, KEYS[2] = stock:sold-out,
+-- KEYS[3..n+2] = stock:{productId} for each line, sorted by productId
+-- ARGV[1] = userId, ARGV[2] = now (epoch millis), ARGV[3] = reservation ttl (seconds), ARGV[4] = sold-out channel,
+-- ARGV[5..] = productId, quantity pairs in the same order as KEYS[3..]
+-- returns: { status, productId, reserved productIds... }
+--   status 1 reserved, 0 insufficient stock, -1 counter not loaded, -2 flash sale not active, -3 already reserved,
+--   -4 sold out (nothing left at all)
+--   productId is the first line that failed (0 on success)
+-- All lines are checked before any counter is touched, so the order is either fully reserved or left unchanged.
+-- The sold-out flag is set in the same script as the counter change, so it can never disagree with the counter.
+local function markSoldOut(productId)
+    if redis.call('SADD', KEYS[2], productId) == 1 then
+        redis.call('PUBLISH', ARGV[4], '+' .. productId)
+    end
+end
+
+local now = tonumber(ARGV[2])
+local lineCount = #KEYS - 2
+local pending = {}
+
+for i = 1, lineCount do
+    local stockKey = KEYS[i + 2]
+    local productId = ARGV[3 + i * 2]
+    local quantity = tonumber(ARGV[4 + i * 2])
+
+    local available = redis.call('HGET', stockKey, 'available')
+    if not available then
+        return { -1, tonumber(productId) }
+    end
+
+    if redis.call('HGET', stockKey, 'flashSale') == '1' then
+        local saleStart = tonumber(redis.call('HGET', stockKey, 'saleStart') or '0')
+        local saleEnd = tonumber(redis.call('HGET', stockKey, 'saleEnd') or '0')
+        if now <= saleStart or now >= saleEnd then
+            return { -2, tonumber(productId) }
+        end
+    end
+
+    -- lines already reserved for this order (e.g. a redelivered event) are skipped
+    if redis.call('HEXISTS', KEYS[1], 'item:' .. productId) == 0 then
+        if tonumber(available) < quantity then
+            if tonumber(available) <= 0 then
+                markSoldOut(productId)
+                return { -4, tonumber(productId) }
+            end
+            return { 0, tonumber(productId) }
+        end
+        pending[#pending + 1] = { stockKey, productId, quantity }
+    end
+end
+
+if #pending == 0 then
+    return { -3, 0 }
+end
+
+local result = { 1, 0 }
+for _, line in ipairs(pending) do
+    if redis.call('HINCRBY', line[1], 'available', -line[3]) <= 0 then
+        markSoldOut(line[2])
+    end
+    redis.call('HSET', KEYS[1], 'item:' .. line[2], line[3])
+    result[#result + 1] = tonumber(line[2])
+end
+if ARGV[1] ~= '' then
+    redis.call('HSET', KEYS[1], 'userId', ARGV[1])
+end
+redis.call('EXPIRE', KEYS[1], tonumber(ARGV[3]))
+return result
@@ -0,0 +1,49 @@
+-- KEYS[1] = stock:{productId}, KEYS[2] = reservation:{orderId}, KEYS[3] = stock:sold-out
+-- ARGV[1] = productId, ARGV[2] = quantity, ARGV[3] = userId, ARGV[4] = now (epoch millis), ARGV[5] = reservation ttl (seconds),
+-- ARGV[6] = sold-out channel
+-- returns: 1 reserved, 0 insufficient stock, -1 counter not loaded, -2 flash sale not active, -3 already reserved,
+--          -4 sold out (nothing left at all)
+-- The sold-out flag is set in the same script as the counter change, so it can never disagree with the counter.
+local function markSoldOut(productId)
+    if redis.call('SADD', KEYS[3], productId) == 1 then
+        redis.call('PUBLISH', ARGV[6], '+' .. productId)
+    end
+end
+
+local available = redis.call('HGET', KEYS[1], 'available')
+if not available then
+    return -1
+end
+
+if redis.call('HGET', KEYS[1], 'flashSale') == '1' then
+    local now = tonumber(ARGV[4])
+    local saleStart = tonumber(redis.call('HGET', KEYS[1], 'saleStart') or '0')
+    local saleEnd = tonumber(redis.call('HGET', KEYS[1], 'saleEnd') or '0')
+    if now <= saleStart or now >= saleEnd then
+        return -2
+    end
+end
+
+local field = 'item:' .. ARGV[1]
+if redis.call('HEXISTS', KEYS[2], field) == 1 then
+    return -3
+end
+
+local quantity = tonumber(ARGV[2])
+if tonumber(available) < quantity then
+    if tonumber(available) <= 0 then
+        markSoldOut(ARGV[1])
+        return -4
+    end
+    return 0
+end
+
+if redis.call('HINCRBY', KEYS[1], 'available', -quantity) <= 0 then
+    markSoldOut(ARGV[1])
+end
+redis.call('HSET', KEYS[2], field, quantity)
+if ARGV[3] ~= '' then
+    redis.call('HSET', KEYS[2], 'userId', ARGV[3])
+end
+redis.call('EXPIRE', KEYS[2], tonumber(ARGV[5]))
+return 1
@@ -0,0 +1,92 @@
+package com.jun.productservice.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jun.productservice.dto.ProductDto;
+import com.jun.productservice.event.StockReservedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 캐시 값(List&lt;ProductDto&gt;)과 Kafka 이벤트(StockReservedEvent)를 JSON 과 Smile 로 인코딩했을 때의
+ * 크기와 인코딩/디코딩 시간을 비교한다. 기본 빌드에서는 건너뛰며 RUN_BENCHMARKS=true 로 실행한다.
+ * <pre>RUN_BENCHMARKS=true ./gradlew test --tests '*PayloadCodecBenchmark' -i</pre>
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class PayloadCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+
+    @Test
+    void compareCacheValueEncodings() throws Exception {
+        List<ProductDto> products = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            products.add(product(id));
+        }
+
+        // RedisConfig.redisObjectMapper() 와 같은 설정
+        ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule());
+        ObjectMapper smile = PayloadCodec.SMILE.newObjectMapper();
+        JavaType listType = json.getTypeFactory().constructCollectionType(List.class, ProductDto.class);
+
+        run("product list x100 / json", json, products, listType);
+        run("product list x100 / smile", smile, products, listType);
+    }
+
+    @Test
+    void compareEventEncodings() throws Exception {
+        List<StockReservedEvent.ReservedItem> items = List.of(
+                new StockReservedEvent.ReservedItem(1L, 2, "플래시 세일 한정판 운동화"),
+                new StockReservedEvent.ReservedItem(2L, 1, "무선 이어폰"),
+                new StockReservedEvent.ReservedItem(3L, 3, "스마트 워치 스트랩"));
+        StockReservedEvent event = StockReservedEvent.forOrder("ORD-20240101-000123", items);
+
+        ObjectMapper json = PayloadCodec.JSON.newObjectMapper();
+        ObjectMapper smile = PayloadCodec.SMILE.newObjectMapper();
+        JavaType eventType = json.getTypeFactory().constructType(StockReservedEvent.class);
+
+        run("stock-reserved / json", json, event, eventType);
+        run("stock-reserved / smile", smile, event, eventType);
+    }
+
+    private void run(String label, ObjectMapper mapper, Object value, JavaType type) throws Exception {
+        byte[] encoded = mapper.writeValueAsBytes(value);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(value), type);
+        }
+
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(value).length;
+        }
+        long encodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += mapper.readValue(encoded, type).hashCode() & 1;
+        }
+        long decodeNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        assertEquals(encoded.length, mapper.writeValueAsBytes(mapper.readValue(encoded, type)).length);
+        System.out.printf("%-28s %8d bytes  encode %8d ns/op  decode %8d ns/op  (%d)%n",
+                label, encoded.length, encodeNanos, decodeNanos, sink % 10);
+    }
+
+    private ProductDto product(long id) {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 10, 0);
+        return new ProductDto(id, "상품 " + id, "상품 " + id + " 상세 설명입니다. 한정 수량으로 판매됩니다.",
+                new BigDecimal("129000.00"), new BigDecimal("159000.00"), 100, 87, id % 10,
+                "https://cdn.example.com/products/" + id + ".jpg", true, id % 5 == 0,
+                now, now.plusHours(2), 50, 20, now.minusDays(30), now, id % 5 == 0);
+    }
+}
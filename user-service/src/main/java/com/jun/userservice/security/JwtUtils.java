@@ -1,5 +1,6 @@
 package com.jun.userservice.security;
 
+import com.jun.userservice.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
@@ -22,6 +23,9 @@ public class JwtUtils {
     @Value("${spring.security.jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${spring.security.jwt.key-id:v1}")
+    private String jwtKeyId;
+
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes());
     }
@@ -29,8 +33,17 @@ public class JwtUtils {
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
 
-        return Jwts.builder()
-                .setSubject((userPrincipal.getUsername()))
+        // 게이트웨이가 user-service 호출 없이 로컬 검증만으로 사용자 정보를 얻을 수 있도록 claim 에 포함한다.
+        JwtBuilder builder = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyId)
+                .setSubject((userPrincipal.getUsername()));
+        if (userPrincipal instanceof User user) {
+            builder.claim("userId", user.getId())
+                    .claim("email", user.getEmail())
+                    .claim("role", user.getRole().name());
+        }
+
+        return builder
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)